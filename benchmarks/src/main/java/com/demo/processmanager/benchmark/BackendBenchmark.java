@@ -0,0 +1,60 @@
+package com.demo.processmanager.benchmark;
+
+import com.demo.processmanager.ProcessInfo;
+import com.demo.processmanager.parser.LinuxProcessParser;
+import com.demo.processmanager.parser.ProcFsReader;
+import com.demo.processmanager.parser.ProcessBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 平台后端对比基准测试
+ * 对比基于命令（fork ps）与原生读取（/proc）两种后端的完整列表延迟；新增后端时在backend参数中追加
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BackendBenchmark {
+
+    @Param({"ps", "procfs"})
+    public String backend;
+
+    private ProcessBackend processBackend;
+    private long currentPid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("procfs".equals(backend) && !ProcFsReader.isAvailable()) {
+            throw new IllegalStateException("当前系统没有/proc文件系统");
+        }
+        processBackend = new LinuxProcessParser("procfs".equals(backend));
+        currentPid = ProcessHandle.current().pid();
+    }
+
+    @Benchmark
+    public List<ProcessInfo> listProcesses() throws IOException {
+        return processBackend.listProcesses();
+    }
+
+    @Benchmark
+    public ProcessInfo getProcessInfo() throws IOException {
+        return processBackend.getProcessInfo(currentPid);
+    }
+}
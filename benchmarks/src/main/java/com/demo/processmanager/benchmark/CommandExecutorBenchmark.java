@@ -0,0 +1,56 @@
+package com.demo.processmanager.benchmark;
+
+import com.demo.processmanager.utils.CommandExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 命令执行基准测试
+ * 对比每条命令创建子进程与常驻shell会话两种方式的单次调用开销（仅macOS/Linux）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandExecutorBenchmark {
+
+    @Param({"false", "true"})
+    public boolean sessionMode;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CommandExecutor.setSessionMode(sessionMode);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CommandExecutor.setSessionMode(false);
+    }
+
+    @Benchmark
+    public List<String> echo() throws IOException {
+        return CommandExecutor.executeCommand("echo benchmark");
+    }
+
+    @Benchmark
+    public List<String> psSelf() throws IOException {
+        return CommandExecutor.executeCommand("ps -p " + ProcessHandle.current().pid() + " -o pid,pcpu,pmem,rss,etime,time,comm");
+    }
+}
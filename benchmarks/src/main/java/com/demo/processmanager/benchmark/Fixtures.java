@@ -0,0 +1,123 @@
+package com.demo.processmanager.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试使用的命令输出和/proc样本
+ * 按真实命令的列格式生成指定行数的输出，固定随机种子保证每次运行数据一致
+ */
+public final class Fixtures {
+
+    private static final String[] NAMES = {
+            "java", "systemd", "sshd", "bash", "nginx", "postgres", "kworker/0:1", "containerd-shim", "python3", "node"
+    };
+
+    private Fixtures() {
+    }
+
+    /**
+     * 生成ps -eo pid,ppid,pcpu,pmem,rss,etime,time,comm格式的输出（不含表头）
+     * @param rows 行数
+     * @return 输出行
+     */
+    public static List<String> psLines(int rows) {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            long pid = i + 1;
+            long ppid = i == 0 ? 0 : random.nextInt(i) + 1;
+            double cpu = random.nextInt(1000) / 10.0;
+            double mem = random.nextInt(200) / 10.0;
+            long rss = random.nextInt(4_000_000);
+            lines.add(String.format("%7d %7d %5.1f %4.1f %8d %14s %11s %s",
+                    pid, ppid, cpu, mem, rss, elapsed(random), cpuTime(random), NAMES[i % NAMES.length]));
+        }
+        return lines;
+    }
+
+    /**
+     * 生成tasklist /FO CSV /NH格式的输出
+     * @param rows 行数
+     * @return 输出行
+     */
+    public static List<String> tasklistLines(int rows) {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            lines.add(String.format("\"%s.exe\",\"%d\",\"Console\",\"1\",\"%,d K\"",
+                    NAMES[i % NAMES.length].replace('/', '_'), (i + 1) * 4, random.nextInt(2_000_000)));
+        }
+        return lines;
+    }
+
+    /**
+     * 生成wmic process get ... /format:csv格式的输出（含表头）
+     * @param rows 行数
+     * @return 输出行
+     */
+    public static List<String> wmicProcessCsv(int rows) {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>(rows + 1);
+        lines.add("Node,CreationDate,KernelModeTime,Name,ParentProcessId,ProcessId,UserModeTime,WorkingSetSize");
+        for (int i = 0; i < rows; i++) {
+            lines.add(String.format("HOST,20251130%02d%02d%02d.%06d+480,%d,%s.exe,%d,%d,%d,%d",
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1_000_000),
+                    random.nextInt(1_000_000_000), NAMES[i % NAMES.length].replace('/', '_'), i * 4, (i + 1) * 4,
+                    random.nextInt(1_000_000_000), random.nextInt(2_000_000_000)));
+        }
+        return lines;
+    }
+
+    /**
+     * 在指定目录下生成/proc目录结构：uptime、stat（btime），以及每个进程的comm、stat、statm
+     * @param root 目标目录
+     * @param processes 进程数
+     * @throws IOException 如果写入失败
+     */
+    public static void procTree(Path root, int processes) throws IOException {
+        Random random = new Random(42);
+        write(root.resolve("uptime"), "864000.00 3000000.00\n");
+        write(root.resolve("stat"), "cpu  1 2 3 4 5 6 7 8 0 0\nbtime 1764460800\n");
+        for (int i = 0; i < processes; i++) {
+            long pid = i + 1;
+            long ppid = i == 0 ? 0 : random.nextInt(i) + 1;
+            String name = NAMES[i % NAMES.length];
+            Path dir = Files.createDirectory(root.resolve(Long.toString(pid)));
+            write(dir.resolve("comm"), name + "\n");
+            write(dir.resolve("stat"), String.format("%d (%s) S %d %d %d 0 -1 4194560 %d 0 %d 0 %d %d 0 0 20 0 %d 0 %d %d %d%n",
+                    pid, name, ppid, pid, pid, random.nextInt(100_000), random.nextInt(100),
+                    random.nextInt(1_000_000), random.nextInt(1_000_000), 1 + random.nextInt(64),
+                    random.nextInt(80_000_000), random.nextInt(2_000_000_000), random.nextInt(1_000_000)));
+            write(dir.resolve("statm"), String.format("%d %d %d 1 0 %d 0%n",
+                    random.nextInt(2_000_000), random.nextInt(1_000_000), random.nextInt(100_000), random.nextInt(500_000)));
+        }
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.write(path, content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String elapsed(Random random) {
+        int days = random.nextInt(4);
+        int hours = random.nextInt(24);
+        int minutes = random.nextInt(60);
+        int seconds = random.nextInt(60);
+        if (days > 0) {
+            return String.format("%d-%02d:%02d:%02d", days, hours, minutes, seconds);
+        }
+        if (hours > 0) {
+            return String.format("%02d:%02d:%02d", hours, minutes, seconds);
+        }
+        return String.format("%02d:%02d", minutes, seconds);
+    }
+
+    private static String cpuTime(Random random) {
+        return String.format("%02d:%02d:%02d", random.nextInt(24), random.nextInt(60), random.nextInt(60));
+    }
+}
@@ -0,0 +1,57 @@
+package com.demo.processmanager.benchmark;
+
+import com.demo.processmanager.ProcessInfo;
+import com.demo.processmanager.ProcessManager;
+import com.demo.processmanager.SystemStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProcessManager公开API基准测试
+ * 在当前主机上实际执行，结果与主机进程数量和平台后端相关
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessManagerBenchmark {
+
+    private ProcessManager processManager;
+    private long currentPid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        processManager = new ProcessManager();
+        currentPid = ProcessHandle.current().pid();
+    }
+
+    @Benchmark
+    public List<ProcessInfo> listProcesses() throws IOException {
+        return processManager.listProcesses();
+    }
+
+    @Benchmark
+    public ProcessInfo getProcessInfo() throws IOException {
+        return processManager.getProcessInfo(currentPid);
+    }
+
+    @Benchmark
+    public SystemStats getSystemStats() {
+        return processManager.getSystemStats();
+    }
+}
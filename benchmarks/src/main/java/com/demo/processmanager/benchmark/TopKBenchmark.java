@@ -0,0 +1,77 @@
+package com.demo.processmanager.benchmark;
+
+import com.demo.processmanager.ProcessInfo;
+import com.demo.processmanager.ProcessMetric;
+import com.demo.processmanager.ProcessTable;
+import com.demo.processmanager.utils.TopK;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-K选择基准测试
+ * 对比列式快照上的有界堆选择、对象列表上的有界堆选择以及完整排序
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TopKBenchmark {
+
+    private static final Comparator<ProcessInfo> BY_CPU = Comparator.comparingDouble(ProcessInfo::getCpu);
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"20"})
+    public int k;
+
+    private ProcessTable table;
+    private List<ProcessInfo> processes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        processes = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            ProcessInfo process = new ProcessInfo(i + 1, "proc" + (i % 200), random.nextInt(1000) / 10.0, 0, null);
+            process.setMemoryBytes(random.nextInt(1 << 20) * 1024L);
+            processes.add(process);
+        }
+        table = ProcessTable.of(processes);
+    }
+
+    @Benchmark
+    public int[] tableHeap() {
+        return table.topIndices(ProcessMetric.CPU, k);
+    }
+
+    @Benchmark
+    public List<ProcessInfo> listHeap() {
+        return TopK.select(processes, k, BY_CPU);
+    }
+
+    @Benchmark
+    public List<ProcessInfo> fullSort() {
+        List<ProcessInfo> sorted = new ArrayList<>(processes);
+        sorted.sort(BY_CPU.reversed());
+        return sorted.subList(0, Math.min(k, sorted.size()));
+    }
+}
@@ -0,0 +1,81 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.ProcessInfo;
+import com.demo.processmanager.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 命令输出解析基准测试
+ * 使用生成的ps、tasklist、wmic输出样本，单独衡量解析开销（不含命令执行）
+ *
+ * 位于parser包中以便直接调用包内可见的解析方法
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private List<String> psLines;
+    private List<String> tasklistLines;
+    private List<String> wmicLines;
+
+    private LinuxProcessParser linuxParser;
+    private MacProcessParser macParser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        psLines = Fixtures.psLines(rows);
+        tasklistLines = Fixtures.tasklistLines(rows);
+        wmicLines = Fixtures.wmicProcessCsv(rows);
+        linuxParser = new LinuxProcessParser(false);
+        macParser = new MacProcessParser();
+    }
+
+    @Benchmark
+    public void linuxPs(Blackhole blackhole) {
+        for (String line : psLines) {
+            blackhole.consume(linuxParser.parseProcessLine(line));
+        }
+    }
+
+    @Benchmark
+    public void macPs(Blackhole blackhole) {
+        for (String line : psLines) {
+            blackhole.consume(macParser.parseProcessLine(line));
+        }
+    }
+
+    @Benchmark
+    public void windowsTasklist(Blackhole blackhole) {
+        for (String line : tasklistLines) {
+            blackhole.consume(WindowsProcessParser.parseTasklistLine(line));
+        }
+    }
+
+    @Benchmark
+    public Map<Long, ProcessInfo> windowsWmicCsv() {
+        return WindowsProcessParser.parseProcessRecords(WmicOutput.parseCsv(wmicLines));
+    }
+}
@@ -0,0 +1,92 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.ProcessInfo;
+import com.demo.processmanager.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * /proc并行读取基准测试
+ * 按线程数对比完整进程列表的延迟：threads=1为顺序读取，其余使用对应并行度的ForkJoin线程池并关闭并行阈值。
+ * processes=0读取本机/proc，其余读取生成的/proc样本目录（普通文件系统，单次读取比procfs便宜，扩展性偏保守）
+ *
+ * 位于parser包中以便使用包内可见的ProcFsReader(Path)构造函数
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcScanBenchmark {
+
+    @Param({"0", "1000", "20000"})
+    public int processes;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Path root;
+    private ProcFsReader reader;
+    private ForkJoinPool pool;
+    private ForkJoinPool savedPool;
+    private int savedThreshold;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (processes == 0) {
+            if (!ProcFsReader.isAvailable()) {
+                throw new IllegalStateException("当前系统没有/proc文件系统");
+            }
+            reader = new ProcFsReader();
+        } else {
+            root = Files.createTempDirectory("proc-fixture");
+            Fixtures.procTree(root, processes);
+            reader = new ProcFsReader(root);
+        }
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        savedPool = ProcFsReader.getScanPool();
+        savedThreshold = ProcFsReader.getParallelThreshold();
+        ProcFsReader.setScanPool(pool);
+        ProcFsReader.setParallelThreshold(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ProcFsReader.setScanPool(savedPool);
+        ProcFsReader.setParallelThreshold(savedThreshold);
+        if (pool != null) {
+            pool.shutdown();
+        }
+        if (root != null) {
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public List<ProcessInfo> listProcesses() throws IOException {
+        return reader.listProcesses();
+    }
+}
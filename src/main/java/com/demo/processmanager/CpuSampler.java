@@ -0,0 +1,221 @@
+package com.demo.processmanager;
+
+import com.demo.processmanager.utils.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 进程CPU使用率采样器
+ * 保存每个PID最近一次采样的累计CPU时间、启动时间和采样时刻，根据两次采样之间的增量计算区间CPU使用率。
+ * 完整快照替换全部基准（移除已退出的进程），按条件查询得到的部分结果只更新其中出现的PID；
+ * 只有部分查询时，连续多次查询都没有出现的PID视为已退出，其基准被移除
+ */
+final class CpuSampler {
+
+    // ps的etime精度为秒，启动时间在该误差范围内视为同一进程
+    static final long START_TIME_TOLERANCE_MILLIS = 2000;
+
+    // 两次采样间隔过短时增量没有意义
+    private static final long MIN_INTERVAL_NANOS = 10_000_000L;
+
+    // 连续该次数的部分查询都没有出现的PID在下一次清理时移除，清理也按该间隔进行
+    static final int MAX_MISSED_MERGES = 64;
+
+    private LongIntHashMap index = new LongIntHashMap(1024);
+    private long[] pids = new long[0];
+    private long[] cpuTimes = new long[0];
+    private long[] startTimes = new long[0];
+    private long[] sampleTimes = new long[0];
+    private long[] seen = new long[0]; // 最近一次出现时的采样序号
+    private int size;
+
+    // 每次采样递增的序号，以及上一次清理时的序号
+    private long generation;
+    private long prunedAt;
+
+    // 下一次完整快照使用的缓冲区，与上面的数组交替复用
+    private LongIntHashMap nextIndex = new LongIntHashMap(1024);
+    private long[] nextPids = new long[0];
+    private long[] nextCpuTimes = new long[0];
+    private long[] nextStartTimes = new long[0];
+    private long[] nextSampleTimes = new long[0];
+
+    /**
+     * 用区间CPU使用率覆盖完整快照中的CPU值，并以本次快照替换全部基准
+     * 首次采样、新出现的进程以及无法获取累计CPU时间的进程保留后端给出的值
+     * @param processes 包含所有进程的快照，需要带有累计CPU时间和启动时间
+     */
+    void apply(List<ProcessInfo> processes) {
+        apply(processes, System.nanoTime());
+    }
+
+    /**
+     * 以指定的采样时刻处理完整快照
+     * @param processes 包含所有进程的快照
+     * @param now 采样时刻（System.nanoTime()）
+     */
+    synchronized void apply(List<ProcessInfo> processes, long now) {
+        int count = processes.size();
+        generation++;
+        prunedAt = generation;
+        if (nextCpuTimes.length < count) {
+            nextPids = new long[count];
+            nextCpuTimes = new long[count];
+            nextStartTimes = new long[count];
+            nextSampleTimes = new long[count];
+        }
+        nextIndex.clear();
+
+        for (int i = 0; i < count; i++) {
+            ProcessInfo process = processes.get(i);
+            int previous = index.get(process.getPid(), -1);
+            nextIndex.put(process.getPid(), i);
+            nextPids[i] = process.getPid();
+            if (previous >= 0 && now - sampleTimes[previous] < MIN_INTERVAL_NANOS) {
+                // 间隔过短，保留原来的基准
+                nextCpuTimes[i] = cpuTimes[previous];
+                nextStartTimes[i] = startTimes[previous];
+                nextSampleTimes[i] = sampleTimes[previous];
+                continue;
+            }
+            applyDelta(process, previous, now);
+            nextCpuTimes[i] = process.getCpuTimeMillis();
+            nextStartTimes[i] = process.getStartTimeMillis();
+            nextSampleTimes[i] = now;
+        }
+
+        // 交换缓冲区
+        LongIntHashMap swapIndex = index;
+        index = nextIndex;
+        nextIndex = swapIndex;
+        long[] swap = pids;
+        pids = nextPids;
+        nextPids = swap;
+        swap = cpuTimes;
+        cpuTimes = nextCpuTimes;
+        nextCpuTimes = swap;
+        swap = startTimes;
+        startTimes = nextStartTimes;
+        nextStartTimes = swap;
+        swap = sampleTimes;
+        sampleTimes = nextSampleTimes;
+        nextSampleTimes = swap;
+        size = count;
+        // 完整快照中的进程都在本次出现
+        if (seen.length < cpuTimes.length) {
+            seen = new long[cpuTimes.length];
+        }
+        Arrays.fill(seen, 0, count, generation);
+    }
+
+    /**
+     * 用区间CPU使用率覆盖部分进程的CPU值，只更新这些PID的基准，其他进程的基准保持不变
+     * @param processes 按条件查询得到的进程，需要带有累计CPU时间和启动时间
+     */
+    void merge(List<ProcessInfo> processes) {
+        merge(processes, System.nanoTime());
+    }
+
+    /**
+     * 以指定的采样时刻处理部分查询结果
+     * @param processes 按条件查询得到的进程
+     * @param now 采样时刻（System.nanoTime()）
+     */
+    synchronized void merge(List<ProcessInfo> processes, long now) {
+        generation++;
+        for (ProcessInfo process : processes) {
+            int previous = index.get(process.getPid(), -1);
+            if (previous >= 0) {
+                seen[previous] = generation;
+                if (now - sampleTimes[previous] < MIN_INTERVAL_NANOS) {
+                    continue;
+                }
+            }
+            applyDelta(process, previous, now);
+            if (previous < 0) {
+                if (size == cpuTimes.length) {
+                    grow(Math.max(256, size * 2));
+                }
+                previous = size++;
+                index.put(process.getPid(), previous);
+                pids[previous] = process.getPid();
+                seen[previous] = generation;
+            }
+            cpuTimes[previous] = process.getCpuTimeMillis();
+            startTimes[previous] = process.getStartTimeMillis();
+            sampleTimes[previous] = now;
+        }
+        if (generation - prunedAt >= MAX_MISSED_MERGES) {
+            prune();
+        }
+    }
+
+    /**
+     * 移除连续MAX_MISSED_MERGES次采样都没有出现的PID，并重建索引
+     */
+    private void prune() {
+        prunedAt = generation;
+        index.clear();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (generation - seen[i] >= MAX_MISSED_MERGES) {
+                continue;
+            }
+            pids[kept] = pids[i];
+            cpuTimes[kept] = cpuTimes[i];
+            startTimes[kept] = startTimes[i];
+            sampleTimes[kept] = sampleTimes[i];
+            seen[kept] = seen[i];
+            index.put(pids[kept], kept);
+            kept++;
+        }
+        size = kept;
+    }
+
+    private void grow(int capacity) {
+        pids = Arrays.copyOf(pids, capacity);
+        cpuTimes = Arrays.copyOf(cpuTimes, capacity);
+        startTimes = Arrays.copyOf(startTimes, capacity);
+        sampleTimes = Arrays.copyOf(sampleTimes, capacity);
+        seen = Arrays.copyOf(seen, capacity);
+    }
+
+    /**
+     * 当前保存基准的PID数量
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 根据基准计算区间CPU使用率并写入进程信息
+     * @param process 进程信息
+     * @param previous 基准在数组中的下标，-1表示没有基准
+     * @param now 本次采样时刻
+     */
+    private void applyDelta(ProcessInfo process, int previous, long now) {
+        long cpuTime = process.getCpuTimeMillis();
+        if (previous < 0 || cpuTime < 0 || cpuTimes[previous] < 0) {
+            return;
+        }
+        // 启动时间不同说明PID已被新进程复用
+        if (Math.abs(startTimes[previous] - process.getStartTimeMillis()) > START_TIME_TOLERANCE_MILLIS) {
+            return;
+        }
+        long delta = cpuTime - cpuTimes[previous];
+        if (delta < 0) {
+            return;
+        }
+        double cpu = delta * 1_000_000.0 * 100 / (now - sampleTimes[previous]);
+        process.setCpu(Math.round(cpu * 10) / 10.0);
+    }
+
+    /**
+     * 清除已保存的基准
+     */
+    synchronized void reset() {
+        index.clear();
+        size = 0;
+    }
+}
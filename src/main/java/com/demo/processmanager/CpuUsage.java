@@ -0,0 +1,112 @@
+package com.demo.processmanager;
+
+/**
+ * CPU时间分布实体类
+ * 各项为两次采样之间该类时间占总时间的百分比（0-100），对应/proc/stat中的同名字段
+ */
+public class CpuUsage {
+    private int core = -1;  // CPU核心编号，-1表示所有核心的汇总
+    private double user;    // 用户态（%）
+    private double nice;    // 低优先级用户态（%）
+    private double system;  // 内核态（%）
+    private double idle;    // 空闲（%）
+    private double iowait;  // 等待I/O（%）
+    private double irq;     // 硬中断（%）
+    private double softirq; // 软中断（%）
+    private double steal;   // 被虚拟化宿主占用（%）
+
+    public int getCore() {
+        return core;
+    }
+
+    public void setCore(int core) {
+        this.core = core;
+    }
+
+    public double getUser() {
+        return user;
+    }
+
+    public void setUser(double user) {
+        this.user = user;
+    }
+
+    public double getNice() {
+        return nice;
+    }
+
+    public void setNice(double nice) {
+        this.nice = nice;
+    }
+
+    public double getSystem() {
+        return system;
+    }
+
+    public void setSystem(double system) {
+        this.system = system;
+    }
+
+    public double getIdle() {
+        return idle;
+    }
+
+    public void setIdle(double idle) {
+        this.idle = idle;
+    }
+
+    public double getIowait() {
+        return iowait;
+    }
+
+    public void setIowait(double iowait) {
+        this.iowait = iowait;
+    }
+
+    public double getIrq() {
+        return irq;
+    }
+
+    public void setIrq(double irq) {
+        this.irq = irq;
+    }
+
+    public double getSoftirq() {
+        return softirq;
+    }
+
+    public void setSoftirq(double softirq) {
+        this.softirq = softirq;
+    }
+
+    public double getSteal() {
+        return steal;
+    }
+
+    public void setSteal(double steal) {
+        this.steal = steal;
+    }
+
+    /**
+     * 获取CPU使用率，即除空闲和等待I/O以外的时间占比
+     * @return CPU使用率（0-100）
+     */
+    public double getUsage() {
+        return Math.max(0, Math.round((100 - idle - iowait) * 10) / 10.0);
+    }
+
+    @Override
+    public String toString() {
+        return "CpuUsage{" +
+                "core=" + core +
+                ", user=" + String.format("%.1f", user) +
+                ", nice=" + String.format("%.1f", nice) +
+                ", system=" + String.format("%.1f", system) +
+                ", idle=" + String.format("%.1f", idle) +
+                ", iowait=" + String.format("%.1f", iowait) +
+                ", irq=" + String.format("%.1f", irq) +
+                ", softirq=" + String.format("%.1f", softirq) +
+                ", steal=" + String.format("%.1f", steal) +
+                '}';
+    }
+}
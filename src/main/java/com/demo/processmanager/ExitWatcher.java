@@ -0,0 +1,185 @@
+package com.demo.processmanager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 进程退出监视器
+ * 所有被监视的进程由同一个后台线程按固定间隔检查，不执行任何命令。检查使用ProcessHandle.isAlive()，
+ * 它同时比较进程的启动时间，PID被复用时同样视为原进程已退出；没有被监视的进程时后台线程自动结束。
+ *
+ * 对于非子进程，JDK的ProcessHandle.onExit()会为每个进程占用一个reaper线程轮询（没有使用pidfd），
+ * 因此这里只对当前JVM的直接子进程使用onExit()，它由waitpid在子进程退出时立即通知
+ */
+final class ExitWatcher {
+
+    // 检查间隔（毫秒）
+    private static final long POLL_INTERVAL_MILLIS = Long.getLong("processmanager.exitPollMillis", 200L);
+
+    private static final long CURRENT_PID = ProcessHandle.current().pid();
+
+    private final long pollIntervalMillis;
+    private final Map<Long, Watch> watches = new HashMap<>();
+    private Thread thread;
+
+    ExitWatcher() {
+        this(POLL_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param pollIntervalMillis 检查间隔（毫秒）
+     */
+    ExitWatcher(long pollIntervalMillis) {
+        if (pollIntervalMillis <= 0) {
+            throw new IllegalArgumentException("检查间隔必须大于0: " + pollIntervalMillis);
+        }
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    /**
+     * 监视进程退出
+     * 每次调用返回独立的Future，取消它不影响其他调用方；某个进程的所有Future都被取消后不再检查该进程
+     * @param pid 进程ID
+     * @return 进程退出时以PID完成的Future，进程不存在时已经完成
+     */
+    synchronized CompletableFuture<Long> watch(long pid) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        Optional<ProcessHandle> found = ProcessHandle.of(pid);
+        if (!found.isPresent()) {
+            future.complete(pid);
+            return future;
+        }
+        ProcessHandle handle = found.get();
+        if (isChild(handle)) {
+            handle.onExit().whenComplete((ignored, error) -> future.complete(pid));
+            return future;
+        }
+
+        Watch watch = watches.get(pid);
+        if (watch != null && !watch.handle.equals(handle)) {
+            // 原进程已退出、PID已被复用，只是还没有到检查时间
+            watches.remove(pid);
+            watch.completeLater();
+            watch = null;
+        }
+        if (watch == null) {
+            watch = new Watch(pid, handle);
+            watches.put(pid, watch);
+        }
+        watch.futures.add(future);
+        if (thread == null) {
+            thread = new Thread(this::run, "process-exit-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return future;
+    }
+
+    /**
+     * 被监视的进程数
+     */
+    synchronized int size() {
+        return watches.size();
+    }
+
+    private static boolean isChild(ProcessHandle handle) {
+        return handle.parent().map(parent -> parent.pid() == CURRENT_PID).orElse(false);
+    }
+
+    /**
+     * 后台线程：按间隔检查所有被监视的进程，没有需要检查的进程时结束
+     */
+    private void run() {
+        List<Watch> pending = new ArrayList<>();
+        List<Watch> exited = new ArrayList<>();
+        while (true) {
+            try {
+                Thread.sleep(pollIntervalMillis);
+            } catch (InterruptedException e) {
+                // 守护线程不会被外部中断，忽略后继续检查
+            }
+
+            synchronized (this) {
+                watches.values().removeIf(Watch::isAbandoned);
+                if (watches.isEmpty()) {
+                    thread = null;
+                    return;
+                }
+                pending.addAll(watches.values());
+            }
+
+            // isAlive()需要读取进程状态，不在锁内执行
+            for (Watch watch : pending) {
+                if (!watch.handle.isAlive()) {
+                    exited.add(watch);
+                }
+            }
+
+            if (!exited.isEmpty()) {
+                synchronized (this) {
+                    for (Watch watch : exited) {
+                        watches.remove(watch.pid, watch);
+                    }
+                }
+                // 回调在本线程上执行，不持有锁
+                for (Watch watch : exited) {
+                    watch.complete();
+                }
+            }
+            pending.clear();
+            exited.clear();
+        }
+    }
+
+    /**
+     * 一个被监视的进程及等待它退出的所有Future
+     * futures只在持有ExitWatcher锁时修改
+     */
+    private final class Watch {
+        final long pid;
+        final ProcessHandle handle;
+        final List<CompletableFuture<Long>> futures = new ArrayList<>(1);
+
+        Watch(long pid, ProcessHandle handle) {
+            this.pid = pid;
+            this.handle = handle;
+        }
+
+        /**
+         * 移除已被取消的Future
+         * @return 所有Future都已完成或被取消时返回true
+         */
+        boolean isAbandoned() {
+            futures.removeIf(CompletableFuture::isDone);
+            return futures.isEmpty();
+        }
+
+        void complete() {
+            List<CompletableFuture<Long>> waiting;
+            synchronized (ExitWatcher.this) {
+                waiting = new ArrayList<>(futures);
+                futures.clear();
+            }
+            for (CompletableFuture<Long> future : waiting) {
+                future.complete(pid);
+            }
+        }
+
+        /**
+         * 在持有锁时调用，回调放到公共线程池执行，避免在调用方的锁内运行
+         */
+        void completeLater() {
+            List<CompletableFuture<Long>> waiting = new ArrayList<>(futures);
+            futures.clear();
+            CompletableFuture.runAsync(() -> {
+                for (CompletableFuture<Long> future : waiting) {
+                    future.complete(pid);
+                }
+            });
+        }
+    }
+}
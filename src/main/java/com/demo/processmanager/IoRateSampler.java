@@ -0,0 +1,227 @@
+package com.demo.processmanager;
+
+import com.demo.processmanager.utils.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 进程I/O速率采样器
+ * 保存每个PID最近一次采样的累计读写字节数、启动时间和采样时刻，根据两次采样之间的增量计算读写速率。
+ * 完整快照替换全部基准（移除已退出的进程），按条件查询得到的部分结果只更新其中出现的PID；
+ * 只有部分查询时，连续CpuSampler.MAX_MISSED_MERGES次查询都没有出现的PID视为已退出，其基准被移除
+ */
+final class IoRateSampler {
+
+    // 两次采样间隔过短时增量没有意义
+    private static final long MIN_INTERVAL_NANOS = 10_000_000L;
+
+    private LongIntHashMap index = new LongIntHashMap(1024);
+    private long[] pids = new long[0];
+    private long[] readBytes = new long[0];
+    private long[] writeBytes = new long[0];
+    private long[] startTimes = new long[0];
+    private long[] sampleTimes = new long[0];
+    private long[] seen = new long[0]; // 最近一次出现时的采样序号
+    private int size;
+
+    // 每次采样递增的序号，以及上一次清理时的序号
+    private long generation;
+    private long prunedAt;
+
+    // 下一次完整快照使用的缓冲区，与上面的数组交替复用
+    private LongIntHashMap nextIndex = new LongIntHashMap(1024);
+    private long[] nextPids = new long[0];
+    private long[] nextReadBytes = new long[0];
+    private long[] nextWriteBytes = new long[0];
+    private long[] nextStartTimes = new long[0];
+    private long[] nextSampleTimes = new long[0];
+
+    /**
+     * 为完整快照中带有I/O字节数的进程填充读写速率，并以本次快照替换全部基准
+     * 首次采样、新出现的进程以及无法读取I/O字节数的进程速率保持为-1
+     * @param processes 包含所有进程的快照，需要带有启动时间
+     */
+    void apply(List<ProcessInfo> processes) {
+        apply(processes, System.nanoTime());
+    }
+
+    /**
+     * 以指定的采样时刻处理完整快照
+     * @param processes 包含所有进程的快照
+     * @param now 采样时刻（System.nanoTime()）
+     */
+    synchronized void apply(List<ProcessInfo> processes, long now) {
+        int count = processes.size();
+        generation++;
+        prunedAt = generation;
+        if (nextReadBytes.length < count) {
+            nextPids = new long[count];
+            nextReadBytes = new long[count];
+            nextWriteBytes = new long[count];
+            nextStartTimes = new long[count];
+            nextSampleTimes = new long[count];
+        }
+        nextIndex.clear();
+
+        for (int i = 0; i < count; i++) {
+            ProcessInfo process = processes.get(i);
+            int previous = index.get(process.getPid(), -1);
+            nextIndex.put(process.getPid(), i);
+            nextPids[i] = process.getPid();
+            if (previous >= 0 && now - sampleTimes[previous] < MIN_INTERVAL_NANOS) {
+                // 间隔过短，保留原来的基准
+                nextReadBytes[i] = readBytes[previous];
+                nextWriteBytes[i] = writeBytes[previous];
+                nextStartTimes[i] = startTimes[previous];
+                nextSampleTimes[i] = sampleTimes[previous];
+                continue;
+            }
+            applyDelta(process, previous, now);
+            ProcessDetails details = process.getDetails();
+            nextReadBytes[i] = details == null ? -1 : details.getReadBytes();
+            nextWriteBytes[i] = details == null ? -1 : details.getWriteBytes();
+            nextStartTimes[i] = process.getStartTimeMillis();
+            nextSampleTimes[i] = now;
+        }
+
+        // 交换缓冲区
+        LongIntHashMap swapIndex = index;
+        index = nextIndex;
+        nextIndex = swapIndex;
+        long[] swap = pids;
+        pids = nextPids;
+        nextPids = swap;
+        swap = readBytes;
+        readBytes = nextReadBytes;
+        nextReadBytes = swap;
+        swap = writeBytes;
+        writeBytes = nextWriteBytes;
+        nextWriteBytes = swap;
+        swap = startTimes;
+        startTimes = nextStartTimes;
+        nextStartTimes = swap;
+        swap = sampleTimes;
+        sampleTimes = nextSampleTimes;
+        nextSampleTimes = swap;
+        size = count;
+        // 完整快照中的进程都在本次出现
+        if (seen.length < readBytes.length) {
+            seen = new long[readBytes.length];
+        }
+        Arrays.fill(seen, 0, count, generation);
+    }
+
+    /**
+     * 为部分进程填充读写速率，只更新这些PID的基准，其他进程的基准保持不变
+     * @param processes 按条件查询得到的进程，需要带有启动时间
+     */
+    void merge(List<ProcessInfo> processes) {
+        merge(processes, System.nanoTime());
+    }
+
+    /**
+     * 以指定的采样时刻处理部分查询结果
+     * @param processes 按条件查询得到的进程
+     * @param now 采样时刻（System.nanoTime()）
+     */
+    synchronized void merge(List<ProcessInfo> processes, long now) {
+        generation++;
+        for (ProcessInfo process : processes) {
+            int previous = index.get(process.getPid(), -1);
+            if (previous >= 0) {
+                seen[previous] = generation;
+                if (now - sampleTimes[previous] < MIN_INTERVAL_NANOS) {
+                    continue;
+                }
+            }
+            applyDelta(process, previous, now);
+            if (previous < 0) {
+                if (size == readBytes.length) {
+                    grow(Math.max(256, size * 2));
+                }
+                previous = size++;
+                index.put(process.getPid(), previous);
+                pids[previous] = process.getPid();
+                seen[previous] = generation;
+            }
+            ProcessDetails details = process.getDetails();
+            readBytes[previous] = details == null ? -1 : details.getReadBytes();
+            writeBytes[previous] = details == null ? -1 : details.getWriteBytes();
+            startTimes[previous] = process.getStartTimeMillis();
+            sampleTimes[previous] = now;
+        }
+        if (generation - prunedAt >= CpuSampler.MAX_MISSED_MERGES) {
+            prune();
+        }
+    }
+
+    /**
+     * 移除连续MAX_MISSED_MERGES次采样都没有出现的PID，并重建索引
+     */
+    private void prune() {
+        prunedAt = generation;
+        index.clear();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (generation - seen[i] >= CpuSampler.MAX_MISSED_MERGES) {
+                continue;
+            }
+            pids[kept] = pids[i];
+            readBytes[kept] = readBytes[i];
+            writeBytes[kept] = writeBytes[i];
+            startTimes[kept] = startTimes[i];
+            sampleTimes[kept] = sampleTimes[i];
+            seen[kept] = seen[i];
+            index.put(pids[kept], kept);
+            kept++;
+        }
+        size = kept;
+    }
+
+    private void grow(int capacity) {
+        pids = Arrays.copyOf(pids, capacity);
+        readBytes = Arrays.copyOf(readBytes, capacity);
+        writeBytes = Arrays.copyOf(writeBytes, capacity);
+        startTimes = Arrays.copyOf(startTimes, capacity);
+        sampleTimes = Arrays.copyOf(sampleTimes, capacity);
+        seen = Arrays.copyOf(seen, capacity);
+    }
+
+    /**
+     * 当前保存基准的PID数量
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 根据基准计算读写速率并写入进程详情
+     * @param process 进程信息
+     * @param previous 基准在数组中的下标，-1表示没有基准
+     * @param now 本次采样时刻
+     */
+    private void applyDelta(ProcessInfo process, int previous, long now) {
+        ProcessDetails details = process.getDetails();
+        if (previous < 0 || details == null) {
+            return;
+        }
+        long read = details.getReadBytes();
+        long write = details.getWriteBytes();
+        if (read < 0 || write < 0 || readBytes[previous] < 0 || writeBytes[previous] < 0) {
+            return;
+        }
+        // 启动时间不同说明PID已被新进程复用
+        if (Math.abs(startTimes[previous] - process.getStartTimeMillis()) > CpuSampler.START_TIME_TOLERANCE_MILLIS) {
+            return;
+        }
+        long readDelta = read - readBytes[previous];
+        long writeDelta = write - writeBytes[previous];
+        if (readDelta < 0 || writeDelta < 0) {
+            return;
+        }
+        double seconds = (now - sampleTimes[previous]) / 1_000_000_000.0;
+        details.setReadBytesPerSecond(readDelta / seconds);
+        details.setWriteBytesPerSecond(writeDelta / seconds);
+    }
+}
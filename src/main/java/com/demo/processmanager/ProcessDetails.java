@@ -0,0 +1,135 @@
+package com.demo.processmanager;
+
+/**
+ * 进程扩展指标实体类
+ * 只有在ProcessQuery中请求了对应字段时才会采集，未采集或平台不支持的指标保持为-1（或null）
+ */
+public class ProcessDetails {
+    private String state;                         // 进程状态（如R、S、D、Z），null表示未知
+    private int threadCount = -1;                 // 线程数，-1表示未知
+    private int fileDescriptorCount = -1;         // 打开的文件描述符数（Windows为句柄数），-1表示未知
+    private long readBytes = -1;                  // 累计读取字节数，-1表示未知
+    private long writeBytes = -1;                 // 累计写入字节数，-1表示未知
+    private double readBytesPerSecond = -1;       // 两次快照之间的读取速率（字节/秒），-1表示未知
+    private double writeBytesPerSecond = -1;      // 两次快照之间的写入速率（字节/秒），-1表示未知
+    private long voluntaryContextSwitches = -1;   // 自愿上下文切换次数，-1表示未知
+    private long involuntaryContextSwitches = -1; // 非自愿上下文切换次数，-1表示未知
+    private long residentBytes = -1;              // 常驻内存RSS（字节），-1表示未知
+    private long virtualBytes = -1;               // 虚拟内存VSZ（字节），-1表示未知
+    private long sharedBytes = -1;                // 共享内存（字节），-1表示未知
+
+    // Getter和Setter方法
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public int getFileDescriptorCount() {
+        return fileDescriptorCount;
+    }
+
+    public void setFileDescriptorCount(int fileDescriptorCount) {
+        this.fileDescriptorCount = fileDescriptorCount;
+    }
+
+    public long getReadBytes() {
+        return readBytes;
+    }
+
+    public void setReadBytes(long readBytes) {
+        this.readBytes = readBytes;
+    }
+
+    public long getWriteBytes() {
+        return writeBytes;
+    }
+
+    public void setWriteBytes(long writeBytes) {
+        this.writeBytes = writeBytes;
+    }
+
+    public double getReadBytesPerSecond() {
+        return readBytesPerSecond;
+    }
+
+    public void setReadBytesPerSecond(double readBytesPerSecond) {
+        this.readBytesPerSecond = readBytesPerSecond;
+    }
+
+    public double getWriteBytesPerSecond() {
+        return writeBytesPerSecond;
+    }
+
+    public void setWriteBytesPerSecond(double writeBytesPerSecond) {
+        this.writeBytesPerSecond = writeBytesPerSecond;
+    }
+
+    public long getVoluntaryContextSwitches() {
+        return voluntaryContextSwitches;
+    }
+
+    public void setVoluntaryContextSwitches(long voluntaryContextSwitches) {
+        this.voluntaryContextSwitches = voluntaryContextSwitches;
+    }
+
+    public long getInvoluntaryContextSwitches() {
+        return involuntaryContextSwitches;
+    }
+
+    public void setInvoluntaryContextSwitches(long involuntaryContextSwitches) {
+        this.involuntaryContextSwitches = involuntaryContextSwitches;
+    }
+
+    public long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public void setResidentBytes(long residentBytes) {
+        this.residentBytes = residentBytes;
+    }
+
+    public long getVirtualBytes() {
+        return virtualBytes;
+    }
+
+    public void setVirtualBytes(long virtualBytes) {
+        this.virtualBytes = virtualBytes;
+    }
+
+    public long getSharedBytes() {
+        return sharedBytes;
+    }
+
+    public void setSharedBytes(long sharedBytes) {
+        this.sharedBytes = sharedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessDetails{" +
+                "state='" + state + '\'' +
+                ", threadCount=" + threadCount +
+                ", fileDescriptorCount=" + fileDescriptorCount +
+                ", readBytes=" + readBytes +
+                ", writeBytes=" + writeBytes +
+                ", readBytesPerSecond=" + readBytesPerSecond +
+                ", writeBytesPerSecond=" + writeBytesPerSecond +
+                ", voluntaryContextSwitches=" + voluntaryContextSwitches +
+                ", involuntaryContextSwitches=" + involuntaryContextSwitches +
+                ", residentBytes=" + residentBytes +
+                ", virtualBytes=" + virtualBytes +
+                ", sharedBytes=" + sharedBytes +
+                '}';
+    }
+}
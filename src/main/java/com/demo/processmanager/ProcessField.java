@@ -0,0 +1,40 @@
+package com.demo.processmanager;
+
+/**
+ * 进程信息字段，用于ProcessQuery的字段投影
+ * PID始终返回，不需要指定；STATE及之后的扩展字段默认不采集，结果保存在ProcessInfo.getDetails()中
+ */
+public enum ProcessField {
+    /** 进程名称 */
+    NAME,
+    /** CPU使用率 */
+    CPU,
+    /** 内存占用（MB、字节及是否精确） */
+    MEMORY,
+    /** 启动时间和已运行时长 */
+    START_TIME,
+    /** 累计CPU时间 */
+    CPU_TIME,
+    /** 父进程ID */
+    PARENT_PID,
+    /** 进程状态 */
+    STATE,
+    /** 线程数 */
+    THREADS,
+    /** 打开的文件描述符数（Windows为句柄数） */
+    FILE_DESCRIPTORS,
+    /** 累计读写字节数及两次快照之间的速率 */
+    IO,
+    /** 自愿/非自愿上下文切换次数 */
+    CONTEXT_SWITCHES,
+    /** 常驻、虚拟和共享内存 */
+    MEMORY_DETAIL;
+
+    /**
+     * 是否为默认不采集的扩展字段
+     * @return 扩展字段返回true
+     */
+    public boolean isExtended() {
+        return compareTo(STATE) >= 0;
+    }
+}
@@ -9,7 +9,14 @@ public class ProcessInfo {
     private String name;        // 进程名称
     private double cpu;         // CPU使用率（%）
     private long memory;        // 内存占用（MB）
-    private String startTime;   // 启动时间文本
+    private String startTime;   // 启动时间文本，为null时按已运行时长生成
+    private long memoryBytes;   // 常驻内存（字节）
+    private boolean memoryExact; // 内存是否为操作系统报告的精确值（false表示按百分比估算）
+    private long cpuTimeMillis = -1; // 累计CPU时间（毫秒），-1表示未知
+    private long startTimeMillis;    // 启动时间（epoch毫秒），0表示未知
+    private long elapsedMillis = -1; // 采样时已运行时长（毫秒），-1表示未知
+    private long parentPid = -1;     // 父进程ID，-1表示未知
+    private ProcessDetails details;  // 扩展指标，未请求时为null
 
     public ProcessInfo() {
     }
@@ -55,7 +62,82 @@ public class ProcessInfo {
         this.memory = memory;
     }
 
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public void setMemoryBytes(long memoryBytes) {
+        this.memoryBytes = memoryBytes;
+    }
+
+    public boolean isMemoryExact() {
+        return memoryExact;
+    }
+
+    public void setMemoryExact(boolean memoryExact) {
+        this.memoryExact = memoryExact;
+    }
+
+    public long getCpuTimeMillis() {
+        return cpuTimeMillis;
+    }
+
+    public void setCpuTimeMillis(long cpuTimeMillis) {
+        this.cpuTimeMillis = cpuTimeMillis;
+    }
+
+    public long getStartTimeMillis() {
+        return startTimeMillis;
+    }
+
+    public void setStartTimeMillis(long startTimeMillis) {
+        this.startTimeMillis = startTimeMillis;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getParentPid() {
+        return parentPid;
+    }
+
+    public void setParentPid(long parentPid) {
+        this.parentPid = parentPid;
+    }
+
+    /**
+     * 获取扩展指标
+     * @return 扩展指标，查询中没有请求扩展字段时返回null
+     */
+    public ProcessDetails getDetails() {
+        return details;
+    }
+
+    public void setDetails(ProcessDetails details) {
+        this.details = details;
+    }
+
+    /**
+     * 获取启动时间文本
+     * 后端没有提供文本时，在第一次调用时按已运行时长格式化为ps etime格式：[[dd-]hh:]mm:ss
+     * @return 启动时间文本，已运行时长未知时返回null
+     */
     public String getStartTime() {
+        if (startTime == null && elapsedMillis >= 0) {
+            startTime = formatElapsed(elapsedMillis);
+        }
+        return startTime;
+    }
+
+    /**
+     * 获取后端提供的启动时间文本，不触发格式化
+     */
+    String getStartTimeText() {
         return startTime;
     }
 
@@ -63,14 +145,36 @@ public class ProcessInfo {
         this.startTime = startTime;
     }
 
+    /**
+     * 将已运行时长格式化为ps etime格式：[[dd-]hh:]mm:ss
+     * @param millis 已运行时长（毫秒）
+     * @return 格式化后的字符串
+     */
+    static String formatElapsed(long millis) {
+        long seconds = millis / 1000;
+        long days = seconds / 86400;
+        long hours = (seconds % 86400) / 3600;
+        long minutes = (seconds % 3600) / 60;
+        long secs = seconds % 60;
+        if (days > 0) {
+            return String.format("%d-%02d:%02d:%02d", days, hours, minutes, secs);
+        }
+        if (hours > 0) {
+            return String.format("%02d:%02d:%02d", hours, minutes, secs);
+        }
+        return String.format("%02d:%02d", minutes, secs);
+    }
+
     @Override
     public String toString() {
         return "ProcessInfo{" +
                 "pid=" + pid +
+                ", parentPid=" + parentPid +
                 ", name='" + name + '\'' +
                 ", cpu=" + cpu +
                 ", memory=" + memory +
-                ", startTime='" + startTime + '\'' +
+                ", memoryExact=" + memoryExact +
+                ", startTime='" + getStartTime() + '\'' +
                 '}';
     }
 }
\ No newline at end of file
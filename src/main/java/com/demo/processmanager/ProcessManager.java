@@ -1,15 +1,29 @@
 package com.demo.processmanager;
 
+import com.demo.processmanager.event.ProcessEvent;
+import com.demo.processmanager.event.ProcessEventListener;
+import com.demo.processmanager.parser.CpuStatsReader;
 import com.demo.processmanager.parser.LinuxProcessParser;
 import com.demo.processmanager.parser.MacProcessParser;
+import com.demo.processmanager.parser.MemoryStatsReader;
+import com.demo.processmanager.parser.ProcessBackend;
+import com.demo.processmanager.parser.ProcessHandleBackend;
 import com.demo.processmanager.parser.WindowsProcessParser;
 import com.demo.processmanager.utils.CommandExecutor;
+import com.demo.processmanager.utils.TopK;
 
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
-import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 /**
  * 进程管理器主入口类
@@ -17,33 +31,293 @@ import java.util.List;
  */
 public class ProcessManager {
     
+    // 构建进程树使用的查询：默认字段加上线程数
+    private static final ProcessQuery TREE_QUERY = ProcessQuery.builder()
+            .includeFields(ProcessField.THREADS)
+            .build();
+    
     private final String osType;
+    private final ProcessBackend backend;
+    private final MemoryStatsReader memoryStatsReader;
+    private final CpuStatsReader cpuStatsReader;
+    private final CpuSampler cpuSampler = new CpuSampler();
+    private final IoRateSampler ioRateSampler = new IoRateSampler();
+    private final ExitWatcher exitWatcher = new ExitWatcher();
+    private volatile boolean cpuSampling;
+    private final SnapshotDiffer snapshotDiffer = new SnapshotDiffer();
+    private final List<ProcessEventListener> listeners = new CopyOnWriteArrayList<>();
     
     public ProcessManager() {
         this.osType = CommandExecutor.getOS();
+        this.backend = createBackend(osType);
+        this.memoryStatsReader = new MemoryStatsReader(osType);
+        this.cpuStatsReader = new CpuStatsReader(osType);
     }
     
     /**
-     * 获取当前系统中运行的所有进程列表
-     * @return 进程信息列表
-     * @throws IOException 如果获取进程信息失败
+     * 使用自定义后端创建进程管理器
+     * @param backend 进程信息后端
      */
-    public List<ProcessInfo> listProcesses() throws IOException {
+    public ProcessManager(ProcessBackend backend) {
+        this.osType = CommandExecutor.getOS();
+        this.backend = backend;
+        this.memoryStatsReader = new MemoryStatsReader(osType);
+        this.cpuStatsReader = new CpuStatsReader(osType);
+    }
+    
+    /**
+     * 根据操作系统类型创建进程信息后端
+     * 后端只在构造时创建一次，以便在多次调用之间保留缓存等状态。
+     * macOS和Windows的平台解析器需要执行命令，外面包一层ProcessHandle后端，
+     * 查询不需要CPU使用率和内存时直接通过ProcessHandle枚举；Linux的/proc后端本身不创建子进程，不需要包装
+     * @param osType 操作系统类型
+     * @return 进程信息后端
+     */
+    private static ProcessBackend createBackend(String osType) {
         switch (osType) {
             case "mac":
-                MacProcessParser macParser = new MacProcessParser();
-                return macParser.listProcesses();
+                return new ProcessHandleBackend(new MacProcessParser(), true);
             case "linux":
-                LinuxProcessParser linuxParser = new LinuxProcessParser();
-                return linuxParser.listProcesses();
+                return new LinuxProcessParser();
             case "windows":
-                WindowsProcessParser windowsParser = new WindowsProcessParser();
-                return windowsParser.listProcesses();
+                return new ProcessHandleBackend(new WindowsProcessParser(), false);
             default:
                 throw new UnsupportedOperationException("不支持的操作系统: " + osType);
         }
     }
     
+    /**
+     * 获取当前系统中运行的所有进程列表
+     * @return 进程信息列表
+     * @throws IOException 如果获取进程信息失败
+     */
+    public List<ProcessInfo> listProcesses() throws IOException {
+        List<ProcessInfo> processes = backend.listProcesses();
+        if (cpuSampling) {
+            cpuSampler.apply(processes);
+        }
+        if (!listeners.isEmpty()) {
+            fireEvents(snapshotDiffer.diff(processes));
+        }
+        return processes;
+    }
+    
+    /**
+     * 按条件获取进程列表
+     * 条件在后端解析时检查，支持的后端会将条件下推到操作系统调用中；未投影的字段保持默认值。
+     * 开启CPU采样时CPU条件按区间CPU使用率检查，按条件查询只更新结果中进程的采样基准；请求IO字段时根据与该进程上一次IO采样之间的增量计算读写速率；
+     * 查询结果不会产生进程事件
+     * @param query 查询条件
+     * @return 满足条件的进程信息列表
+     * @throws IOException 如果获取进程信息失败
+     */
+    public List<ProcessInfo> listProcesses(ProcessQuery query) throws IOException {
+        boolean sampleIo = query.includes(ProcessField.IO);
+        if (!cpuSampling && !sampleIo) {
+            return backend.listProcesses(query);
+        }
+        
+        // 区间值需要启动时间识别PID复用，区间CPU使用率还需要累计CPU时间，未投影时在内部读取，返回前清除；
+        // CPU使用率在后端之后计算，CPU条件需要在采样之后检查
+        ProcessQuery internal = cpuSampling
+                ? query.withoutMinCpu().withFields(ProcessField.CPU_TIME, ProcessField.START_TIME)
+                : query.withFields(ProcessField.START_TIME);
+        List<ProcessInfo> processes = backend.listProcesses(internal);
+        if (cpuSampling) {
+            // 部分结果只更新其中PID的基准，不影响其他进程
+            if (internal.isUnfiltered()) {
+                cpuSampler.apply(processes);
+            } else {
+                cpuSampler.merge(processes);
+            }
+            if (query.getMinCpu() >= 0) {
+                processes.removeIf(process -> !query.matchesCpu(process.getCpu()));
+            }
+        }
+        if (sampleIo) {
+            if (query.isUnfiltered()) {
+                ioRateSampler.apply(processes);
+            } else {
+                ioRateSampler.merge(processes);
+            }
+        }
+        for (ProcessInfo process : processes) {
+            clearUnprojected(process, query);
+        }
+        return processes;
+    }
+    
+    /**
+     * 将内部读取但查询没有投影的字段恢复为默认值
+     */
+    private static void clearUnprojected(ProcessInfo process, ProcessQuery query) {
+        if (!query.includes(ProcessField.CPU)) {
+            process.setCpu(0);
+        }
+        if (!query.includes(ProcessField.CPU_TIME)) {
+            process.setCpuTimeMillis(-1);
+        }
+        if (!query.includes(ProcessField.START_TIME)) {
+            process.setStartTime(null);
+            process.setStartTimeMillis(0);
+            process.setElapsedMillis(-1);
+        }
+    }
+    
+    /**
+     * 以惰性流的形式获取所有进程
+     * @return 进程信息流，使用完毕后需要关闭
+     * @throws IOException 如果获取进程信息失败
+     * @see #streamProcesses(ProcessQuery)
+     */
+    public Stream<ProcessInfo> streamProcesses() throws IOException {
+        return streamProcesses(ProcessQuery.all());
+    }
+    
+    /**
+     * 按条件以惰性流的形式获取进程
+     * 支持的后端（/proc、ps）在遍历流时才读取进程信息，终止操作提前结束（如findFirst、anyMatch、limit）时
+     * 不再读取剩余的进程；/proc流可以通过parallel()并行读取。流持有目录句柄或子进程，需要在try-with-resources中使用：
+     * <pre>
+     * try (Stream&lt;ProcessInfo&gt; processes = manager.streamProcesses(query)) {
+     *     Optional&lt;ProcessInfo&gt; first = processes.findFirst();
+     * }
+     * </pre>
+     * 开启CPU采样或请求IO字段时需要完整快照计算区间值，返回listProcesses(query)结果的流；流的结果不会产生进程事件
+     * @param query 查询条件
+     * @return 满足条件的进程信息流，遍历过程中读取失败时抛出UncheckedIOException
+     * @throws IOException 如果获取进程信息失败
+     */
+    public Stream<ProcessInfo> streamProcesses(ProcessQuery query) throws IOException {
+        if (cpuSampling || query.includes(ProcessField.IO)) {
+            return listProcesses(query).stream();
+        }
+        return backend.streamProcesses(query);
+    }
+    
+    /**
+     * 获取当前系统中运行的所有进程的列式快照
+     * 适合需要长期保存多份快照的场景；/proc和ps后端将解析结果直接填充到进程表，不为每个进程创建ProcessInfo。
+     * 开启CPU采样或注册了事件监听器时与listProcesses()的处理一致
+     * @return 进程表
+     * @throws IOException 如果获取进程信息失败
+     */
+    public ProcessTable listProcessTable() throws IOException {
+        if (cpuSampling || !listeners.isEmpty()) {
+            return ProcessTable.of(listProcesses());
+        }
+        return backend.listProcessTable();
+    }
+    
+    /**
+     * 获取按指标排名前k的进程
+     * 在列式快照上用有界堆选择，时间复杂度O(n log k)；后端直接填充进程表时只为选中的进程创建ProcessInfo
+     * @param metric 排序指标
+     * @param k 返回的进程数
+     * @return 按指标从大到小排列的进程列表
+     * @throws IOException 如果获取进程信息失败
+     */
+    public List<ProcessInfo> topProcesses(ProcessMetric metric, int k) throws IOException {
+        ProcessTable table = listProcessTable();
+        int[] indices = table.topIndices(metric, k);
+        List<ProcessInfo> result = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            result.add(table.get(index));
+        }
+        return result;
+    }
+    
+    /**
+     * 按自定义比较器获取排名前k的进程
+     * 使用有界堆选择，不对完整列表排序
+     * @param comparator 比较器，较大的进程排在前面
+     * @param k 返回的进程数
+     * @return 从大到小排列的进程列表
+     * @throws IOException 如果获取进程信息失败
+     */
+    public List<ProcessInfo> topProcesses(Comparator<? super ProcessInfo> comparator, int k) throws IOException {
+        return TopK.select(listProcesses(), k, comparator);
+    }
+    
+    /**
+     * 获取当前系统的进程树
+     * 快照包含默认字段和线程数，可用于按子树汇总CPU、内存和线程数
+     * @return 进程树
+     * @throws IOException 如果获取进程信息失败
+     */
+    public ProcessTree getProcessTree() throws IOException {
+        return ProcessTree.of(listProcesses(TREE_QUERY));
+    }
+    
+    /**
+     * 添加进程事件监听器
+     * 注册监听器后，每次listProcesses()都会与上一次结果对比，并在调用线程上回调启动、退出和变化事件；
+     * 配合ProcessMonitor使用时事件在监控线程上产生
+     * @param listener 监听器
+     */
+    public synchronized void addProcessEventListener(ProcessEventListener listener) {
+        if (listeners.isEmpty()) {
+            // 重新建立基线，避免使用过期的快照对比
+            snapshotDiffer.reset();
+        }
+        listeners.add(listener);
+    }
+    
+    /**
+     * 移除进程事件监听器
+     * @param listener 监听器
+     */
+    public synchronized void removeProcessEventListener(ProcessEventListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * 设置进程变化事件的阈值
+     * 进程的CPU使用率或内存占用在两次快照之间越过阈值（向上或向下）时产生ProcessChanged事件
+     * @param cpuPercent CPU使用率阈值（%），小于0表示不检测
+     * @param memoryMB 内存占用阈值（MB），小于0表示不检测
+     */
+    public void setChangeThresholds(double cpuPercent, long memoryMB) {
+        snapshotDiffer.setThresholds(cpuPercent, memoryMB);
+    }
+    
+    /**
+     * 将事件分发给所有监听器，单个监听器的异常不影响其他监听器和调用方
+     * @param events 事件列表
+     */
+    private void fireEvents(List<ProcessEvent> events) {
+        for (ProcessEvent event : events) {
+            for (ProcessEventListener listener : listeners) {
+                try {
+                    listener.onEvent(event);
+                } catch (RuntimeException e) {
+                    // 忽略监听器异常
+                }
+            }
+        }
+    }
+    
+    /**
+     * 设置CPU采样模式
+     * 开启后listProcesses()返回的CPU使用率为距上一次调用之间的区间值，而不是进程生命周期内的平均值；
+     * 开启后的第一次调用以及新启动的进程仍返回平台报告的值
+     * @param enabled 是否开启
+     */
+    public void setCpuSampling(boolean enabled) {
+        this.cpuSampling = enabled;
+        if (!enabled) {
+            cpuSampler.reset();
+        }
+    }
+    
+    /**
+     * 是否开启了CPU采样模式
+     * @return 开启返回true
+     */
+    public boolean isCpuSampling() {
+        return cpuSampling;
+    }
+    
     /**
      * 根据PID获取特定进程的详细信息
      * @param pid 进程ID
@@ -51,133 +325,91 @@ public class ProcessManager {
      * @throws IOException 如果获取进程信息失败
      */
     public ProcessInfo getProcessInfo(long pid) throws IOException {
-        switch (osType) {
-            case "mac":
-                MacProcessParser macParser = new MacProcessParser();
-                return macParser.getProcessInfo(pid);
-            case "linux":
-                LinuxProcessParser linuxParser = new LinuxProcessParser();
-                return linuxParser.getProcessInfo(pid);
-            case "windows":
-                WindowsProcessParser windowsParser = new WindowsProcessParser();
-                return windowsParser.getProcessInfo(pid);
-            default:
-                throw new UnsupportedOperationException("不支持的操作系统: " + osType);
-        }
+        return backend.getProcessInfo(pid);
     }
     
     /**
-     * 获取系统状态统计信息
-     * @return 系统状态信息
+     * 批量获取多个进程的信息
+     * 所有PID在一次操作系统调用中查询（ps -p a,b,c、一次WMI查询或直接读取/proc/[pid]）
+     * @param pids 进程ID
+     * @return 以PID为键的进程信息，不存在的进程不在结果中
+     * @throws IOException 如果获取进程信息失败
      */
-    public SystemStats getSystemStats() {
-        try {
-            double cpuUsage = getSystemCpuUsage();
-            double memUsage = getSystemMemoryUsage();
-            long jvmHeap = getJvmHeapUsage();
-            long jvmMaxHeap = getJvmMaxHeap();
-            
-            return new SystemStats(cpuUsage, memUsage, jvmHeap, jvmMaxHeap);
-        } catch (Exception e) {
-            // 如果获取系统信息失败，返回默认值
-            return new SystemStats(0.0, 0.0, 0L, 0L);
+    public Map<Long, ProcessInfo> getProcessInfo(long... pids) throws IOException {
+        Map<Long, ProcessInfo> result = new LinkedHashMap<>(pids.length * 2);
+        if (pids.length == 0) {
+            return result;
+        }
+        for (ProcessInfo process : backend.listProcesses(ProcessQuery.builder().pids(pids).build())) {
+            result.put(process.getPid(), process);
         }
+        return result;
     }
     
     /**
-     * 获取系统CPU使用率
-     * @return CPU使用率（0-100）
+     * 批量获取多个进程的信息
+     * @param pids 进程ID集合
+     * @return 以PID为键的进程信息，不存在的进程不在结果中
+     * @throws IOException 如果获取进程信息失败
+     * @see #getProcessInfo(long...)
      */
-    private double getSystemCpuUsage() {
-        try {
-            OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
-            
-            if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
-                com.sun.management.OperatingSystemMXBean sunOsBean = 
-                    (com.sun.management.OperatingSystemMXBean) osBean;
-                return sunOsBean.getSystemCpuLoad() * 100;
-            }
-            
-            // 备用方案：使用系统命令获取CPU使用率
-            return getCpuUsageFromCommand();
-            
-        } catch (Exception e) {
-            return getCpuUsageFromCommand();
+    public Map<Long, ProcessInfo> getProcessInfo(Collection<Long> pids) throws IOException {
+        long[] values = new long[pids.size()];
+        int i = 0;
+        for (Long pid : pids) {
+            values[i++] = pid;
         }
+        return getProcessInfo(values);
     }
     
     /**
-     * 通过系统命令获取CPU使用率
-     * @return CPU使用率
+     * 监视进程退出，用于代替循环调用getProcessInfo(pid)判断进程是否存活
+     * 所有进程由一个共享的后台线程检查，不执行任何命令；PID被新进程复用时同样视为原进程已退出。
+     * Future的回调在监视线程上执行，耗时操作应使用thenRunAsync等异步方法
+     * @param pid 进程ID
+     * @return 进程退出时以PID完成的Future，进程不存在时已经完成；取消Future即停止监视
      */
-    private double getCpuUsageFromCommand() {
-        try {
-            if (osType.equals("windows")) {
-                String command = "wmic cpu get loadpercentage /value";
-                String output = CommandExecutor.executeCommandSingleLine(command);
-                if (output.contains("LoadPercentage")) {
-                    String cpuStr = output.split("=")[1].trim();
-                    return Double.parseDouble(cpuStr);
-                }
-            } else {
-                // macOS/Linux使用top命令
-                String command = "top -l 1 | grep -E \"^CPU\" | awk '{print $3}'";
-                if (osType.equals("linux")) {
-                    command = "top -bn1 | grep \"Cpu(s)\" | awk '{print $2}'";
-                }
-                
-                String output = CommandExecutor.executeCommandSingleLine(command);
-                if (output != null && !output.isEmpty()) {
-                    // 去除百分号并转换为数字
-                    String cpuStr = output.replace("%", "").trim();
-                    return Double.parseDouble(cpuStr);
-                }
-            }
-        } catch (Exception e) {
-            // 忽略错误
+    public CompletableFuture<Long> watchExit(long pid) {
+        return exitWatcher.watch(pid);
+    }
+    
+    /**
+     * 批量监视进程退出
+     * @param pids 进程ID集合
+     * @return 以PID为键的Future，可配合CompletableFuture.allOf/anyOf等待全部或任一进程退出
+     * @see #watchExit(long)
+     */
+    public Map<Long, CompletableFuture<Long>> watchExits(Collection<Long> pids) {
+        Map<Long, CompletableFuture<Long>> result = new LinkedHashMap<>(pids.size() * 2);
+        for (Long pid : pids) {
+            result.computeIfAbsent(pid, this::watchExit);
         }
-        return 0.0;
+        return result;
     }
     
     /**
-     * 获取系统内存使用率
-     * @return 内存使用率（0-100）
+     * 获取系统状态统计信息
+     * CPU和内存信息分别读取，其中一项失败时该项保持默认值，不影响JVM堆信息和另一项
+     * @return 系统状态信息
      */
-    private double getSystemMemoryUsage() {
+    public SystemStats getSystemStats() {
+        long jvmHeap = getJvmHeapUsage();
+        long jvmMaxHeap = getJvmMaxHeap();
+        
+        SystemStats stats = new SystemStats(0.0, 0.0, jvmHeap, jvmMaxHeap);
         try {
-            if (osType.equals("windows")) {
-                String command = "wmic OS get FreePhysicalMemory,TotalVisibleMemorySize /value";
-                List<String> output = CommandExecutor.executeCommand(command);
-                
-                long freeMemory = 0;
-                long totalMemory = 0;
-                
-                for (String line : output) {
-                    if (line.startsWith("FreePhysicalMemory")) {
-                        freeMemory = Long.parseLong(line.split("=")[1].trim());
-                    } else if (line.startsWith("TotalVisibleMemorySize")) {
-                        totalMemory = Long.parseLong(line.split("=")[1].trim());
-                    }
-                }
-                
-                if (totalMemory > 0) {
-                    return (1 - (double) freeMemory / totalMemory) * 100;
-                }
-            } else {
-                // macOS/Linux使用free命令
-                String command = "vm_stat | grep -E \"(free|active|inactive)\"";
-                if (osType.equals("linux")) {
-                    command = "free | grep Mem";
-                }
-                
-                List<String> output = CommandExecutor.executeCommand(command);
-                // 简化实现，返回估算值
-                return 50.0; // 默认值
-            }
+            // CPU使用率、时间分布及平均负载
+            cpuStatsReader.read(stats);
+        } catch (Exception e) {
+            // 获取CPU信息失败，CPU相关字段保持默认值
+        }
+        try {
+            // 一次读取填充内存使用率及各项内存数据
+            memoryStatsReader.read(stats);
         } catch (Exception e) {
-            // 忽略错误
+            // 获取内存信息失败，内存相关字段保持默认值
         }
-        return 0.0;
+        return stats;
     }
     
     /**
@@ -0,0 +1,15 @@
+package com.demo.processmanager;
+
+/**
+ * 进程排序指标，用于Top-K查询
+ */
+public enum ProcessMetric {
+    /** CPU使用率 */
+    CPU,
+    /** 常驻内存 */
+    MEMORY,
+    /** 累计CPU时间 */
+    CPU_TIME,
+    /** 已运行时长 */
+    ELAPSED
+}
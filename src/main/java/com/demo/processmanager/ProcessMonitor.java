@@ -0,0 +1,150 @@
+package com.demo.processmanager;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程后台监控器
+ * 在独立线程上按固定间隔采样进程列表和系统状态，并通过单个volatile引用发布不可变快照；
+ * 读取方直接获取最新快照，不会阻塞，也不会增加操作系统的采样负载
+ */
+public class ProcessMonitor {
+
+    private final ProcessManager processManager;
+    private final long intervalMillis;
+    private final long jitterMillis;
+
+    private volatile ProcessSnapshot latestSnapshot;
+    private volatile Exception lastError;
+    // stop()不等待采样线程结束，快速stop()/start()时新旧采样线程可能同时更新
+    private final AtomicLong skippedTicks = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param processManager 进程管理器
+     * @param intervalMillis 采样间隔（毫秒）
+     */
+    public ProcessMonitor(ProcessManager processManager, long intervalMillis) {
+        this(processManager, intervalMillis, 0);
+    }
+
+    /**
+     * @param processManager 进程管理器
+     * @param intervalMillis 采样间隔（毫秒）
+     * @param jitterMillis 每次采样随机延后的最大时间（毫秒），用于错开多个实例的采样时刻
+     */
+    public ProcessMonitor(ProcessManager processManager, long intervalMillis, long jitterMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("采样间隔必须大于0: " + intervalMillis);
+        }
+        if (jitterMillis < 0 || jitterMillis >= intervalMillis) {
+            throw new IllegalArgumentException("抖动时间必须在[0, 采样间隔)范围内: " + jitterMillis);
+        }
+        this.processManager = processManager;
+        this.intervalMillis = intervalMillis;
+        this.jitterMillis = jitterMillis;
+    }
+
+    /**
+     * 启动后台采样，立即执行第一次采样
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "process-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService current = scheduler;
+        current.execute(() -> sample(current, System.nanoTime()));
+    }
+
+    /**
+     * 停止后台采样，保留最后一次快照
+     * 不等待正在执行的采样结束，该次采样完成后仍可能发布快照，但不会再安排下一次采样
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * 获取最新快照
+     * @return 最新快照，第一次采样完成前返回null
+     */
+    public ProcessSnapshot getLatestSnapshot() {
+        return latestSnapshot;
+    }
+
+    /**
+     * 获取最近一次采样失败的异常
+     * @return 异常，最近一次采样成功时返回null
+     */
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    /**
+     * 获取因上一次采样超时而跳过的采样次数
+     * @return 跳过的次数
+     */
+    public long getSkippedTicks() {
+        return skippedTicks.get();
+    }
+
+    /**
+     * 执行一次采样并安排下一次采样
+     * 节拍时刻随任务传递，每次start()的采样链相互独立，不共享可变状态
+     * @param current 当前调度器
+     * @param tickNanos 本次采样的节拍时刻（System.nanoTime()）
+     */
+    private void sample(ScheduledExecutorService current, long tickNanos) {
+        try {
+            List<ProcessInfo> processes = processManager.listProcesses();
+            SystemStats stats = processManager.getSystemStats();
+            latestSnapshot = new ProcessSnapshot(processes, stats, System.currentTimeMillis());
+            lastError = null;
+        } catch (Exception e) {
+            // 采样失败时保留上一次快照
+            lastError = e;
+        }
+
+        // 按固定节拍安排下一次采样，本次采样超过间隔时跳过已错过的节拍，避免连续追赶
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        long now = System.nanoTime();
+        long nextTickNanos = tickNanos + intervalNanos;
+        long skipped = 0;
+        while (nextTickNanos <= now) {
+            nextTickNanos += intervalNanos;
+            skipped++;
+        }
+        if (skipped > 0) {
+            skippedTicks.addAndGet(skipped);
+        }
+
+        long scheduledTick = nextTickNanos;
+        long delayNanos = scheduledTick - now;
+        if (jitterMillis > 0) {
+            delayNanos += TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextLong(jitterMillis + 1));
+        }
+        try {
+            current.schedule(() -> sample(current, scheduledTick), delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // 监控器已停止
+        }
+    }
+}
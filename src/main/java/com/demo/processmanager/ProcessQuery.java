@@ -0,0 +1,383 @@
+package com.demo.processmanager;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 进程查询条件
+ * 各条件之间为"与"关系，未设置的条件不参与过滤；字段投影用于跳过不需要的字段，
+ * 未投影的字段保持ProcessInfo的默认值。创建后不再修改，可以在线程之间共享
+ *
+ * 使用示例：
+ * <pre>
+ * ProcessQuery query = ProcessQuery.builder()
+ *         .name("java")
+ *         .minCpu(5)
+ *         .fields(ProcessField.NAME, ProcessField.CPU)
+ *         .build();
+ * </pre>
+ */
+public final class ProcessQuery {
+
+    private static final ProcessQuery ALL = builder().build();
+
+    private final String name;
+    private final Pattern namePattern;
+    private final long[] pids;          // 已排序，null表示不按PID过滤
+    private final String user;
+    private final double minCpu;        // 小于0表示不过滤
+    private final long minMemoryBytes;  // 小于0表示不过滤
+    private final Set<ProcessField> fields;
+
+    private ProcessQuery(Builder builder) {
+        this.name = builder.name;
+        this.namePattern = builder.namePattern;
+        this.pids = builder.pids;
+        this.user = builder.user;
+        this.minCpu = builder.minCpu;
+        this.minMemoryBytes = builder.minMemoryBytes;
+        this.fields = builder.fields;
+    }
+
+    /**
+     * 获取不带任何条件的查询
+     * @return 返回所有进程和默认字段的查询
+     */
+    public static ProcessQuery all() {
+        return ALL;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 获取进程名精确匹配条件
+     * @return 进程名，未设置返回null
+     */
+    public String getName() {
+        return name;
+    }
+
+    public Pattern getNamePattern() {
+        return namePattern;
+    }
+
+    /**
+     * 获取PID条件
+     * @return 按升序排列的PID数组副本，未设置返回null
+     */
+    public long[] getPids() {
+        return pids == null ? null : pids.clone();
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public double getMinCpu() {
+        return minCpu;
+    }
+
+    public long getMinMemoryBytes() {
+        return minMemoryBytes;
+    }
+
+    /**
+     * 是否请求了任一扩展字段
+     * @return 请求了扩展字段返回true
+     */
+    public boolean hasExtendedFields() {
+        for (ProcessField field : fields) {
+            if (field.isExtended()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasNameFilter() {
+        return name != null || namePattern != null;
+    }
+
+    public boolean hasPidFilter() {
+        return pids != null;
+    }
+
+    public boolean hasUserFilter() {
+        return user != null;
+    }
+
+    /**
+     * 是否没有设置任何过滤条件
+     */
+    public boolean isUnfiltered() {
+        return !hasNameFilter() && pids == null && user == null && minCpu < 0 && minMemoryBytes < 0;
+    }
+
+    /**
+     * 判断结果中是否需要某个字段
+     * @param field 字段
+     * @return 字段被投影或被过滤条件使用时返回true
+     */
+    public boolean includes(ProcessField field) {
+        return fields.contains(field);
+    }
+
+    /**
+     * 判断结果或过滤条件是否需要某个字段，后端据此决定是否读取该字段
+     * @param field 字段
+     * @return 需要读取返回true
+     */
+    public boolean needs(ProcessField field) {
+        switch (field) {
+            case NAME:
+                return fields.contains(field) || hasNameFilter();
+            case CPU:
+                return fields.contains(field) || minCpu >= 0;
+            case MEMORY:
+                return fields.contains(field) || minMemoryBytes >= 0;
+            default:
+                return fields.contains(field);
+        }
+    }
+
+    public boolean matchesPid(long pid) {
+        return pids == null || Arrays.binarySearch(pids, pid) >= 0;
+    }
+
+    public boolean matchesCpu(double cpu) {
+        return minCpu < 0 || cpu >= minCpu;
+    }
+
+    public boolean matchesMemory(long memoryBytes) {
+        return minMemoryBytes < 0 || memoryBytes >= minMemoryBytes;
+    }
+
+    /**
+     * 判断文本中[start, end)范围内的进程名是否满足条件，不创建子串
+     * @param text 包含进程名的文本
+     * @param start 起始位置（含）
+     * @param end 结束位置（不含）
+     * @return 满足条件返回true
+     */
+    public boolean matchesName(CharSequence text, int start, int end) {
+        if (name != null) {
+            if (name.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (name.charAt(i) != text.charAt(start + i)) {
+                    return false;
+                }
+            }
+        }
+        if (namePattern != null) {
+            Matcher matcher = namePattern.matcher(text);
+            matcher.region(start, end);
+            return matcher.matches();
+        }
+        return true;
+    }
+
+    public boolean matchesName(String processName) {
+        if (!hasNameFilter()) {
+            return true;
+        }
+        return processName != null && matchesName(processName, 0, processName.length());
+    }
+
+    /**
+     * 判断进程所有者是否满足条件
+     * Windows的所有者带有域名前缀（DOMAIN\\user），只比较用户名部分也视为匹配
+     * @param owner 进程所有者
+     * @return 满足条件返回true
+     */
+    public boolean matchesUser(String owner) {
+        if (user == null) {
+            return true;
+        }
+        if (owner == null) {
+            return false;
+        }
+        int separator = owner.lastIndexOf('\\');
+        return owner.equals(user) || (separator >= 0 && owner.substring(separator + 1).equals(user));
+    }
+
+    /**
+     * 按PID查询进程所有者时使用，通过ProcessHandle获取
+     * @param pid 进程ID
+     * @return 满足条件返回true，进程不存在或无法获取所有者时返回false
+     */
+    public boolean matchesUser(long pid) {
+        if (user == null) {
+            return true;
+        }
+        Optional<String> owner = ProcessHandle.of(pid).flatMap(handle -> handle.info().user());
+        return owner.isPresent() && matchesUser(owner.get());
+    }
+
+    /**
+     * 对已经创建的进程信息判断是否满足所有条件
+     * @param process 进程信息
+     * @return 满足条件返回true
+     */
+    public boolean matches(ProcessInfo process) {
+        return matchesPid(process.getPid())
+                && matchesName(process.getName())
+                && matchesCpu(process.getCpu())
+                && matchesMemory(process.getMemoryBytes())
+                && matchesUser(process.getPid());
+    }
+
+    /**
+     * 获取去掉CPU条件的查询，用于需要在后端之后计算CPU使用率的场景
+     * @return 新的查询，没有CPU条件时返回当前对象
+     */
+    public ProcessQuery withoutMinCpu() {
+        if (minCpu < 0) {
+            return this;
+        }
+        Builder builder = toBuilder();
+        builder.minCpu = -1;
+        return builder.build();
+    }
+
+    /**
+     * 获取追加了字段的查询，用于后端之后的计算需要额外字段的场景
+     * @param fields 需要追加的字段
+     * @return 新的查询，字段都已包含时返回当前对象
+     */
+    public ProcessQuery withFields(ProcessField... fields) {
+        if (this.fields.containsAll(Arrays.asList(fields))) {
+            return this;
+        }
+        Builder builder = toBuilder();
+        builder.includeFields(fields);
+        return builder.build();
+    }
+
+    private Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.name = name;
+        builder.namePattern = namePattern;
+        builder.pids = pids;
+        builder.user = user;
+        builder.minCpu = minCpu;
+        builder.minMemoryBytes = minMemoryBytes;
+        builder.fields = fields;
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessQuery{" +
+                "name='" + name + '\'' +
+                ", namePattern=" + namePattern +
+                ", pids=" + Arrays.toString(pids) +
+                ", user='" + user + '\'' +
+                ", minCpu=" + minCpu +
+                ", minMemoryBytes=" + minMemoryBytes +
+                ", fields=" + fields +
+                '}';
+    }
+
+    /**
+     * 查询条件构建器
+     */
+    public static final class Builder {
+        private String name;
+        private Pattern namePattern;
+        private long[] pids;
+        private String user;
+        private double minCpu = -1;
+        private long minMemoryBytes = -1;
+        private Set<ProcessField> fields = EnumSet.range(ProcessField.NAME, ProcessField.PARENT_PID);
+
+        private Builder() {
+        }
+
+        /**
+         * 进程名精确匹配
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * 进程名正则匹配（整个名称需要匹配）
+         */
+        public Builder nameMatches(String regex) {
+            this.namePattern = Pattern.compile(regex);
+            return this;
+        }
+
+        public Builder nameMatches(Pattern pattern) {
+            this.namePattern = pattern;
+            return this;
+        }
+
+        /**
+         * 只返回指定PID的进程
+         */
+        public Builder pids(long... pids) {
+            long[] sorted = pids.clone();
+            Arrays.sort(sorted);
+            this.pids = sorted;
+            return this;
+        }
+
+        /**
+         * 只返回指定用户的进程
+         */
+        public Builder user(String user) {
+            this.user = user;
+            return this;
+        }
+
+        /**
+         * CPU使用率下限（%）
+         */
+        public Builder minCpu(double percent) {
+            this.minCpu = percent;
+            return this;
+        }
+
+        /**
+         * 内存占用下限（MB）
+         */
+        public Builder minMemoryMB(long memoryMB) {
+            this.minMemoryBytes = memoryMB < 0 ? -1 : memoryMB * 1024 * 1024;
+            return this;
+        }
+
+        /**
+         * 设置需要返回的字段，默认返回除扩展字段以外的全部字段
+         */
+        public Builder fields(ProcessField... fields) {
+            Set<ProcessField> set = EnumSet.noneOf(ProcessField.class);
+            set.addAll(Arrays.asList(fields));
+            this.fields = set;
+            return this;
+        }
+
+        /**
+         * 在当前字段基础上追加字段，通常用于请求扩展字段
+         */
+        public Builder includeFields(ProcessField... fields) {
+            Set<ProcessField> set = EnumSet.copyOf(this.fields);
+            set.addAll(Arrays.asList(fields));
+            this.fields = set;
+            return this;
+        }
+
+        public ProcessQuery build() {
+            return new ProcessQuery(this);
+        }
+    }
+}
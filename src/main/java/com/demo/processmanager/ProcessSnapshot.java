@@ -0,0 +1,46 @@
+package com.demo.processmanager;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 进程快照实体类
+ * 封装某一时刻的进程列表和系统状态，创建后不再修改
+ */
+public final class ProcessSnapshot {
+    private final List<ProcessInfo> processes; // 进程列表（只读）
+    private final SystemStats systemStats;     // 系统状态
+    private final long timestamp;              // 采样时间（epoch毫秒）
+
+    public ProcessSnapshot(List<ProcessInfo> processes, SystemStats systemStats, long timestamp) {
+        this.processes = Collections.unmodifiableList(processes);
+        this.systemStats = systemStats;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * 获取进程列表
+     * 列表只读，其中的ProcessInfo对象由所有读取方共享，调用方不应修改
+     * @return 进程信息列表
+     */
+    public List<ProcessInfo> getProcesses() {
+        return processes;
+    }
+
+    public SystemStats getSystemStats() {
+        return systemStats;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessSnapshot{" +
+                "processes=" + processes.size() +
+                ", systemStats=" + systemStats +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,408 @@
+package com.demo.processmanager;
+
+import com.demo.processmanager.utils.TopK;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * 列式存储的进程快照
+ * 每个字段保存在一个基本类型数组中，进程名通过去重的字符串池引用；
+ * 相比List&lt;ProcessInfo&gt;不需要为每个进程保留一个对象，适合长期保存多份历史快照。
+ * 创建后不再修改，可以在线程之间共享
+ */
+public final class ProcessTable {
+
+    private static final ProcessTable EMPTY = new Builder(0).build();
+
+    private final int size;
+    private final long[] pids;
+    private final int[] nameIds;
+    private final String[] namePool;
+    private final double[] cpu;
+    private final long[] memoryBytes;
+    private final boolean[] memoryExact;
+    private final long[] cpuTimeMillis;
+    private final long[] startTimeMillis;
+    private final long[] elapsedMillis;
+    private final long[] parentPids;
+    private final String[] startTimes; // 后端提供的启动时间文本，多数平台为null
+
+    private ProcessTable(Builder builder) {
+        this.size = builder.size;
+        this.pids = Arrays.copyOf(builder.pids, size);
+        this.nameIds = Arrays.copyOf(builder.nameIds, size);
+        this.namePool = Arrays.copyOf(builder.namePool, builder.poolSize);
+        this.cpu = Arrays.copyOf(builder.cpu, size);
+        this.memoryBytes = Arrays.copyOf(builder.memoryBytes, size);
+        this.memoryExact = Arrays.copyOf(builder.memoryExact, size);
+        this.cpuTimeMillis = Arrays.copyOf(builder.cpuTimeMillis, size);
+        this.startTimeMillis = Arrays.copyOf(builder.startTimeMillis, size);
+        this.elapsedMillis = Arrays.copyOf(builder.elapsedMillis, size);
+        this.parentPids = Arrays.copyOf(builder.parentPids, size);
+        this.startTimes = Arrays.copyOf(builder.startTimes, size);
+    }
+
+    /**
+     * 获取空表
+     * @return 不包含任何进程的表
+     */
+    public static ProcessTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 由进程列表创建进程表
+     * @param processes 进程信息列表
+     * @return 进程表
+     */
+    public static ProcessTable of(List<ProcessInfo> processes) {
+        Builder builder = new Builder(processes.size());
+        for (ProcessInfo process : processes) {
+            builder.add(process);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 创建构建器
+     * @param expectedSize 预计的进程数
+     * @return 构建器
+     */
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getPid(int index) {
+        checkIndex(index);
+        return pids[index];
+    }
+
+    public String getName(int index) {
+        checkIndex(index);
+        return namePool[nameIds[index]];
+    }
+
+    public double getCpu(int index) {
+        checkIndex(index);
+        return cpu[index];
+    }
+
+    /**
+     * 获取内存占用（MB）
+     */
+    public long getMemory(int index) {
+        checkIndex(index);
+        return memoryBytes[index] / (1024 * 1024);
+    }
+
+    public long getMemoryBytes(int index) {
+        checkIndex(index);
+        return memoryBytes[index];
+    }
+
+    public boolean isMemoryExact(int index) {
+        checkIndex(index);
+        return memoryExact[index];
+    }
+
+    public long getCpuTimeMillis(int index) {
+        checkIndex(index);
+        return cpuTimeMillis[index];
+    }
+
+    public long getStartTimeMillis(int index) {
+        checkIndex(index);
+        return startTimeMillis[index];
+    }
+
+    public long getElapsedMillis(int index) {
+        checkIndex(index);
+        return elapsedMillis[index];
+    }
+
+    /**
+     * 获取父进程ID
+     * @return 父进程ID，-1表示未知
+     */
+    public long getParentPid(int index) {
+        checkIndex(index);
+        return parentPids[index];
+    }
+
+    /**
+     * 获取启动时间文本，后端没有提供文本时按已运行时长格式化
+     */
+    public String getStartTime(int index) {
+        checkIndex(index);
+        if (startTimes[index] == null && elapsedMillis[index] >= 0) {
+            return ProcessInfo.formatElapsed(elapsedMillis[index]);
+        }
+        return startTimes[index];
+    }
+
+    /**
+     * 查找PID所在的行，按顺序扫描
+     * @param pid 进程ID
+     * @return 行号，不存在时返回-1
+     */
+    public int indexOf(long pid) {
+        for (int i = 0; i < size; i++) {
+            if (pids[i] == pid) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按指标选出最大的k行，使用有界堆，不排序也不复制整张表
+     * @param metric 排序指标
+     * @param k 需要选出的行数
+     * @return 按指标从大到小排列的行号，长度为min(k, size())
+     */
+    public int[] topIndices(ProcessMetric metric, int k) {
+        switch (metric) {
+            case CPU:
+                return TopK.select(size, k, (a, b) -> Double.compare(cpu[a], cpu[b]));
+            case MEMORY:
+                return TopK.select(size, k, (a, b) -> Long.compare(memoryBytes[a], memoryBytes[b]));
+            case CPU_TIME:
+                return TopK.select(size, k, (a, b) -> Long.compare(cpuTimeMillis[a], cpuTimeMillis[b]));
+            case ELAPSED:
+                return TopK.select(size, k, (a, b) -> Long.compare(elapsedMillis[a], elapsedMillis[b]));
+            default:
+                throw new IllegalArgumentException("不支持的指标: " + metric);
+        }
+    }
+
+    /**
+     * 获取进程名池中不同名称的数量
+     * @return 不同进程名的数量
+     */
+    public int getDistinctNameCount() {
+        return namePool.length;
+    }
+
+    /**
+     * 创建指定行的ProcessInfo对象
+     * 每次调用都返回新的对象，修改它不会影响进程表
+     * @param index 行号
+     * @return 进程信息
+     */
+    public ProcessInfo get(int index) {
+        checkIndex(index);
+        ProcessInfo process = new ProcessInfo(pids[index], namePool[nameIds[index]], cpu[index],
+                memoryBytes[index] / (1024 * 1024), startTimes[index]);
+        process.setMemoryBytes(memoryBytes[index]);
+        process.setMemoryExact(memoryExact[index]);
+        process.setCpuTimeMillis(cpuTimeMillis[index]);
+        process.setStartTimeMillis(startTimeMillis[index]);
+        process.setElapsedMillis(elapsedMillis[index]);
+        process.setParentPid(parentPids[index]);
+        return process;
+    }
+
+    /**
+     * 获取只读的列表视图
+     * 视图不复制数据，访问元素时才按需创建ProcessInfo对象
+     * @return 进程信息列表视图
+     */
+    public List<ProcessInfo> asList() {
+        return new ListView();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessTable{" +
+                "size=" + size +
+                ", distinctNames=" + namePool.length +
+                '}';
+    }
+
+    private final class ListView extends AbstractList<ProcessInfo> implements RandomAccess {
+        @Override
+        public ProcessInfo get(int index) {
+            return ProcessTable.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * 进程表构建器，逐行追加进程数据，非线程安全
+     */
+    public static final class Builder {
+        private int size;
+        private long[] pids;
+        private int[] nameIds;
+        private double[] cpu;
+        private long[] memoryBytes;
+        private boolean[] memoryExact;
+        private long[] cpuTimeMillis;
+        private long[] startTimeMillis;
+        private long[] elapsedMillis;
+        private long[] parentPids;
+        private String[] startTimes;
+
+        private final Map<String, Integer> nameIndex = new HashMap<>();
+        private String[] namePool = new String[16];
+        private int poolSize;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            pids = new long[capacity];
+            nameIds = new int[capacity];
+            cpu = new double[capacity];
+            memoryBytes = new long[capacity];
+            memoryExact = new boolean[capacity];
+            cpuTimeMillis = new long[capacity];
+            startTimeMillis = new long[capacity];
+            elapsedMillis = new long[capacity];
+            parentPids = new long[capacity];
+            startTimes = new String[capacity];
+        }
+
+        /**
+         * 追加一个进程
+         * @param process 进程信息
+         * @return 当前构建器
+         */
+        public Builder add(ProcessInfo process) {
+            // 只设置了MB值的进程按MB换算字节数
+            long bytes = process.getMemoryBytes() > 0 ? process.getMemoryBytes() : process.getMemory() * 1024 * 1024;
+            add(process.getPid(), process.getName(), process.getCpu(), bytes, process.isMemoryExact(),
+                    process.getCpuTimeMillis(), process.getStartTimeMillis(), process.getElapsedMillis());
+            parentPids[size - 1] = process.getParentPid();
+            startTimes[size - 1] = process.getStartTimeText();
+            return this;
+        }
+
+        /**
+         * 追加一个进程
+         * @param pid 进程ID
+         * @param name 进程名
+         * @param cpu CPU使用率（%）
+         * @param memoryBytes 常驻内存（字节）
+         * @param memoryExact 内存是否为精确值
+         * @param cpuTimeMillis 累计CPU时间（毫秒），-1表示未知
+         * @param startTimeMillis 启动时间（epoch毫秒），0表示未知
+         * @param elapsedMillis 已运行时长（毫秒），-1表示未知
+         * @return 当前构建器，父进程ID为未知，可通过parentPid(long)设置
+         */
+        public Builder add(long pid, String name, double cpu, long memoryBytes, boolean memoryExact,
+                           long cpuTimeMillis, long startTimeMillis, long elapsedMillis) {
+            if (size == pids.length) {
+                grow(size + 1);
+            }
+            this.pids[size] = pid;
+            this.nameIds[size] = intern(name);
+            this.cpu[size] = cpu;
+            this.memoryBytes[size] = memoryBytes;
+            this.memoryExact[size] = memoryExact;
+            this.cpuTimeMillis[size] = cpuTimeMillis;
+            this.startTimeMillis[size] = startTimeMillis;
+            this.elapsedMillis[size] = elapsedMillis;
+            this.parentPids[size] = -1;
+            this.startTimes[size] = null;
+            size++;
+            return this;
+        }
+
+        /**
+         * 追加另一个构建器中的所有进程，用于按顺序合并分段读取的结果
+         * @param other 另一个构建器
+         * @return 当前构建器
+         */
+        public Builder addAll(Builder other) {
+            int count = other.size;
+            if (size + count > pids.length) {
+                grow(size + count);
+            }
+            System.arraycopy(other.pids, 0, pids, size, count);
+            System.arraycopy(other.cpu, 0, cpu, size, count);
+            System.arraycopy(other.memoryBytes, 0, memoryBytes, size, count);
+            System.arraycopy(other.memoryExact, 0, memoryExact, size, count);
+            System.arraycopy(other.cpuTimeMillis, 0, cpuTimeMillis, size, count);
+            System.arraycopy(other.startTimeMillis, 0, startTimeMillis, size, count);
+            System.arraycopy(other.elapsedMillis, 0, elapsedMillis, size, count);
+            System.arraycopy(other.parentPids, 0, parentPids, size, count);
+            System.arraycopy(other.startTimes, 0, startTimes, size, count);
+            // 两个构建器的字符串池各自编号，按进程名重新映射
+            for (int i = 0; i < count; i++) {
+                nameIds[size + i] = intern(other.namePool[other.nameIds[i]]);
+            }
+            size += count;
+            return this;
+        }
+
+        /**
+         * 设置最后追加的进程的父进程ID
+         * @param parentPid 父进程ID
+         * @return 当前构建器
+         */
+        public Builder parentPid(long parentPid) {
+            if (size == 0) {
+                throw new IllegalStateException("尚未追加任何进程");
+            }
+            this.parentPids[size - 1] = parentPid;
+            return this;
+        }
+
+        /**
+         * 创建进程表，数组按实际行数裁剪
+         * @return 进程表
+         */
+        public ProcessTable build() {
+            return new ProcessTable(this);
+        }
+
+        private int intern(String name) {
+            Integer id = nameIndex.get(name);
+            if (id != null) {
+                return id;
+            }
+            if (poolSize == namePool.length) {
+                namePool = Arrays.copyOf(namePool, poolSize * 2);
+            }
+            namePool[poolSize] = name;
+            nameIndex.put(name, poolSize);
+            return poolSize++;
+        }
+
+        private void grow(int minCapacity) {
+            int capacity = Math.max(pids.length * 2, minCapacity);
+            pids = Arrays.copyOf(pids, capacity);
+            nameIds = Arrays.copyOf(nameIds, capacity);
+            cpu = Arrays.copyOf(cpu, capacity);
+            memoryBytes = Arrays.copyOf(memoryBytes, capacity);
+            memoryExact = Arrays.copyOf(memoryExact, capacity);
+            cpuTimeMillis = Arrays.copyOf(cpuTimeMillis, capacity);
+            startTimeMillis = Arrays.copyOf(startTimeMillis, capacity);
+            elapsedMillis = Arrays.copyOf(elapsedMillis, capacity);
+            parentPids = Arrays.copyOf(parentPids, capacity);
+            startTimes = Arrays.copyOf(startTimes, capacity);
+        }
+    }
+}
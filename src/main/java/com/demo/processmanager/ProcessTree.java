@@ -0,0 +1,363 @@
+package com.demo.processmanager;
+
+import com.demo.processmanager.utils.LongIntHashMap;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * 进程树
+ * 由一次进程快照按父进程ID构建，构建和子树汇总均为O(n)。
+ * 子进程以邻接数组保存，节点按先序排列，任一进程的所有后代在先序数组中是连续的一段，
+ * 遍历和汇总都不使用递归，进程层级再深也不会栈溢出。创建后不再修改，可以在线程之间共享
+ *
+ * 父进程不在快照中、父进程ID未知或父进程晚于子进程启动（PID已被复用）的进程作为根节点
+ */
+public final class ProcessTree {
+
+    private final ProcessInfo[] processes;
+    private final LongIntHashMap index;
+    private final int[] parents;        // 父节点下标，根节点为-1
+    private final int[] childOffsets;   // 节点i的子节点为children[childOffsets[i], childOffsets[i + 1])
+    private final int[] children;
+    private final int[] order;          // 先序排列的节点下标
+    private final int[] positions;      // 节点在先序数组中的位置
+    private final int[] subtreeSizes;   // 子树节点数（含自身）
+    private final double[] subtreeCpu;
+    private final long[] subtreeMemoryBytes;
+    private final long[] subtreeThreads;
+    private final int rootCount;
+
+    private ProcessTree(List<ProcessInfo> snapshot) {
+        int n = snapshot.size();
+        processes = snapshot.toArray(new ProcessInfo[0]);
+        index = new LongIntHashMap(n);
+        for (int i = 0; i < n; i++) {
+            index.put(processes[i].getPid(), i);
+        }
+
+        parents = new int[n];
+        for (int i = 0; i < n; i++) {
+            parents[i] = findParent(i);
+        }
+        breakCycles();
+
+        // 按父节点计数后前缀求和，生成子节点邻接数组
+        childOffsets = new int[n + 1];
+        int roots = 0;
+        for (int i = 0; i < n; i++) {
+            if (parents[i] < 0) {
+                roots++;
+            } else {
+                childOffsets[parents[i] + 1]++;
+            }
+        }
+        rootCount = roots;
+        for (int i = 0; i < n; i++) {
+            childOffsets[i + 1] += childOffsets[i];
+        }
+        children = new int[n - roots];
+        int[] fill = new int[n];
+        for (int i = 0; i < n; i++) {
+            int parent = parents[i];
+            if (parent >= 0) {
+                children[childOffsets[parent] + fill[parent]++] = i;
+            }
+        }
+
+        // 使用显式栈生成先序序列，根节点保持快照中的顺序
+        order = new int[n];
+        positions = new int[n];
+        int[] stack = new int[n];
+        int count = 0;
+        for (int root = n - 1; root >= 0; root--) {
+            if (parents[root] < 0) {
+                stack[count++] = root;
+            }
+        }
+        int next = 0;
+        while (count > 0) {
+            int node = stack[--count];
+            positions[node] = next;
+            order[next++] = node;
+            for (int c = childOffsets[node + 1] - 1; c >= childOffsets[node]; c--) {
+                stack[count++] = children[c];
+            }
+        }
+
+        // 逆先序遍历时子节点总在父节点之前，直接累加到父节点即可完成子树汇总
+        subtreeSizes = new int[n];
+        subtreeCpu = new double[n];
+        subtreeMemoryBytes = new long[n];
+        subtreeThreads = new long[n];
+        for (int p = n - 1; p >= 0; p--) {
+            int node = order[p];
+            ProcessInfo process = processes[node];
+            subtreeSizes[node] += 1;
+            subtreeCpu[node] += process.getCpu();
+            subtreeMemoryBytes[node] += process.getMemoryBytes();
+            ProcessDetails details = process.getDetails();
+            if (details != null && details.getThreadCount() > 0) {
+                subtreeThreads[node] += details.getThreadCount();
+            }
+            int parent = parents[node];
+            if (parent >= 0) {
+                subtreeSizes[parent] += subtreeSizes[node];
+                subtreeCpu[parent] += subtreeCpu[node];
+                subtreeMemoryBytes[parent] += subtreeMemoryBytes[node];
+                subtreeThreads[parent] += subtreeThreads[node];
+            }
+        }
+    }
+
+    /**
+     * 由进程快照构建进程树
+     * 快照需要包含父进程ID（ProcessField.PARENT_PID），子树线程数需要THREADS扩展字段
+     * @param processes 进程信息列表
+     * @return 进程树
+     */
+    public static ProcessTree of(List<ProcessInfo> processes) {
+        return new ProcessTree(processes);
+    }
+
+    /**
+     * 查找节点的父节点下标
+     * @param node 节点下标
+     * @return 父节点下标，作为根节点时返回-1
+     */
+    private int findParent(int node) {
+        ProcessInfo process = processes[node];
+        long parentPid = process.getParentPid();
+        // Windows的System Idle Process的父进程是它自己
+        if (parentPid < 0 || parentPid == process.getPid()) {
+            return -1;
+        }
+        int parent = index.get(parentPid, -1);
+        if (parent < 0) {
+            return -1;
+        }
+        // Windows不会在父进程退出后改写子进程的父进程ID，该PID可能已被后启动的进程复用
+        long parentStart = processes[parent].getStartTimeMillis();
+        long childStart = process.getStartTimeMillis();
+        if (parentStart > 0 && childStart > 0
+                && parentStart - childStart > CpuSampler.START_TIME_TOLERANCE_MILLIS) {
+            return -1;
+        }
+        return parent;
+    }
+
+    /**
+     * 断开父子关系中的环（PID复用且启动时间未知时可能出现），环上遇到的第一个节点改为根节点
+     */
+    private void breakCycles() {
+        int n = parents.length;
+        // 0：未访问，1：在当前路径上，2：已确认可以到达根节点
+        byte[] states = new byte[n];
+        for (int i = 0; i < n; i++) {
+            int node = i;
+            while (node >= 0 && states[node] == 0) {
+                states[node] = 1;
+                node = parents[node];
+            }
+            int cycleNode = node >= 0 && states[node] == 1 ? node : -1;
+            node = i;
+            while (node >= 0 && states[node] == 1) {
+                states[node] = 2;
+                node = parents[node];
+            }
+            if (cycleNode >= 0) {
+                parents[cycleNode] = -1;
+            }
+        }
+    }
+
+    public int size() {
+        return processes.length;
+    }
+
+    /**
+     * 判断进程是否在树中
+     * @param pid 进程ID
+     * @return 存在返回true
+     */
+    public boolean contains(long pid) {
+        return index.containsKey(pid);
+    }
+
+    /**
+     * 获取进程信息
+     * @param pid 进程ID
+     * @return 进程信息，不在树中时返回null
+     */
+    public ProcessInfo get(long pid) {
+        int node = index.get(pid, -1);
+        return node < 0 ? null : processes[node];
+    }
+
+    /**
+     * 获取父进程
+     * @param pid 进程ID
+     * @return 父进程，进程为根节点或不在树中时返回null
+     */
+    public ProcessInfo getParent(long pid) {
+        int node = index.get(pid, -1);
+        return node < 0 || parents[node] < 0 ? null : processes[parents[node]];
+    }
+
+    /**
+     * 获取所有根节点进程
+     * @return 根节点进程列表，按快照中的顺序排列
+     */
+    public List<ProcessInfo> getRoots() {
+        List<ProcessInfo> roots = new ArrayList<>(rootCount);
+        for (int i = 0; i < processes.length; i++) {
+            if (parents[i] < 0) {
+                roots.add(processes[i]);
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * 获取直接子进程
+     * @param pid 进程ID
+     * @return 子进程列表，不在树中时返回空列表
+     */
+    public List<ProcessInfo> getChildren(long pid) {
+        int node = index.get(pid, -1);
+        if (node < 0) {
+            return Collections.emptyList();
+        }
+        return new NodeList(children, childOffsets[node], childOffsets[node + 1]);
+    }
+
+    /**
+     * 获取祖先进程
+     * @param pid 进程ID
+     * @return 从父进程到根节点依次排列的祖先列表，不在树中时返回空列表
+     */
+    public List<ProcessInfo> getAncestors(long pid) {
+        int node = index.get(pid, -1);
+        if (node < 0) {
+            return Collections.emptyList();
+        }
+        List<ProcessInfo> ancestors = new ArrayList<>();
+        for (int parent = parents[node]; parent >= 0; parent = parents[parent]) {
+            ancestors.add(processes[parent]);
+        }
+        return ancestors;
+    }
+
+    /**
+     * 获取所有后代进程（不含自身）
+     * 返回的列表是先序数组上的视图，不复制数据
+     * @param pid 进程ID
+     * @return 按先序排列的后代进程列表，不在树中时返回空列表
+     */
+    public List<ProcessInfo> getDescendants(long pid) {
+        int node = index.get(pid, -1);
+        if (node < 0) {
+            return Collections.emptyList();
+        }
+        int start = positions[node] + 1;
+        return new NodeList(order, start, positions[node] + subtreeSizes[node]);
+    }
+
+    /**
+     * 按先序遍历进程及其所有后代
+     * @param pid 进程ID
+     * @param action 对每个进程执行的操作，第一个为进程自身
+     */
+    public void forEachInSubtree(long pid, Consumer<? super ProcessInfo> action) {
+        int node = index.get(pid, -1);
+        if (node < 0) {
+            return;
+        }
+        int end = positions[node] + subtreeSizes[node];
+        for (int p = positions[node]; p < end; p++) {
+            action.accept(processes[order[p]]);
+        }
+    }
+
+    /**
+     * 获取子树中的进程数（含自身）
+     * @param pid 进程ID
+     * @return 进程数，不在树中时返回0
+     */
+    public int getSubtreeSize(long pid) {
+        int node = index.get(pid, -1);
+        return node < 0 ? 0 : subtreeSizes[node];
+    }
+
+    /**
+     * 获取进程及其所有后代的CPU使用率之和
+     * @param pid 进程ID
+     * @return CPU使用率（%），不在树中时返回0
+     */
+    public double getSubtreeCpu(long pid) {
+        int node = index.get(pid, -1);
+        return node < 0 ? 0 : subtreeCpu[node];
+    }
+
+    /**
+     * 获取进程及其所有后代的常驻内存之和
+     * 共享内存会被重复计算，结果可能大于实际占用
+     * @param pid 进程ID
+     * @return 内存（字节），不在树中时返回0
+     */
+    public long getSubtreeMemoryBytes(long pid) {
+        int node = index.get(pid, -1);
+        return node < 0 ? 0 : subtreeMemoryBytes[node];
+    }
+
+    /**
+     * 获取进程及其所有后代的线程数之和
+     * 线程数未知的进程不计入
+     * @param pid 进程ID
+     * @return 线程数，不在树中时返回0
+     */
+    public long getSubtreeThreadCount(long pid) {
+        int node = index.get(pid, -1);
+        return node < 0 ? 0 : subtreeThreads[node];
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessTree{" +
+                "size=" + processes.length +
+                ", roots=" + rootCount +
+                '}';
+    }
+
+    /**
+     * 下标数组上一段范围的只读列表视图
+     */
+    private final class NodeList extends AbstractList<ProcessInfo> implements RandomAccess {
+        private final int[] nodes;
+        private final int start;
+        private final int end;
+
+        NodeList(int[] nodes, int start, int end) {
+            this.nodes = nodes;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public ProcessInfo get(int i) {
+            if (i < 0 || i >= end - start) {
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + (end - start));
+            }
+            return processes[nodes[start + i]];
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
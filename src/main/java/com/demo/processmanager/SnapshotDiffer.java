@@ -0,0 +1,137 @@
+package com.demo.processmanager;
+
+import com.demo.processmanager.event.ProcessChanged;
+import com.demo.processmanager.event.ProcessEvent;
+import com.demo.processmanager.event.ProcessExited;
+import com.demo.processmanager.event.ProcessStarted;
+import com.demo.processmanager.utils.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 快照差异计算器
+ * 以PID索引上一次快照，按(PID, 启动时间)识别进程，计算启动、退出和越过阈值的变化事件；
+ * 索引和数组在快照之间交替复用，只有产生的事件会分配新对象
+ */
+final class SnapshotDiffer {
+
+    private double cpuThreshold = -1;   // CPU阈值（%），小于0表示不检测
+    private long memoryThreshold = -1;  // 内存阈值（MB），小于0表示不检测
+
+    private LongIntHashMap index = new LongIntHashMap(1024);
+    private ProcessInfo[] processes = new ProcessInfo[0];
+    private int count;
+    private boolean hasPrevious;
+
+    private LongIntHashMap nextIndex = new LongIntHashMap(1024);
+    private ProcessInfo[] nextProcesses = new ProcessInfo[0];
+    private boolean[] matched = new boolean[0];
+
+    /**
+     * 设置变化事件的阈值
+     * @param cpuPercent CPU使用率阈值（%），小于0表示不检测
+     * @param memoryMB 内存占用阈值（MB），小于0表示不检测
+     */
+    synchronized void setThresholds(double cpuPercent, long memoryMB) {
+        this.cpuThreshold = cpuPercent;
+        this.memoryThreshold = memoryMB;
+    }
+
+    /**
+     * 与上一次快照对比并记录本次快照
+     * 第一次调用只建立基线，不产生事件
+     * @param current 本次快照的进程列表
+     * @return 事件列表，没有变化时返回空列表
+     */
+    synchronized List<ProcessEvent> diff(List<ProcessInfo> current) {
+        long timestamp = System.currentTimeMillis();
+        int size = current.size();
+        if (nextProcesses.length < size) {
+            nextProcesses = new ProcessInfo[size];
+        }
+        if (matched.length < count) {
+            matched = new boolean[count];
+        }
+        Arrays.fill(matched, 0, count, false);
+        nextIndex.clear();
+
+        List<ProcessEvent> events = null;
+        for (int i = 0; i < size; i++) {
+            ProcessInfo process = current.get(i);
+            nextProcesses[i] = process;
+            nextIndex.put(process.getPid(), i);
+            if (!hasPrevious) {
+                continue;
+            }
+
+            int previousIndex = index.get(process.getPid(), -1);
+            ProcessInfo previous = previousIndex >= 0 ? processes[previousIndex] : null;
+            ProcessEvent event;
+            if (previous == null || !isSameProcess(previous, process)) {
+                event = new ProcessStarted(process, timestamp);
+            } else {
+                matched[previousIndex] = true;
+                event = crossesThreshold(previous, process)
+                        ? new ProcessChanged(process, previous.getCpu(), previous.getMemory(), timestamp)
+                        : null;
+            }
+            if (event != null) {
+                if (events == null) {
+                    events = new ArrayList<>();
+                }
+                events.add(event);
+            }
+        }
+
+        // 上一次快照中未被匹配的进程已退出（或PID已被复用）
+        if (hasPrevious) {
+            for (int i = 0; i < count; i++) {
+                if (!matched[i]) {
+                    if (events == null) {
+                        events = new ArrayList<>();
+                    }
+                    events.add(new ProcessExited(processes[i], timestamp));
+                }
+            }
+        }
+
+        // 交换缓冲区，并释放旧快照中对象的引用
+        Arrays.fill(processes, 0, count, null);
+        LongIntHashMap swapIndex = index;
+        index = nextIndex;
+        nextIndex = swapIndex;
+        ProcessInfo[] swap = processes;
+        processes = nextProcesses;
+        nextProcesses = swap;
+        count = size;
+        hasPrevious = true;
+
+        return events == null ? Collections.emptyList() : events;
+    }
+
+    /**
+     * 清除上一次快照，下一次对比重新建立基线
+     */
+    synchronized void reset() {
+        Arrays.fill(processes, 0, count, null);
+        index.clear();
+        count = 0;
+        hasPrevious = false;
+    }
+
+    private static boolean isSameProcess(ProcessInfo previous, ProcessInfo current) {
+        return Math.abs(previous.getStartTimeMillis() - current.getStartTimeMillis())
+                <= CpuSampler.START_TIME_TOLERANCE_MILLIS;
+    }
+
+    private boolean crossesThreshold(ProcessInfo previous, ProcessInfo current) {
+        if (cpuThreshold >= 0 && (previous.getCpu() >= cpuThreshold) != (current.getCpu() >= cpuThreshold)) {
+            return true;
+        }
+        return memoryThreshold >= 0
+                && (previous.getMemory() >= memoryThreshold) != (current.getMemory() >= memoryThreshold);
+    }
+}
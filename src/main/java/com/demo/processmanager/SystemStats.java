@@ -1,5 +1,8 @@
 package com.demo.processmanager;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * 系统状态信息实体类
  * 封装系统资源监控信息
@@ -9,6 +12,17 @@ public class SystemStats {
     private double memUsage;    // 系统内存占用比例
     private long jvmHeap;       // JVM当前堆使用量
     private long jvmMaxHeap;    // JVM最大堆大小
+    private long totalMemory;   // 物理内存总量（字节）
+    private long availableMemory; // 可用内存（字节）
+    private long usedMemory;    // 已用内存（字节）
+    private long cachedMemory;  // 文件缓存占用（字节）
+    private long swapTotal;     // 交换空间总量（字节）
+    private long swapUsed;      // 已用交换空间（字节）
+    private CpuUsage cpuBreakdown; // 所有核心汇总的CPU时间分布，平台不支持时为null
+    private List<CpuUsage> coreCpuUsage = Collections.emptyList(); // 每个核心的CPU时间分布
+    private double loadAverage1 = -1;  // 1分钟平均负载，-1表示未知
+    private double loadAverage5 = -1;  // 5分钟平均负载，-1表示未知
+    private double loadAverage15 = -1; // 15分钟平均负载，-1表示未知
 
     public SystemStats() {
     }
@@ -53,6 +67,94 @@ public class SystemStats {
         this.jvmMaxHeap = jvmMaxHeap;
     }
 
+    public long getTotalMemory() {
+        return totalMemory;
+    }
+
+    public void setTotalMemory(long totalMemory) {
+        this.totalMemory = totalMemory;
+    }
+
+    public long getAvailableMemory() {
+        return availableMemory;
+    }
+
+    public void setAvailableMemory(long availableMemory) {
+        this.availableMemory = availableMemory;
+    }
+
+    public long getUsedMemory() {
+        return usedMemory;
+    }
+
+    public void setUsedMemory(long usedMemory) {
+        this.usedMemory = usedMemory;
+    }
+
+    public long getCachedMemory() {
+        return cachedMemory;
+    }
+
+    public void setCachedMemory(long cachedMemory) {
+        this.cachedMemory = cachedMemory;
+    }
+
+    public long getSwapTotal() {
+        return swapTotal;
+    }
+
+    public void setSwapTotal(long swapTotal) {
+        this.swapTotal = swapTotal;
+    }
+
+    public long getSwapUsed() {
+        return swapUsed;
+    }
+
+    public void setSwapUsed(long swapUsed) {
+        this.swapUsed = swapUsed;
+    }
+
+    public CpuUsage getCpuBreakdown() {
+        return cpuBreakdown;
+    }
+
+    public void setCpuBreakdown(CpuUsage cpuBreakdown) {
+        this.cpuBreakdown = cpuBreakdown;
+    }
+
+    public List<CpuUsage> getCoreCpuUsage() {
+        return coreCpuUsage;
+    }
+
+    public void setCoreCpuUsage(List<CpuUsage> coreCpuUsage) {
+        this.coreCpuUsage = coreCpuUsage;
+    }
+
+    public double getLoadAverage1() {
+        return loadAverage1;
+    }
+
+    public void setLoadAverage1(double loadAverage1) {
+        this.loadAverage1 = loadAverage1;
+    }
+
+    public double getLoadAverage5() {
+        return loadAverage5;
+    }
+
+    public void setLoadAverage5(double loadAverage5) {
+        this.loadAverage5 = loadAverage5;
+    }
+
+    public double getLoadAverage15() {
+        return loadAverage15;
+    }
+
+    public void setLoadAverage15(double loadAverage15) {
+        this.loadAverage15 = loadAverage15;
+    }
+
     /**
      * 获取JVM堆使用率
      * @return JVM堆使用率（0-1之间的值）
@@ -69,6 +171,15 @@ public class SystemStats {
         return "SystemStats{" +
                 "cpuUsage=" + cpuUsage +
                 ", memUsage=" + memUsage +
+                ", totalMemory=" + totalMemory +
+                ", availableMemory=" + availableMemory +
+                ", usedMemory=" + usedMemory +
+                ", cachedMemory=" + cachedMemory +
+                ", swapTotal=" + swapTotal +
+                ", swapUsed=" + swapUsed +
+                ", cpuBreakdown=" + cpuBreakdown +
+                ", cores=" + coreCpuUsage.size() +
+                ", loadAverage=" + loadAverage1 + "/" + loadAverage5 + "/" + loadAverage15 +
                 ", jvmHeap=" + jvmHeap +
                 ", jvmMaxHeap=" + jvmMaxHeap +
                 ", jvmHeapUsage=" + String.format("%.2f", getJvmHeapUsage() * 100) + "%" +
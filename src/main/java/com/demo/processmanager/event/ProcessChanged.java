@@ -0,0 +1,35 @@
+package com.demo.processmanager.event;
+
+import com.demo.processmanager.ProcessInfo;
+
+/**
+ * 进程资源变化事件
+ * 进程的CPU使用率或内存占用在两次快照之间越过了设定的阈值（向上或向下）
+ */
+public class ProcessChanged extends ProcessEvent {
+    private final double previousCpu;   // 上一次快照的CPU使用率（%）
+    private final long previousMemory;  // 上一次快照的内存占用（MB）
+
+    public ProcessChanged(ProcessInfo process, double previousCpu, long previousMemory, long timestamp) {
+        super(process, timestamp);
+        this.previousCpu = previousCpu;
+        this.previousMemory = previousMemory;
+    }
+
+    public double getPreviousCpu() {
+        return previousCpu;
+    }
+
+    public long getPreviousMemory() {
+        return previousMemory;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessChanged{" +
+                "process=" + getProcess() +
+                ", previousCpu=" + previousCpu +
+                ", previousMemory=" + previousMemory +
+                '}';
+    }
+}
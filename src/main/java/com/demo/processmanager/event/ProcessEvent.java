@@ -0,0 +1,34 @@
+package com.demo.processmanager.event;
+
+import com.demo.processmanager.ProcessInfo;
+
+/**
+ * 进程事件基类
+ * 由ProcessManager对比相邻两次快照产生，进程身份由(PID, 启动时间)确定
+ */
+public abstract class ProcessEvent {
+    private final ProcessInfo process;  // 事件对应的进程信息
+    private final long timestamp;       // 事件产生时间（epoch毫秒）
+
+    protected ProcessEvent(ProcessInfo process, long timestamp) {
+        this.process = process;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * 获取事件对应的进程信息
+     * 进程退出事件返回上一次快照中的信息
+     * @return 进程信息
+     */
+    public ProcessInfo getProcess() {
+        return process;
+    }
+
+    public long getPid() {
+        return process.getPid();
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
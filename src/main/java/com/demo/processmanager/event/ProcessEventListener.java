@@ -0,0 +1,14 @@
+package com.demo.processmanager.event;
+
+/**
+ * 进程事件监听器
+ * 在执行listProcesses()的线程上同步回调，实现类应尽快返回
+ */
+public interface ProcessEventListener {
+
+    /**
+     * 处理进程事件
+     * @param event 进程事件
+     */
+    void onEvent(ProcessEvent event);
+}
@@ -0,0 +1,19 @@
+package com.demo.processmanager.event;
+
+import com.demo.processmanager.ProcessInfo;
+
+/**
+ * 进程退出事件
+ * 进程在上一次快照中存在而本次快照中不存在（或PID已被新进程复用）
+ */
+public class ProcessExited extends ProcessEvent {
+
+    public ProcessExited(ProcessInfo lastKnown, long timestamp) {
+        super(lastKnown, timestamp);
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessExited{" + getProcess() + '}';
+    }
+}
@@ -0,0 +1,19 @@
+package com.demo.processmanager.event;
+
+import com.demo.processmanager.ProcessInfo;
+
+/**
+ * 进程启动事件
+ * 进程在本次快照中出现而上一次快照中不存在
+ */
+public class ProcessStarted extends ProcessEvent {
+
+    public ProcessStarted(ProcessInfo process, long timestamp) {
+        super(process, timestamp);
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessStarted{" + getProcess() + '}';
+    }
+}
@@ -0,0 +1,139 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.SystemStats;
+import com.demo.processmanager.utils.CommandExecutor;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * 系统CPU信息读取器
+ * Linux直接读取/proc/stat和/proc/loadavg，提供汇总及每个核心的CPU时间分布；
+ * 其他平台只提供CPU使用率和平均负载，优先使用JMX，不可用时再执行系统命令
+ */
+public class CpuStatsReader {
+
+    private final String osType;
+    private final ProcFsReader procFsReader;
+
+    /**
+     * @param osType 操作系统类型（"windows", "mac", "linux"）
+     */
+    public CpuStatsReader(String osType) {
+        this.osType = osType;
+        this.procFsReader = "linux".equals(osType) && ProcFsReader.isAvailable() ? new ProcFsReader() : null;
+    }
+
+    /**
+     * 读取系统CPU信息并填充到系统状态对象
+     * /proc/stat按两次调用之间的增量计算，同一个读取器应在多次采样之间复用
+     * @param stats 需要填充的系统状态对象
+     * @throws IOException 如果读取失败
+     */
+    public void read(SystemStats stats) throws IOException {
+        if (procFsReader != null) {
+            procFsReader.readCpuStats(stats);
+            return;
+        }
+
+        stats.setCpuUsage(getSystemCpuUsage());
+
+        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        double loadAverage = osBean.getSystemLoadAverage();
+        if (loadAverage >= 0) {
+            stats.setLoadAverage1(loadAverage);
+        }
+        if ("mac".equals(osType)) {
+            parseLoadAverage(CommandExecutor.executeCommandSingleLine("sysctl -n vm.loadavg"), stats);
+        }
+    }
+
+    /**
+     * 获取系统CPU使用率
+     * getSystemCpuLoad在Java 14中被getCpuLoad取代，本项目面向Java 11，只能继续使用旧方法
+     * @return CPU使用率（0-100）
+     */
+    @SuppressWarnings("deprecation")
+    private double getSystemCpuUsage() {
+        try {
+            OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+
+            if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+                double load = ((com.sun.management.OperatingSystemMXBean) osBean).getSystemCpuLoad();
+                // 首次调用时JMX可能尚未完成采样，返回负数
+                if (load >= 0) {
+                    return load * 100;
+                }
+            }
+
+            // 备用方案：使用系统命令获取CPU使用率
+            return getCpuUsageFromCommand();
+
+        } catch (Exception e) {
+            return getCpuUsageFromCommand();
+        }
+    }
+
+    /**
+     * 通过系统命令获取CPU使用率
+     * @return CPU使用率
+     */
+    private double getCpuUsageFromCommand() {
+        try {
+            if (osType.equals("windows")) {
+                String command = "wmic cpu get loadpercentage /value";
+                String output = CommandExecutor.executeCommandSingleLine(command);
+                if (output.contains("LoadPercentage")) {
+                    String cpuStr = output.split("=")[1].trim();
+                    return Double.parseDouble(cpuStr);
+                }
+            } else {
+                // macOS/Linux使用top命令
+                String command = "top -l 1 | grep -E \"^CPU\" | awk '{print $3}'";
+                if (osType.equals("linux")) {
+                    command = "top -bn1 | grep \"Cpu(s)\" | awk '{print $2}'";
+                }
+
+                String output = CommandExecutor.executeCommandSingleLine(command);
+                if (output != null && !output.isEmpty()) {
+                    // 去除百分号并转换为数字
+                    String cpuStr = output.replace("%", "").trim();
+                    return Double.parseDouble(cpuStr);
+                }
+            }
+        } catch (Exception e) {
+            // 忽略错误
+        }
+        return 0.0;
+    }
+
+    /**
+     * 解析sysctl vm.loadavg输出，格式如：{ 1.52 1.68 1.73 }
+     * @param line sysctl输出
+     * @param stats 需要填充的系统状态对象
+     */
+    static void parseLoadAverage(String line, SystemStats stats) {
+        if (line == null) {
+            return;
+        }
+        String[] parts = line.replace("{", "").replace("}", "").trim().split("\\s+");
+        if (parts.length < 3) {
+            return;
+        }
+        double load1;
+        double load5;
+        double load15;
+        try {
+            load1 = Double.parseDouble(parts[0]);
+            load5 = Double.parseDouble(parts[1]);
+            load15 = Double.parseDouble(parts[2]);
+        } catch (NumberFormatException e) {
+            // 保留JMX提供的1分钟平均负载
+            return;
+        }
+        stats.setLoadAverage1(load1);
+        stats.setLoadAverage5(load5);
+        stats.setLoadAverage15(load15);
+    }
+}
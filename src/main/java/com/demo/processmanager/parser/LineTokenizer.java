@@ -0,0 +1,181 @@
+package com.demo.processmanager.parser;
+
+/**
+ * 以空白分隔的命令输出行分词器
+ * 在原始字符序列上记录当前字段的位置，数值字段直接解析为基本类型，不创建子串；
+ * 实例可通过reset重复使用，非线程安全
+ */
+final class LineTokenizer {
+
+    // 超过该位数的整数可能溢出long，不作为整数解析
+    private static final int MAX_FAST_DIGITS = 18;
+
+    // 不超过15位的十进制尾数小于2^53，可以用double精确表示；更长的小数交给Double.parseDouble处理
+    private static final int MAX_FAST_DOUBLE_DIGITS = 15;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+            1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private CharSequence line;
+    private int position;
+    private int end;
+    private int tokenStart;
+    private int tokenEnd;
+
+    /**
+     * 开始解析新的一行
+     * @param line 待解析的行
+     * @return 当前分词器
+     */
+    LineTokenizer reset(CharSequence line) {
+        this.line = line;
+        this.position = 0;
+        this.end = line.length();
+        this.tokenStart = 0;
+        this.tokenEnd = 0;
+        return this;
+    }
+
+    /**
+     * 移动到下一个字段
+     * @return 是否还有字段
+     */
+    boolean next() {
+        int i = skipWhitespace(position);
+        if (i >= end) {
+            position = end;
+            return false;
+        }
+        tokenStart = i;
+        while (i < end && !Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        tokenEnd = i;
+        position = i;
+        return true;
+    }
+
+    /**
+     * 将剩余内容（去除首尾空白）作为最后一个字段，用于可能包含空格的进程名
+     * @return 剩余内容是否非空
+     */
+    boolean rest() {
+        int start = skipWhitespace(position);
+        int stop = end;
+        while (stop > start && Character.isWhitespace(line.charAt(stop - 1))) {
+            stop--;
+        }
+        position = end;
+        if (start >= stop) {
+            return false;
+        }
+        tokenStart = start;
+        tokenEnd = stop;
+        return true;
+    }
+
+    /**
+     * 当前字段是否为非负整数
+     */
+    boolean isLong() {
+        if (tokenStart >= tokenEnd || tokenEnd - tokenStart > MAX_FAST_DIGITS) {
+            return false;
+        }
+        for (int i = tokenStart; i < tokenEnd; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将当前字段解析为非负整数
+     * @throws NumberFormatException 如果字段不是整数
+     */
+    long parseLong() {
+        if (!isLong()) {
+            throw invalid();
+        }
+        long value = 0;
+        for (int i = tokenStart; i < tokenEnd; i++) {
+            value = value * 10 + (line.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    /**
+     * 将当前字段解析为非负小数，如ps输出的pcpu、pmem列
+     * @throws NumberFormatException 如果字段不是小数
+     */
+    double parseDouble() {
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (int i = tokenStart; i < tokenEnd; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                // 指数等少见格式交给标准实现
+                return Double.parseDouble(tokenString());
+            }
+        }
+        if (digits == 0) {
+            throw invalid();
+        }
+        if (digits > MAX_FAST_DOUBLE_DIGITS) {
+            return Double.parseDouble(tokenString());
+        }
+        // 尾数和10的幂都能精确表示，一次除法得到与parseDouble相同的结果
+        return fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+    }
+
+    /**
+     * 将当前字段按ps时间格式解析为毫秒
+     * @throws NumberFormatException 如果格式不正确
+     */
+    long parseMillis() {
+        return PsTime.parseMillis(line, tokenStart, tokenEnd);
+    }
+
+    /**
+     * 将当前字段转换为字符串
+     */
+    String tokenString() {
+        return line.subSequence(tokenStart, tokenEnd).toString();
+    }
+
+    CharSequence line() {
+        return line;
+    }
+
+    int tokenStart() {
+        return tokenStart;
+    }
+
+    int tokenEnd() {
+        return tokenEnd;
+    }
+
+    private int skipWhitespace(int from) {
+        int i = from;
+        while (i < end && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private NumberFormatException invalid() {
+        return new NumberFormatException("无法解析的数值: " + tokenString());
+    }
+}
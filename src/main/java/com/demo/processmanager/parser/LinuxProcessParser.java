@@ -1,90 +1,144 @@
 package com.demo.processmanager.parser;
 
 import com.demo.processmanager.ProcessInfo;
-import com.demo.processmanager.utils.CommandExecutor;
+import com.demo.processmanager.ProcessQuery;
+import com.demo.processmanager.ProcessTable;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Linux平台进程解析器
- * 使用ps命令获取进程信息
+ * 优先直接读取/proc文件系统，/proc不可用时回退到ps命令
  */
-public class LinuxProcessParser {
+public class LinuxProcessParser implements ProcessBackend {
+    
+    // 内核进程名（comm）的最大长度，ps -C按comm匹配
+    private static final int MAX_COMM_LENGTH = 15;
+    
+    // 系统总内存缓存，仅在rss不可用需要按百分比估算时使用
+    private static final TotalMemoryCache TOTAL_MEMORY =
+            new TotalMemoryCache("grep MemTotal /proc/meminfo | awk '{print $2}'", 1024);
+    
+    private final ProcFsReader procFsReader;
+    private final PsLineParser psLineParser = new PsLineParser(TOTAL_MEMORY, true);
+    
+    public LinuxProcessParser() {
+        this(ProcFsReader.isAvailable());
+    }
+    
+    /**
+     * @param useProcFs 是否使用/proc文件系统，false时始终使用ps命令
+     */
+    public LinuxProcessParser(boolean useProcFs) {
+        this.procFsReader = useProcFs ? new ProcFsReader() : null;
+    }
     
     /**
      * 获取所有进程列表
      * @return 进程信息列表
      * @throws IOException 如果命令执行失败
      */
+    @Override
     public List<ProcessInfo> listProcesses() throws IOException {
-        List<ProcessInfo> processes = new ArrayList<>();
+        if (procFsReader != null) {
+            return procFsReader.listProcesses();
+        }
         
         // 执行ps命令获取进程信息（Linux格式）
-        String command = "ps -eo pid,pcpu,pmem,etime,comm --no-headers";
-        List<String> output = CommandExecutor.executeCommand(command);
+        String command = "ps -eo " + psLineParser.columns(ProcessQuery.all()) + " --no-headers";
+        return psLineParser.execute(command, ProcessQuery.all(), false);
+    }
+    
+    /**
+     * 按条件获取进程列表
+     * ps的多个选择参数之间是"或"关系，因此只下推选择性最强的一个（-p、-C或-u），
+     * 所有条件仍在解析时逐行检查
+     * @param query 查询条件
+     * @return 满足条件的进程信息列表
+     * @throws IOException 如果命令执行失败
+     */
+    @Override
+    public List<ProcessInfo> listProcesses(ProcessQuery query) throws IOException {
+        if (procFsReader != null) {
+            return procFsReader.listProcesses(query);
+        }
         
-        for (String line : output) {
-            ProcessInfo process = parseProcessLine(line);
-            if (process != null) {
-                processes.add(process);
-            }
+        String selector = selector(query);
+        return psLineParser.execute(psCommand(selector, query), query, needsUserCheck(selector, query));
+    }
+    
+    /**
+     * 按条件获取进程流，/proc或ps输出在遍历流时按需读取
+     * @param query 查询条件
+     * @return 满足条件的进程信息流，使用完毕后需要关闭
+     * @throws IOException 如果/proc无法读取或ps命令无法启动
+     */
+    @Override
+    public Stream<ProcessInfo> streamProcesses(ProcessQuery query) throws IOException {
+        if (procFsReader != null) {
+            return procFsReader.streamProcesses(query);
         }
         
-        return processes;
+        String selector = selector(query);
+        return psLineParser.stream(psCommand(selector, query), query, needsUserCheck(selector, query));
     }
     
     /**
-     * 解析单行进程信息
-     * @param line ps命令输出的一行
-     * @return 解析后的ProcessInfo对象，解析失败返回null
+     * 获取所有进程的列式快照，/proc或ps的解析结果直接填充进程表，不创建中间的ProcessInfo对象
+     * @return 进程表
+     * @throws IOException 如果/proc无法读取或命令执行失败
      */
-    private ProcessInfo parseProcessLine(String line) {
-        try {
-            // 去除多余空格并分割字段
-            String[] parts = line.trim().split("\\s+");
-            if (parts.length < 5) {
-                return null;
-            }
-            
-            long pid = Long.parseLong(parts[0]);
-            double cpu = Double.parseDouble(parts[1]);
-            double memoryPercent = Double.parseDouble(parts[2]);
-            String startTime = parts[3];
-            String name = parts[4];
-            
-            // 将内存百分比转换为MB（估算值）
-            long memoryMB = estimateMemoryMB(memoryPercent);
-            
-            return new ProcessInfo(pid, name, cpu, memoryMB, startTime);
-            
-        } catch (NumberFormatException e) {
-            // 忽略解析错误
-            return null;
+    @Override
+    public ProcessTable listProcessTable() throws IOException {
+        if (procFsReader != null) {
+            return procFsReader.listProcessTable();
         }
+        return psLineParser.executeTable(psCommand("-e", ProcessQuery.all()));
     }
     
     /**
-     * 根据内存百分比估算内存使用量（MB）
-     * @param memoryPercent 内存使用百分比
-     * @return 估算的内存使用量（MB）
+     * 选择下推到ps的条件
+     * @param query 查询条件
+     * @return ps的进程选择参数
      */
-    private long estimateMemoryMB(double memoryPercent) {
-        try {
-            // 获取系统总内存（Linux）
-            String memoryCommand = "grep MemTotal /proc/meminfo | awk '{print $2}'";
-            String totalMemoryStr = CommandExecutor.executeCommandSingleLine(memoryCommand);
-            long totalMemoryKB = Long.parseLong(totalMemoryStr);
-            long totalMemoryMB = totalMemoryKB / 1024;
-            
-            // 计算实际内存使用量
-            return (long) (totalMemoryMB * memoryPercent / 100);
-            
-        } catch (Exception e) {
-            // 如果获取总内存失败，返回估算值
-            return (long) (memoryPercent * 100); // 简单估算
+    private static String selector(ProcessQuery query) {
+        String name = query.getName();
+        String user = query.getUser();
+        if (query.hasPidFilter()) {
+            return "-p " + PsLineParser.joinPids(query.getPids());
+        } else if (name != null && name.length() <= MAX_COMM_LENGTH && PsLineParser.isShellSafe(name)) {
+            return "-C " + name;
+        } else if (user != null && PsLineParser.isShellSafe(user)) {
+            return "-u " + user;
+        }
+        return "-e";
+    }
+    
+    private String psCommand(String selector, ProcessQuery query) {
+        String command = "ps " + selector + " -o " + psLineParser.columns(query) + " --no-headers";
+        if (!selector.equals("-e")) {
+            // 没有匹配的进程时ps的退出码为1
+            command += " || true";
         }
+        return command;
+    }
+    
+    /**
+     * 用户条件没有下推到ps时需要逐个检查进程所有者
+     */
+    private static boolean needsUserCheck(String selector, ProcessQuery query) {
+        return query.hasUserFilter() && !selector.startsWith("-u ");
+    }
+    
+    /**
+     * 解析单行进程信息
+     * @param line ps命令输出的一行
+     * @return 解析后的ProcessInfo对象，解析失败返回null
+     */
+    ProcessInfo parseProcessLine(CharSequence line) {
+        return psLineParser.parseLine(line);
     }
     
     /**
@@ -93,14 +147,17 @@ public class LinuxProcessParser {
      * @return 进程信息，如果进程不存在返回null
      * @throws IOException 如果命令执行失败
      */
+    @Override
     public ProcessInfo getProcessInfo(long pid) throws IOException {
-        String command = String.format("ps -p %d -o pid,pcpu,pmem,etime,comm --no-headers", pid);
-        List<String> output = CommandExecutor.executeCommand(command);
-        
-        if (output.isEmpty()) {
-            return null; // 进程不存在
+        if (procFsReader != null) {
+            return procFsReader.getProcessInfo(pid);
         }
         
-        return parseProcessLine(output.get(0));
+        // 进程不存在时ps的退出码为1，按空输出处理
+        ProcessQuery query = ProcessQuery.builder().pids(pid).build();
+        String command = String.format("ps -p %d -o %s --no-headers || true", pid, psLineParser.columns(query));
+        List<ProcessInfo> processes = psLineParser.execute(command, query, false);
+        
+        return processes.isEmpty() ? null : processes.get(0); // 为空表示进程不存在
     }
 }
\ No newline at end of file
@@ -1,90 +1,106 @@
 package com.demo.processmanager.parser;
 
 import com.demo.processmanager.ProcessInfo;
-import com.demo.processmanager.utils.CommandExecutor;
+import com.demo.processmanager.ProcessQuery;
+import com.demo.processmanager.ProcessTable;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * macOS平台进程解析器
  * 使用ps命令获取进程信息
  */
-public class MacProcessParser {
+public class MacProcessParser implements ProcessBackend {
+    
+    // 系统总内存缓存，仅在rss不可用需要按百分比估算时使用
+    private static final TotalMemoryCache TOTAL_MEMORY =
+            new TotalMemoryCache("sysctl -n hw.memsize", 1);
+    
+    private final PsLineParser psLineParser = new PsLineParser(TOTAL_MEMORY, false);
     
     /**
      * 获取所有进程列表
      * @return 进程信息列表
      * @throws IOException 如果命令执行失败
      */
+    @Override
     public List<ProcessInfo> listProcesses() throws IOException {
-        List<ProcessInfo> processes = new ArrayList<>();
-        
         // 执行ps命令获取进程信息
-        String command = "ps -eo pid,pcpu,pmem,etime,comm | tail -n +2";
-        List<String> output = CommandExecutor.executeCommand(command);
-        
-        for (String line : output) {
-            ProcessInfo process = parseProcessLine(line);
-            if (process != null) {
-                processes.add(process);
-            }
-        }
-        
-        return processes;
+        String command = "ps -eo " + psLineParser.columns(ProcessQuery.all()) + " | tail -n +2";
+        return psLineParser.execute(command, ProcessQuery.all(), false);
     }
     
     /**
-     * 解析单行进程信息
-     * @param line ps命令输出的一行
-     * @return 解析后的ProcessInfo对象，解析失败返回null
+     * 按条件获取进程列表
+     * macOS的ps没有按进程名选择的参数，只下推PID（-p）或用户（-U）条件，
+     * 所有条件仍在解析时逐行检查
+     * @param query 查询条件
+     * @return 满足条件的进程信息列表
+     * @throws IOException 如果命令执行失败
      */
-    private ProcessInfo parseProcessLine(String line) {
-        try {
-            // 去除多余空格并分割字段
-            String[] parts = line.trim().split("\\s+");
-            if (parts.length < 5) {
-                return null;
-            }
-            
-            long pid = Long.parseLong(parts[0]);
-            double cpu = Double.parseDouble(parts[1]);
-            double memoryPercent = Double.parseDouble(parts[2]);
-            String startTime = parts[3];
-            String name = parts[4];
-            
-            // 将内存百分比转换为MB（估算值）
-            long memoryMB = estimateMemoryMB(memoryPercent);
-            
-            return new ProcessInfo(pid, name, cpu, memoryMB, startTime);
-            
-        } catch (NumberFormatException e) {
-            // 忽略解析错误
-            return null;
-        }
+    @Override
+    public List<ProcessInfo> listProcesses(ProcessQuery query) throws IOException {
+        String selector = selector(query);
+        return psLineParser.execute(psCommand(selector, query), query, needsUserCheck(selector, query));
     }
     
     /**
-     * 根据内存百分比估算内存使用量（MB）
-     * @param memoryPercent 内存使用百分比
-     * @return 估算的内存使用量（MB）
+     * 按条件获取进程流，ps输出在遍历流时按需读取
+     * @param query 查询条件
+     * @return 满足条件的进程信息流，使用完毕后需要关闭
+     * @throws IOException 如果ps命令无法启动
      */
-    private long estimateMemoryMB(double memoryPercent) {
-        try {
-            // 获取系统总内存
-            String memoryCommand = "sysctl -n hw.memsize";
-            String totalMemoryStr = CommandExecutor.executeCommandSingleLine(memoryCommand);
-            long totalMemoryBytes = Long.parseLong(totalMemoryStr);
-            long totalMemoryMB = totalMemoryBytes / (1024 * 1024);
-            
-            // 计算实际内存使用量
-            return (long) (totalMemoryMB * memoryPercent / 100);
-            
-        } catch (Exception e) {
-            // 如果获取总内存失败，返回估算值
-            return (long) (memoryPercent * 100); // 简单估算
+    @Override
+    public Stream<ProcessInfo> streamProcesses(ProcessQuery query) throws IOException {
+        String selector = selector(query);
+        return psLineParser.stream(psCommand(selector, query), query, needsUserCheck(selector, query));
+    }
+    
+    /**
+     * 获取所有进程的列式快照，ps的解析结果直接填充进程表，不创建中间的ProcessInfo对象
+     * @return 进程表
+     * @throws IOException 如果命令执行失败
+     */
+    @Override
+    public ProcessTable listProcessTable() throws IOException {
+        return psLineParser.executeTable(psCommand("-e", ProcessQuery.all()));
+    }
+    
+    /**
+     * 选择下推到ps的条件
+     * @param query 查询条件
+     * @return ps的进程选择参数
+     */
+    private static String selector(ProcessQuery query) {
+        String user = query.getUser();
+        if (query.hasPidFilter()) {
+            return "-p " + PsLineParser.joinPids(query.getPids());
+        } else if (user != null && PsLineParser.isShellSafe(user)) {
+            return "-U " + user;
         }
+        return "-e";
+    }
+    
+    private String psCommand(String selector, ProcessQuery query) {
+        return "ps " + selector + " -o " + psLineParser.columns(query) + " | tail -n +2";
+    }
+    
+    /**
+     * 用户条件没有下推到ps时需要逐个检查进程所有者
+     */
+    private static boolean needsUserCheck(String selector, ProcessQuery query) {
+        return query.hasUserFilter() && !selector.startsWith("-U ");
+    }
+    
+    /**
+     * 解析单行进程信息
+     * @param line ps命令输出的一行
+     * @return 解析后的ProcessInfo对象，解析失败返回null
+     */
+    ProcessInfo parseProcessLine(CharSequence line) {
+        return psLineParser.parseLine(line);
     }
     
     /**
@@ -93,15 +109,13 @@ public class MacProcessParser {
      * @return 进程信息，如果进程不存在返回null
      * @throws IOException 如果命令执行失败
      */
+    @Override
     public ProcessInfo getProcessInfo(long pid) throws IOException {
-        String command = String.format("ps -p %d -o pid,pcpu,pmem,etime,comm", pid);
-        List<String> output = CommandExecutor.executeCommand(command);
-        
-        if (output.size() < 2) {
-            return null; // 进程不存在
-        }
+        // 管道的退出码为tail的退出码，进程不存在时输出为空；tail跳过标题行
+        ProcessQuery query = ProcessQuery.builder().pids(pid).build();
+        String command = String.format("ps -p %d -o %s | tail -n +2", pid, psLineParser.columns(query));
+        List<ProcessInfo> processes = psLineParser.execute(command, query, false);
         
-        // 跳过标题行，解析数据行
-        return parseProcessLine(output.get(1));
+        return processes.isEmpty() ? null : processes.get(0); // 为空表示进程不存在
     }
 }
\ No newline at end of file
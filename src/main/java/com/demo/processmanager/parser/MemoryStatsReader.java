@@ -0,0 +1,231 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.SystemStats;
+import com.demo.processmanager.utils.CommandExecutor;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 系统内存信息读取器
+ * Linux直接读取/proc/meminfo，macOS解析vm_stat，Windows使用wmic查询
+ */
+public class MemoryStatsReader {
+
+    private final String osType;
+    private final ProcFsReader procFsReader;
+    private final TotalMemoryCache macTotalMemory;
+
+    /**
+     * @param osType 操作系统类型（"windows", "mac", "linux"）
+     */
+    public MemoryStatsReader(String osType) {
+        this.osType = osType;
+        this.procFsReader = "linux".equals(osType) && ProcFsReader.isAvailable() ? new ProcFsReader() : null;
+        this.macTotalMemory = "mac".equals(osType) ? new TotalMemoryCache("sysctl -n hw.memsize", 1) : null;
+    }
+
+    /**
+     * 读取系统内存信息并填充到系统状态对象，同时更新内存使用率
+     * @param stats 需要填充的系统状态对象
+     * @throws IOException 如果读取失败
+     */
+    public void read(SystemStats stats) throws IOException {
+        switch (osType) {
+            case "linux":
+                if (procFsReader != null) {
+                    procFsReader.readMemInfo(stats);
+                } else {
+                    readWithFree(stats);
+                }
+                break;
+            case "mac":
+                parseVmStat(CommandExecutor.executeCommand("vm_stat"), macTotalMemory.getTotalBytes(), stats);
+                parseSwapUsage(CommandExecutor.executeCommandSingleLine("sysctl -n vm.swapusage"), stats);
+                break;
+            case "windows":
+                readWithWmic(stats);
+                break;
+            default:
+                throw new UnsupportedOperationException("不支持的操作系统: " + osType);
+        }
+    }
+
+    /**
+     * /proc不可用时使用free命令读取内存信息（单位：字节）
+     * @param stats 需要填充的系统状态对象
+     * @throws IOException 如果命令执行失败
+     */
+    private void readWithFree(SystemStats stats) throws IOException {
+        List<String> output = CommandExecutor.executeCommand("free -b");
+        for (String line : output) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts[0].equals("Mem:") && parts.length >= 7) {
+                // total used free shared buff/cache available
+                long total = Long.parseLong(parts[1]);
+                long available = Long.parseLong(parts[6]);
+                stats.setTotalMemory(total);
+                stats.setAvailableMemory(available);
+                stats.setUsedMemory(total - available);
+                stats.setCachedMemory(Long.parseLong(parts[5]));
+                if (total > 0) {
+                    stats.setMemUsage((double) (total - available) * 100 / total);
+                }
+            } else if (parts[0].equals("Swap:") && parts.length >= 3) {
+                stats.setSwapTotal(Long.parseLong(parts[1]));
+                stats.setSwapUsed(Long.parseLong(parts[2]));
+            }
+        }
+    }
+
+    /**
+     * 使用wmic查询Windows内存信息
+     * 交换空间按虚拟内存总量减去物理内存总量估算（即页面文件大小）
+     * @param stats 需要填充的系统状态对象
+     * @throws IOException 如果命令执行失败
+     */
+    private void readWithWmic(SystemStats stats) throws IOException {
+        String command = "wmic OS get FreePhysicalMemory,FreeVirtualMemory,TotalVirtualMemorySize,TotalVisibleMemorySize /format:csv";
+        List<Map<String, String>> records = WmicOutput.execute(command);
+        if (records.isEmpty()) {
+            return;
+        }
+
+        // wmic返回的单位为KB
+        Map<String, String> record = records.get(0);
+        long total = WmicOutput.getLong(record, "TotalVisibleMemorySize", 0) * 1024;
+        long free = WmicOutput.getLong(record, "FreePhysicalMemory", 0) * 1024;
+        long totalVirtual = WmicOutput.getLong(record, "TotalVirtualMemorySize", 0) * 1024;
+        long freeVirtual = WmicOutput.getLong(record, "FreeVirtualMemory", 0) * 1024;
+
+        stats.setTotalMemory(total);
+        stats.setAvailableMemory(free);
+        stats.setUsedMemory(total - free);
+        stats.setSwapTotal(Math.max(totalVirtual - total, 0));
+        stats.setSwapUsed(Math.max((totalVirtual - freeVirtual) - (total - free), 0));
+        if (total > 0) {
+            stats.setMemUsage((1 - (double) free / total) * 100);
+        }
+    }
+
+    /**
+     * 解析vm_stat输出
+     * 已用内存与活动监视器口径一致：活跃页 + 联动页 + 压缩器占用页
+     * @param lines vm_stat输出
+     * @param totalBytes 物理内存总量（字节），未知时为-1
+     * @param stats 需要填充的系统状态对象
+     */
+    static void parseVmStat(List<String> lines, long totalBytes, SystemStats stats) {
+        long pageSize = 4096;
+        long active = 0;
+        long wired = 0;
+        long compressed = 0;
+        long free = 0;
+        long inactive = 0;
+        long speculative = 0;
+        long fileBacked = -1;
+
+        for (String line : lines) {
+            int pageSizeIndex = line.indexOf("page size of ");
+            if (pageSizeIndex >= 0) {
+                int start = pageSizeIndex + "page size of ".length();
+                int end = line.indexOf(' ', start);
+                pageSize = Long.parseLong(line.substring(start, end));
+                continue;
+            }
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String key = line.substring(0, colon).trim();
+            String value = line.substring(colon + 1).trim();
+            if (value.endsWith(".")) {
+                value = value.substring(0, value.length() - 1);
+            }
+            long pages;
+            try {
+                pages = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            switch (key) {
+                case "Pages free":
+                    free = pages;
+                    break;
+                case "Pages active":
+                    active = pages;
+                    break;
+                case "Pages inactive":
+                    inactive = pages;
+                    break;
+                case "Pages speculative":
+                    speculative = pages;
+                    break;
+                case "Pages wired down":
+                    wired = pages;
+                    break;
+                case "Pages occupied by compressor":
+                    compressed = pages;
+                    break;
+                case "File-backed pages":
+                    fileBacked = pages;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        long used = (active + wired + compressed) * pageSize;
+        long total = totalBytes > 0 ? totalBytes : (free + active + inactive + speculative + wired + compressed) * pageSize;
+
+        stats.setTotalMemory(total);
+        stats.setUsedMemory(used);
+        stats.setAvailableMemory(Math.max(total - used, 0));
+        stats.setCachedMemory((fileBacked >= 0 ? fileBacked : inactive) * pageSize);
+        if (total > 0) {
+            stats.setMemUsage((double) used * 100 / total);
+        }
+    }
+
+    /**
+     * 解析sysctl vm.swapusage输出，格式如：total = 2048.00M  used = 1024.00M  free = 1024.00M  (encrypted)
+     * @param line sysctl输出
+     * @param stats 需要填充的系统状态对象
+     */
+    static void parseSwapUsage(String line, SystemStats stats) {
+        stats.setSwapTotal(parseSwapValue(line, "total = "));
+        stats.setSwapUsed(parseSwapValue(line, "used = "));
+    }
+
+    private static long parseSwapValue(String line, String key) {
+        int start = line.indexOf(key);
+        if (start < 0) {
+            return 0;
+        }
+        start += key.length();
+        int end = start;
+        while (end < line.length() && line.charAt(end) != ' ') {
+            end++;
+        }
+        String value = line.substring(start, end);
+        if (value.isEmpty()) {
+            return 0;
+        }
+        long unit;
+        switch (value.charAt(value.length() - 1)) {
+            case 'K':
+                unit = 1024L;
+                break;
+            case 'M':
+                unit = 1024L * 1024;
+                break;
+            case 'G':
+                unit = 1024L * 1024 * 1024;
+                break;
+            default:
+                return (long) Double.parseDouble(value);
+        }
+        return (long) (Double.parseDouble(value.substring(0, value.length() - 1)) * unit);
+    }
+}
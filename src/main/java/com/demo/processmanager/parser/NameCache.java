@@ -0,0 +1,97 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.utils.LongIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * 进程名缓存
+ * 按PID保存上一次快照中的进程名，名称内容未变化时直接复用已有的String；
+ * 缓存只保留最近一次快照中出现的进程，索引和数组在快照之间交替复用。
+ * 线程安全：多个解析批次可以同时读取缓存，同一时刻只有一个批次记录快照
+ */
+final class NameCache {
+
+    private LongIntHashMap index = new LongIntHashMap(1024);
+    private String[] names = new String[0];
+
+    private LongIntHashMap nextIndex = new LongIntHashMap(1024);
+    private String[] nextNames = new String[0];
+    private int nextCount;
+    private boolean recording;
+
+    /**
+     * 开始记录新快照，之后以record=true取得的名称在endSnapshot后成为新的缓存内容
+     * @return 开始记录返回true；其他批次正在记录时返回false，本次不记录
+     */
+    synchronized boolean beginSnapshot() {
+        if (recording) {
+            return false;
+        }
+        nextIndex.clear();
+        nextCount = 0;
+        recording = true;
+        return true;
+    }
+
+    /**
+     * 放弃正在记录的快照，缓存内容保持不变
+     */
+    synchronized void cancelSnapshot() {
+        recording = false;
+    }
+
+    /**
+     * 结束记录并用本次快照替换缓存
+     */
+    synchronized void endSnapshot() {
+        if (!recording) {
+            return;
+        }
+        Arrays.fill(names, null);
+        LongIntHashMap swapIndex = index;
+        index = nextIndex;
+        nextIndex = swapIndex;
+        String[] swap = names;
+        names = nextNames;
+        nextNames = swap;
+        recording = false;
+    }
+
+    /**
+     * 获取进程名，缓存中同一PID的名称与文本相同时复用缓存的String
+     * @param pid 进程ID
+     * @param text 包含进程名的文本
+     * @param start 进程名起始位置（含）
+     * @param end 进程名结束位置（不含）
+     * @param record 是否记录到正在进行的快照，只有调用beginSnapshot成功的批次传入true
+     * @return 进程名
+     */
+    synchronized String get(long pid, CharSequence text, int start, int end, boolean record) {
+        int i = index.get(pid, -1);
+        String name = i >= 0 && contentEquals(names[i], text, start, end)
+                ? names[i]
+                : text.subSequence(start, end).toString();
+        if (record && recording) {
+            if (nextCount == nextNames.length) {
+                nextNames = Arrays.copyOf(nextNames, Math.max(256, nextCount * 2));
+            }
+            nextNames[nextCount] = name;
+            nextIndex.put(pid, nextCount++);
+        }
+        return name;
+    }
+
+    private static boolean contentEquals(String name, CharSequence text, int start, int end) {
+        int length = end - start;
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
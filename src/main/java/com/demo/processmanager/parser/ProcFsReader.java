@@ -0,0 +1,1201 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.CpuUsage;
+import com.demo.processmanager.ProcessDetails;
+import com.demo.processmanager.ProcessField;
+import com.demo.processmanager.ProcessInfo;
+import com.demo.processmanager.ProcessQuery;
+import com.demo.processmanager.ProcessTable;
+import com.demo.processmanager.SystemStats;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Linux /proc文件系统读取器
+ * 直接读取/proc/[pid]/stat、statm、comm获取进程信息，读取/proc/stat、/proc/loadavg获取系统CPU信息，不创建任何子进程
+ *
+ * 设置了并行阈值且进程数达到阈值时，进程列表在ForkJoin线程池中并行读取，每个任务使用独立的读缓冲区，结果按目录顺序合并；
+ * 默认始终顺序读取。
+ *
+ * 该类内部复用读缓冲区，读取方法通过同步保证线程安全；进程流不持有锁，每个分片使用独立的读缓冲区
+ */
+public class ProcFsReader {
+
+    private static final Path PROC_ROOT = Paths.get("/proc");
+
+    // 内核对用户态暴露的时钟频率（USER_HZ），几乎所有Linux发行版均为100
+    private static final long CLOCK_TICKS = Long.getLong("processmanager.clockTicks", 100L);
+
+    // 内存页大小（字节），类加载时从/proc/self检测一次；x86_64固定为4KB，aarch64内核可配置为4KB、16KB或64KB
+    // 系统属性processmanager.pageSize仅用于覆盖检测结果
+    private static final long PAGE_SIZE =
+            Long.getLong("processmanager.pageSize", detectPageSize(PROC_ROOT.resolve("self")));
+
+    // /proc/stat中cpu行使用的前8个字段：user nice system idle iowait irq softirq steal
+    // 之后的guest、guest_nice已经计入user、nice，不再单独统计
+    private static final int CPU_FIELDS = 8;
+
+    // 距上次采样不足该间隔时继续以上次采样为基准，避免时钟节拍增量过小
+    private static final long MIN_CPU_INTERVAL_NANOS = 100_000_000L;
+
+    // 进程流拆分时每批从目录中取出的PID数量的增量和上限
+    private static final int SPLIT_BATCH_UNIT = 128;
+    private static final int MAX_SPLIT_BATCH = 4096;
+
+    // 进程数达到该值时并行读取，低于该值时在调用线程上顺序读取
+    // 并行读取需要显式启用：单核上并行读取比顺序读取更慢，多核上的收益需要按部署环境的基准测试确定
+    private static volatile int parallelThreshold =
+            Integer.getInteger("processmanager.procfs.parallelThreshold", Integer.MAX_VALUE);
+
+    // 并行读取使用的线程池，为null表示始终顺序读取
+    private static volatile ForkJoinPool scanPool = ForkJoinPool.commonPool();
+
+    // 并行读取时每个任务至少处理的进程数，避免任务过小
+    private static final int MIN_SCAN_CHUNK = 64;
+
+    private final Path procRoot;
+    private final FileBuffer buffer = new FileBuffer();
+    private volatile long bootTimeMillis = -1;
+
+    // 上一次采样的/proc/stat cpu行：行对应的核心编号（汇总行为-1）和各字段的累计节拍数
+    private int[] cpuIds = new int[0];
+    private long[] cpuTicks = new long[0];
+    private int cpuRows;
+    private long cpuSampleNanos;
+
+    // 本次采样使用的缓冲区，与上面的数组交替复用
+    private int[] nextCpuIds = new int[0];
+    private long[] nextCpuTicks = new long[0];
+
+    public ProcFsReader() {
+        this(PROC_ROOT);
+    }
+
+    ProcFsReader(Path procRoot) {
+        this.procRoot = procRoot;
+    }
+
+    /**
+     * 判断当前系统是否可以使用/proc文件系统
+     * @return /proc可读返回true
+     */
+    public static boolean isAvailable() {
+        return Files.isReadable(PROC_ROOT.resolve("self").resolve("stat"));
+    }
+
+    /**
+     * 检测内核内存页大小，不创建子进程
+     * 优先读取smaps中第一个映射的KernelPageSize；不可读时用status中的VmRSS除以statm中的常驻页数估算
+     * @param self 当前进程的/proc目录
+     * @return 页大小（字节），无法检测时返回4096
+     */
+    static long detectPageSize(Path self) {
+        try {
+            // 第一个映射的记录位于文件开头，只读取第一块，避免读取完整的smaps
+            ByteBuffer head = ByteBuffer.allocate(4096);
+            try (FileChannel channel = FileChannel.open(self.resolve("smaps"), StandardOpenOption.READ)) {
+                channel.read(head);
+            }
+            long kernelPageKb = findValue(head.array(), head.position(), "KernelPageSize");
+            if (kernelPageKb > 0) {
+                return kernelPageKb * 1024;
+            }
+        } catch (IOException | RuntimeException e) {
+            // smaps不可读（如内核未启用CONFIG_PROC_PAGE_MONITOR），使用下面的估算
+        }
+        try {
+            FileBuffer buffer = new FileBuffer();
+            int len = buffer.read(self.resolve("status"));
+            long rssKb = findValue(buffer.data(), len, "VmRSS");
+            len = buffer.read(self.resolve("statm"));
+            byte[] data = buffer.data();
+            int start = 0;
+            while (start < len && data[start] != ' ') {
+                start++;
+            }
+            int end = ++start;
+            while (end < len && data[end] >= '0' && data[end] <= '9') {
+                end++;
+            }
+            long rssPages = parseLong(data, start, end);
+            if (rssKb > 0 && rssPages > 0) {
+                // 两个文件不是同时读取的，常驻内存可能略有变化，取最接近的2的幂
+                long estimate = rssKb * 1024 / rssPages;
+                long pageSize = Long.highestOneBit(estimate);
+                return estimate - pageSize > pageSize / 2 ? pageSize << 1 : pageSize;
+            }
+        } catch (IOException | RuntimeException e) {
+            // 非Linux系统或/proc不可读
+        }
+        return 4096;
+    }
+
+    /**
+     * 遍历/proc目录获取所有进程列表
+     * @return 进程信息列表
+     * @throws IOException 如果/proc无法读取
+     */
+    public List<ProcessInfo> listProcesses() throws IOException {
+        return listProcesses(ProcessQuery.all());
+    }
+
+    /**
+     * 按条件获取进程列表，指定了PID时只读取对应的目录，不遍历/proc
+     * 需要读取的进程数达到并行阈值且线程池并行度大于1时并行读取
+     * @param query 查询条件
+     * @return 满足条件的进程信息列表
+     * @throws IOException 如果/proc无法读取
+     */
+    public synchronized List<ProcessInfo> listProcesses(ProcessQuery query) throws IOException {
+        double uptimeSeconds = readUptimeSeconds(buffer);
+        long[] pids = query.getPids();
+        if (pids == null) {
+            pids = listPids();
+        }
+
+        ForkJoinPool pool = scanPool;
+        if (pool != null && pool.getParallelism() > 1 && pids.length >= parallelThreshold) {
+            return listInParallel(pool, pids, uptimeSeconds, query);
+        }
+
+        List<ProcessInfo> processes = new ArrayList<>();
+        for (long pid : pids) {
+            ProcessInfo process = readProcess(buffer, pid, uptimeSeconds, query);
+            if (process != null) {
+                processes.add(process);
+            }
+        }
+        return processes;
+    }
+
+    /**
+     * 遍历/proc目录获取所有进程的列式快照
+     * 解析结果直接追加到进程表，不为每个进程创建ProcessInfo；并行读取时每段填充独立的构建器，按PID顺序合并
+     * @return 包含默认字段的进程表
+     * @throws IOException 如果/proc无法读取
+     */
+    public synchronized ProcessTable listProcessTable() throws IOException {
+        double uptimeSeconds = readUptimeSeconds(buffer);
+        long[] pids = listPids();
+        long bootTimeMillis = getBootTimeMillis(buffer);
+
+        ForkJoinPool pool = scanPool;
+        if (pool != null && pool.getParallelism() > 1 && pids.length >= parallelThreshold) {
+            int chunk = chunkSize(pool, pids.length);
+            ProcessTable.Builder[] tables = new ProcessTable.Builder[chunkCount(pids.length, chunk)];
+            pool.invoke(new ScanTask(pids, null, tables, 0, tables.length, chunk, uptimeSeconds, ProcessQuery.all()));
+
+            ProcessTable.Builder builder = ProcessTable.builder(pids.length);
+            for (ProcessTable.Builder table : tables) {
+                builder.addAll(table);
+            }
+            return builder.build();
+        }
+
+        ProcessTable.Builder builder = ProcessTable.builder(pids.length);
+        for (long pid : pids) {
+            appendProcess(buffer, pid, uptimeSeconds, bootTimeMillis, builder);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 读取一个进程的stat、statm、comm文件并追加到进程表
+     * @param buffer 读缓冲区，只在当前线程中使用
+     * @param pid 进程ID
+     * @param uptimeSeconds 系统已运行秒数
+     * @param bootTimeMillis 系统启动时间（epoch毫秒）
+     * @param builder 进程表构建器，进程已退出或文件无法读取时不追加
+     */
+    private void appendProcess(FileBuffer buffer, long pid, double uptimeSeconds, long bootTimeMillis,
+                               ProcessTable.Builder builder) {
+        ProcStat stat = buffer.stat;
+        try {
+            if (!readStat(buffer, pid, uptimeSeconds, ProcessQuery.all(), stat)) {
+                return;
+            }
+        } catch (IOException e) {
+            // 进程在遍历期间已退出，忽略
+            return;
+        }
+        builder.add(pid, stat.name, stat.cpu, stat.memoryBytes, true, stat.cpuTicks * 1000 / CLOCK_TICKS,
+                bootTimeMillis + stat.startTicks * 1000 / CLOCK_TICKS, stat.elapsedMillis)
+                .parentPid(stat.parentPid);
+    }
+
+    /**
+     * 在线程池中并行读取进程，结果保持PID数组的顺序
+     * @param pool ForkJoin线程池
+     * @param pids 需要读取的PID
+     * @param uptimeSeconds 系统已运行秒数
+     * @param query 查询条件
+     * @return 满足条件的进程信息列表
+     * @throws IOException 如果/proc/stat无法读取
+     */
+    private List<ProcessInfo> listInParallel(ForkJoinPool pool, long[] pids, double uptimeSeconds,
+                                             ProcessQuery query) throws IOException {
+        if (query.includes(ProcessField.START_TIME)) {
+            // 启动时间在分发任务之前读取，避免各任务重复读取
+            getBootTimeMillis(buffer);
+        }
+        ProcessInfo[] results = new ProcessInfo[pids.length];
+        int chunk = chunkSize(pool, pids.length);
+        pool.invoke(new ScanTask(pids, results, null, 0, chunkCount(pids.length, chunk), chunk, uptimeSeconds, query));
+
+        List<ProcessInfo> processes = new ArrayList<>(pids.length);
+        for (ProcessInfo process : results) {
+            if (process != null) {
+                processes.add(process);
+            }
+        }
+        return processes;
+    }
+
+    /**
+     * 并行读取时每段的进程数，按并行度的4倍分段以便工作窃取均衡负载
+     */
+    private static int chunkSize(ForkJoinPool pool, int count) {
+        return Math.max(MIN_SCAN_CHUNK, count / (pool.getParallelism() * 4));
+    }
+
+    private static int chunkCount(int count, int chunk) {
+        return (count + chunk - 1) / chunk;
+    }
+
+    /**
+     * 列出/proc下的所有PID
+     * @return 按目录顺序排列的PID
+     * @throws IOException 如果/proc无法读取
+     */
+    private long[] listPids() throws IOException {
+        long[] pids = new long[1024];
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(procRoot)) {
+            for (Path entry : stream) {
+                long pid = parsePid(entry.getFileName().toString());
+                if (pid < 0) {
+                    continue;
+                }
+                if (count == pids.length) {
+                    pids = Arrays.copyOf(pids, count * 2);
+                }
+                pids[count++] = pid;
+            }
+        }
+        return Arrays.copyOf(pids, count);
+    }
+
+    /**
+     * 设置并行读取的进程数阈值
+     * @param threshold 需要读取的进程数达到该值时并行读取，Integer.MAX_VALUE（默认值）表示始终顺序读取
+     */
+    public static void setParallelThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("并行阈值不能小于0: " + threshold);
+        }
+        parallelThreshold = threshold;
+    }
+
+    public static int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * 设置并行读取使用的线程池，默认为ForkJoinPool.commonPool()
+     * @param pool ForkJoin线程池，null表示始终顺序读取
+     */
+    public static void setScanPool(ForkJoinPool pool) {
+        scanPool = pool;
+    }
+
+    public static ForkJoinPool getScanPool() {
+        return scanPool;
+    }
+
+    /**
+     * 以惰性流的形式按条件获取进程
+     * 遍历/proc目录的同时读取进程信息，终止操作提前结束（如findFirst、anyMatch、limit）时不再读取剩余的进程。
+     * 并行流拆分时按批从目录中取出PID，各分片在处理它的线程上读取进程文件。流使用完毕后需要关闭以释放目录句柄
+     * @param query 查询条件
+     * @return 满足条件的进程信息流，遍历过程中/proc目录无法读取时抛出UncheckedIOException
+     * @throws IOException 如果/proc无法读取
+     */
+    public Stream<ProcessInfo> streamProcesses(ProcessQuery query) throws IOException {
+        FileBuffer first = new FileBuffer();
+        double uptimeSeconds = readUptimeSeconds(first);
+
+        long[] pids = query.getPids();
+        if (pids != null) {
+            return StreamSupport.stream(
+                    new ProcessSpliterator(query, uptimeSeconds, first, null, pids, 0, pids.length), false);
+        }
+
+        DirectoryStream<Path> directory = Files.newDirectoryStream(procRoot);
+        ProcessSpliterator spliterator = new ProcessSpliterator(query, uptimeSeconds, first, directory.iterator(),
+                new long[0], 0, 0);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                directory.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * 读取单个进程信息
+     * @param pid 进程ID
+     * @return 进程信息，如果进程不存在返回null
+     * @throws IOException 如果/proc无法读取
+     */
+    public synchronized ProcessInfo getProcessInfo(long pid) throws IOException {
+        return readProcess(buffer, pid, readUptimeSeconds(buffer), ProcessQuery.all());
+    }
+
+    /**
+     * 读取/proc/meminfo并填充系统内存信息
+     * 已用内存按MemTotal - MemAvailable计算；旧内核没有MemAvailable时使用MemFree + Buffers + Cached
+     * @param stats 需要填充的系统状态对象
+     * @throws IOException 如果读取失败
+     */
+    public synchronized void readMemInfo(SystemStats stats) throws IOException {
+        int len = buffer.read(procRoot.resolve("meminfo"));
+        byte[] data = buffer.data();
+
+        long total = 0;
+        long free = 0;
+        long available = -1;
+        long buffers = 0;
+        long cached = 0;
+        long swapTotal = 0;
+        long swapFree = 0;
+
+        int i = 0;
+        while (i < len) {
+            int keyStart = i;
+            while (i < len && data[i] != ':' && data[i] != '\n') {
+                i++;
+            }
+            int keyEnd = i;
+            while (i < len && (data[i] < '0' || data[i] > '9') && data[i] != '\n') {
+                i++;
+            }
+            int valueStart = i;
+            while (i < len && data[i] >= '0' && data[i] <= '9') {
+                i++;
+            }
+            long kb = parseLong(data, valueStart, i);
+            while (i < len && data[i] != '\n') {
+                i++;
+            }
+            i++;
+
+            if (keyEquals(data, keyStart, keyEnd, "MemTotal")) {
+                total = kb;
+            } else if (keyEquals(data, keyStart, keyEnd, "MemFree")) {
+                free = kb;
+            } else if (keyEquals(data, keyStart, keyEnd, "MemAvailable")) {
+                available = kb;
+            } else if (keyEquals(data, keyStart, keyEnd, "Buffers")) {
+                buffers = kb;
+            } else if (keyEquals(data, keyStart, keyEnd, "Cached")) {
+                cached = kb;
+            } else if (keyEquals(data, keyStart, keyEnd, "SwapTotal")) {
+                swapTotal = kb;
+            } else if (keyEquals(data, keyStart, keyEnd, "SwapFree")) {
+                swapFree = kb;
+            }
+        }
+
+        if (available < 0) {
+            available = free + buffers + cached;
+        }
+
+        stats.setTotalMemory(total * 1024);
+        stats.setAvailableMemory(available * 1024);
+        stats.setUsedMemory((total - available) * 1024);
+        stats.setCachedMemory((buffers + cached) * 1024);
+        stats.setSwapTotal(swapTotal * 1024);
+        stats.setSwapUsed((swapTotal - swapFree) * 1024);
+        if (total > 0) {
+            stats.setMemUsage((double) (total - available) * 100 / total);
+        }
+    }
+
+    /**
+     * 读取/proc/stat中的cpu行和/proc/loadavg，填充汇总及每个核心的CPU时间分布、CPU使用率和平均负载
+     * 各项百分比根据与上一次采样之间的节拍增量计算；首次采样或新上线的核心使用开机以来的累计值。
+     * 核心按编号而不是行号对应，CPU热插拔导致行数变化时不会错位
+     * @param stats 需要填充的系统状态对象
+     * @throws IOException 如果读取失败
+     */
+    public synchronized void readCpuStats(SystemStats stats) throws IOException {
+        int len = buffer.read(procRoot.resolve("stat"));
+        byte[] data = buffer.data();
+
+        // cpu行位于文件开头，依次为汇总行"cpu"和各核心"cpuN"
+        int rows = 0;
+        int i = 0;
+        while (i + 3 <= len && data[i] == 'c' && data[i + 1] == 'p' && data[i + 2] == 'u') {
+            i += 3;
+            int idStart = i;
+            while (i < len && data[i] >= '0' && data[i] <= '9') {
+                i++;
+            }
+            if (nextCpuIds.length <= rows) {
+                nextCpuIds = Arrays.copyOf(nextCpuIds, Math.max(16, rows * 2));
+                nextCpuTicks = Arrays.copyOf(nextCpuTicks, nextCpuIds.length * CPU_FIELDS);
+            }
+            nextCpuIds[rows] = i > idStart ? (int) parseLong(data, idStart, i) : -1;
+            int base = rows * CPU_FIELDS;
+            for (int field = 0; field < CPU_FIELDS; field++) {
+                while (i < len && data[i] == ' ') {
+                    i++;
+                }
+                int start = i;
+                while (i < len && data[i] >= '0' && data[i] <= '9') {
+                    i++;
+                }
+                // 旧内核没有steal等字段时按0处理
+                nextCpuTicks[base + field] = parseLong(data, start, i);
+            }
+            while (i < len && data[i] != '\n') {
+                i++;
+            }
+            i++;
+            rows++;
+        }
+        if (rows == 0 || nextCpuIds[0] != -1) {
+            throw new IOException("/proc/stat中没有cpu汇总行");
+        }
+
+        long now = System.nanoTime();
+        boolean hasPrevious = cpuRows > 0;
+        List<CpuUsage> cores = new ArrayList<>(rows - 1);
+        for (int row = 0; row < rows; row++) {
+            CpuUsage usage = toCpuUsage(row, hasPrevious ? findPreviousCpuRow(row) : -1);
+            if (row == 0) {
+                stats.setCpuBreakdown(usage);
+                stats.setCpuUsage(usage.getUsage());
+            } else {
+                cores.add(usage);
+            }
+        }
+        stats.setCoreCpuUsage(Collections.unmodifiableList(cores));
+
+        // 间隔过短时保留原基准，下次采样仍与之比较
+        if (!hasPrevious || now - cpuSampleNanos >= MIN_CPU_INTERVAL_NANOS) {
+            int[] swapIds = cpuIds;
+            cpuIds = nextCpuIds;
+            nextCpuIds = swapIds;
+            long[] swapTicks = cpuTicks;
+            cpuTicks = nextCpuTicks;
+            nextCpuTicks = swapTicks;
+            cpuRows = rows;
+            cpuSampleNanos = now;
+        }
+
+        readLoadAverage(stats);
+    }
+
+    /**
+     * 查找本次采样中某一行在上一次采样中对应的行，核心编号相同视为同一行
+     * @param row 本次采样的行号
+     * @return 上一次采样的行号，核心为新上线时返回-1
+     */
+    private int findPreviousCpuRow(int row) {
+        int id = nextCpuIds[row];
+        if (row < cpuRows && cpuIds[row] == id) {
+            return row;
+        }
+        for (int previous = 0; previous < cpuRows; previous++) {
+            if (cpuIds[previous] == id) {
+                return previous;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 根据节拍增量计算一行的CPU时间分布
+     * @param row 本次采样的行号
+     * @param previous 上一次采样的行号，-1表示使用开机以来的累计值
+     * @return CPU时间分布
+     */
+    private CpuUsage toCpuUsage(int row, int previous) {
+        long[] deltas = new long[CPU_FIELDS];
+        long total = 0;
+        int base = row * CPU_FIELDS;
+        for (int field = 0; field < CPU_FIELDS; field++) {
+            long delta = nextCpuTicks[base + field];
+            if (previous >= 0) {
+                delta -= cpuTicks[previous * CPU_FIELDS + field];
+            }
+            deltas[field] = delta;
+            total += delta;
+        }
+        // 两次采样之间没有节拍增量（或核心离线后计数被重置）时退回开机以来的累计值
+        if (total <= 0 || hasNegative(deltas)) {
+            total = 0;
+            for (int field = 0; field < CPU_FIELDS; field++) {
+                deltas[field] = nextCpuTicks[base + field];
+                total += deltas[field];
+            }
+        }
+
+        CpuUsage usage = new CpuUsage();
+        usage.setCore(nextCpuIds[row]);
+        if (total > 0) {
+            usage.setUser(percent(deltas[0], total));
+            usage.setNice(percent(deltas[1], total));
+            usage.setSystem(percent(deltas[2], total));
+            usage.setIdle(percent(deltas[3], total));
+            usage.setIowait(percent(deltas[4], total));
+            usage.setIrq(percent(deltas[5], total));
+            usage.setSoftirq(percent(deltas[6], total));
+            usage.setSteal(percent(deltas[7], total));
+        }
+        return usage;
+    }
+
+    private static boolean hasNegative(long[] values) {
+        for (long value : values) {
+            if (value < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double percent(long part, long total) {
+        return Math.round(part * 1000.0 / total) / 10.0;
+    }
+
+    /**
+     * 读取/proc/loadavg中的1、5、15分钟平均负载
+     * @param stats 需要填充的系统状态对象
+     * @throws IOException 如果读取失败
+     */
+    private void readLoadAverage(SystemStats stats) throws IOException {
+        int len = buffer.read(procRoot.resolve("loadavg"));
+        byte[] data = buffer.data();
+        double[] values = new double[3];
+        int i = 0;
+        for (int field = 0; field < values.length; field++) {
+            while (i < len && data[i] == ' ') {
+                i++;
+            }
+            int start = i;
+            while (i < len && data[i] != ' ' && data[i] != '\n') {
+                i++;
+            }
+            values[field] = parseDecimal(data, start, i);
+        }
+        stats.setLoadAverage1(values[0]);
+        stats.setLoadAverage5(values[1]);
+        stats.setLoadAverage15(values[2]);
+    }
+
+    /**
+     * 读取/proc/[pid]下的stat、statm、comm文件并组装进程信息
+     * @param buffer 读缓冲区，只在当前线程中使用
+     * @param pid 进程ID
+     * @param uptimeSeconds 系统已运行秒数
+     * @param query 查询条件，只读取条件和投影需要的文件
+     * @return 进程信息，进程已退出、文件无法读取或不满足条件时返回null
+     */
+    private ProcessInfo readProcess(FileBuffer buffer, long pid, double uptimeSeconds, ProcessQuery query) {
+        ProcStat stat = buffer.stat;
+        try {
+            if (!readStat(buffer, pid, uptimeSeconds, query, stat)) {
+                return null;
+            }
+
+            // 启动时间文本在调用方需要时由已运行时长生成
+            ProcessInfo process = new ProcessInfo(pid, query.includes(ProcessField.NAME) ? stat.name : null,
+                    query.includes(ProcessField.CPU) ? stat.cpu : 0, 0, null);
+            if (query.includes(ProcessField.MEMORY)) {
+                process.setMemory(stat.memoryBytes / (1024 * 1024));
+                process.setMemoryBytes(stat.memoryBytes);
+                process.setMemoryExact(true);
+            }
+            if (query.includes(ProcessField.CPU_TIME)) {
+                process.setCpuTimeMillis(stat.cpuTicks * 1000 / CLOCK_TICKS);
+            }
+            if (query.includes(ProcessField.PARENT_PID)) {
+                process.setParentPid(stat.parentPid);
+            }
+            if (query.includes(ProcessField.START_TIME)) {
+                process.setStartTimeMillis(getBootTimeMillis(buffer) + stat.startTicks * 1000 / CLOCK_TICKS);
+                process.setElapsedMillis(stat.elapsedMillis);
+            }
+            if (query.hasExtendedFields()) {
+                ProcessDetails details = new ProcessDetails();
+                if (query.includes(ProcessField.STATE) && stat.state != 0) {
+                    details.setState(String.valueOf((char) stat.state));
+                }
+                if (query.includes(ProcessField.THREADS)) {
+                    details.setThreadCount((int) stat.threads);
+                }
+                if (query.includes(ProcessField.MEMORY_DETAIL)) {
+                    details.setResidentBytes(stat.memoryBytes);
+                    details.setVirtualBytes(stat.virtualBytes);
+                    details.setSharedBytes(stat.sharedBytes);
+                }
+                readDetails(buffer, stat.dir, query, details);
+                process.setDetails(details);
+            }
+            return process;
+
+        } catch (IOException e) {
+            // 进程在遍历期间已退出（NoSuchFileException或ESRCH），忽略
+            return null;
+        }
+    }
+
+    /**
+     * 读取/proc/[pid]下的comm、stat、statm文件，并检查除PID以外的查询条件
+     * @param buffer 读缓冲区，只在当前线程中使用
+     * @param pid 进程ID
+     * @param uptimeSeconds 系统已运行秒数
+     * @param query 查询条件，只读取条件和投影需要的文件
+     * @param stat 解析结果，返回false时内容不完整
+     * @return 满足条件返回true，文件格式不正确或不满足条件时返回false
+     * @throws IOException 如果进程已退出或文件无法读取
+     */
+    private boolean readStat(FileBuffer buffer, long pid, double uptimeSeconds, ProcessQuery query, ProcStat stat)
+            throws IOException {
+        Path dir = procRoot.resolve(Long.toString(pid));
+        stat.dir = dir;
+
+        // comm: 进程名（与ps的comm列一致，最长15个字符），先读取以便尽早排除不匹配的进程
+        stat.name = null;
+        if (query.needs(ProcessField.NAME)) {
+            int len = buffer.read(dir.resolve("comm"));
+            byte[] data = buffer.data();
+            if (len > 0 && data[len - 1] == '\n') {
+                len--;
+            }
+            stat.name = new String(data, 0, len, StandardCharsets.UTF_8);
+            if (!query.matchesName(stat.name)) {
+                return false;
+            }
+        }
+
+        // stat: 取state(3)、ppid(4)、utime(14)、stime(15)、num_threads(20)、starttime(22)
+        int len = buffer.read(dir.resolve("stat"));
+        byte[] data = buffer.data();
+        int pos = lastIndexOf(data, len, (byte) ')');
+        if (pos < 0) {
+            return false;
+        }
+        // ')'之后的第一个字段是第3个字段（state）
+        byte state = 0;
+        long parentPid = -1;
+        long utime = 0;
+        long stime = 0;
+        long threads = -1;
+        long startTicks = 0;
+        int field = 3;
+        int i = pos + 1;
+        while (i < len && field <= 22) {
+            while (i < len && data[i] == ' ') {
+                i++;
+            }
+            int start = i;
+            while (i < len && data[i] != ' ' && data[i] != '\n') {
+                i++;
+            }
+            if (field == 3) {
+                state = i > start ? data[start] : 0;
+            } else if (field == 4) {
+                parentPid = parseLong(data, start, i);
+            } else if (field == 14) {
+                utime = parseLong(data, start, i);
+            } else if (field == 15) {
+                stime = parseLong(data, start, i);
+            } else if (field == 20) {
+                threads = parseLong(data, start, i);
+            } else if (field == 22) {
+                startTicks = parseLong(data, start, i);
+            }
+            field++;
+        }
+        if (field <= 22) {
+            return false;
+        }
+
+        // 与ps的pcpu口径一致：进程生命周期内的平均CPU使用率
+        double elapsedSeconds = uptimeSeconds - (double) startTicks / CLOCK_TICKS;
+        double cpuSeconds = (double) (utime + stime) / CLOCK_TICKS;
+        double cpu = elapsedSeconds > 0 ? Math.round(cpuSeconds * 1000 / elapsedSeconds) / 10.0 : 0.0;
+        if (!query.matchesCpu(cpu)) {
+            return false;
+        }
+
+        // statm: 前3个字段依次为虚拟内存、常驻内存、共享内存的页数
+        long memoryBytes = 0;
+        long virtualBytes = -1;
+        long sharedBytes = -1;
+        if (query.needs(ProcessField.MEMORY) || query.includes(ProcessField.MEMORY_DETAIL)) {
+            len = buffer.read(dir.resolve("statm"));
+            data = buffer.data();
+            i = 0;
+            for (field = 1; field <= 3; field++) {
+                int start = i;
+                while (i < len && data[i] != ' ' && data[i] != '\n') {
+                    i++;
+                }
+                long pages = parseLong(data, start, i);
+                if (field == 1) {
+                    virtualBytes = pages * PAGE_SIZE;
+                } else if (field == 2) {
+                    memoryBytes = pages * PAGE_SIZE;
+                } else {
+                    sharedBytes = pages * PAGE_SIZE;
+                }
+                i++;
+            }
+            if (!query.matchesMemory(memoryBytes)) {
+                return false;
+            }
+        }
+
+        if (query.hasUserFilter() && !query.matchesUser(Files.getOwner(dir).getName())) {
+            return false;
+        }
+
+        stat.state = state;
+        stat.parentPid = parentPid;
+        stat.cpuTicks = utime + stime;
+        stat.threads = threads;
+        stat.startTicks = startTicks;
+        stat.cpu = cpu;
+        stat.elapsedMillis = (long) (Math.max(elapsedSeconds, 0) * 1000);
+        stat.memoryBytes = memoryBytes;
+        stat.virtualBytes = virtualBytes;
+        stat.sharedBytes = sharedBytes;
+        return true;
+    }
+
+    /**
+     * 读取需要单独文件的扩展指标：io、status中的上下文切换次数、fd目录
+     * io和fd只有有权限跟踪该进程时才能读取，无权限时对应指标保持为-1
+     * @param buffer 读缓冲区
+     * @param dir /proc/[pid]目录
+     * @param query 查询条件
+     * @param details 需要填充的扩展指标
+     * @throws IOException 如果status无法读取（进程已退出）
+     */
+    private void readDetails(FileBuffer buffer, Path dir, ProcessQuery query, ProcessDetails details)
+            throws IOException {
+        if (query.includes(ProcessField.IO)) {
+            try {
+                int len = buffer.read(dir.resolve("io"));
+                details.setReadBytes(findValue(buffer.data(), len, "read_bytes"));
+                details.setWriteBytes(findValue(buffer.data(), len, "write_bytes"));
+            } catch (IOException e) {
+                // 无权限读取其他进程的io（打开成功但读取时返回EACCES）
+            }
+        }
+        if (query.includes(ProcessField.CONTEXT_SWITCHES)) {
+            int len = buffer.read(dir.resolve("status"));
+            details.setVoluntaryContextSwitches(findValue(buffer.data(), len, "voluntary_ctxt_switches"));
+            details.setInvoluntaryContextSwitches(findValue(buffer.data(), len, "nonvoluntary_ctxt_switches"));
+        }
+        if (query.includes(ProcessField.FILE_DESCRIPTORS)) {
+            int count = 0;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir.resolve("fd"))) {
+                for (Path ignored : stream) {
+                    count++;
+                }
+                details.setFileDescriptorCount(count);
+            } catch (IOException e) {
+                // 无权限列出其他进程的fd
+            }
+        }
+    }
+
+    /**
+     * 在"键: 值"格式的文件内容中查找指定键的数值
+     * @param data 文件内容
+     * @param len 内容长度
+     * @param key 键
+     * @return 数值，键不存在时返回-1
+     */
+    private static long findValue(byte[] data, int len, String key) {
+        int i = 0;
+        while (i < len) {
+            int keyStart = i;
+            while (i < len && data[i] != ':' && data[i] != '\n') {
+                i++;
+            }
+            int keyEnd = i;
+            while (i < len && (data[i] < '0' || data[i] > '9') && data[i] != '\n') {
+                i++;
+            }
+            int valueStart = i;
+            while (i < len && data[i] >= '0' && data[i] <= '9') {
+                i++;
+            }
+            if (keyEquals(data, keyStart, keyEnd, key)) {
+                return parseLong(data, valueStart, i);
+            }
+            while (i < len && data[i] != '\n') {
+                i++;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * 读取/proc/uptime中的系统运行时间
+     * @param buffer 读缓冲区
+     * @return 系统已运行秒数
+     * @throws IOException 如果读取失败
+     */
+    private double readUptimeSeconds(FileBuffer buffer) throws IOException {
+        int len = buffer.read(procRoot.resolve("uptime"));
+        byte[] data = buffer.data();
+        int end = 0;
+        while (end < len && data[end] != ' ') {
+            end++;
+        }
+        return Double.parseDouble(new String(data, 0, end, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 读取/proc/stat中的btime（系统启动时间），启动时间不会变化，只读取一次；
+     * 并发读取时可能重复读取，结果相同
+     * @param buffer 读缓冲区
+     * @return 系统启动时间（epoch毫秒）
+     * @throws IOException 如果读取失败
+     */
+    private long getBootTimeMillis(FileBuffer buffer) throws IOException {
+        if (bootTimeMillis < 0) {
+            int len = buffer.read(procRoot.resolve("stat"));
+            byte[] data = buffer.data();
+            String content = new String(data, 0, len, StandardCharsets.US_ASCII);
+            int pos = content.indexOf("\nbtime ");
+            if (pos < 0) {
+                throw new IOException("/proc/stat中没有btime字段");
+            }
+            int start = pos + "\nbtime ".length();
+            int end = content.indexOf('\n', start);
+            bootTimeMillis = Long.parseLong(content.substring(start, end < 0 ? len : end).trim()) * 1000;
+        }
+        return bootTimeMillis;
+    }
+
+    /**
+     * 将目录名解析为PID
+     * @param name 目录名
+     * @return PID，非数字目录返回-1
+     */
+    private static long parsePid(String name) {
+        if (name.isEmpty()) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static long parseLong(byte[] data, int start, int end) {
+        long value = 0;
+        boolean negative = false;
+        int i = start;
+        if (i < end && data[i] == '-') {
+            negative = true;
+            i++;
+        }
+        for (; i < end; i++) {
+            value = value * 10 + (data[i] - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * 解析/proc/loadavg中形如"0.52"的非负小数
+     */
+    private static double parseDecimal(byte[] data, int start, int end) {
+        long mantissa = 0;
+        long scale = 1;
+        boolean fraction = false;
+        for (int i = start; i < end; i++) {
+            byte b = data[i];
+            if (b == '.') {
+                fraction = true;
+            } else if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) {
+                    scale *= 10;
+                }
+            }
+        }
+        return (double) mantissa / scale;
+    }
+
+    private static boolean keyEquals(byte[] data, int start, int end, String key) {
+        if (end - start != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (data[start + i] != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int lastIndexOf(byte[] data, int len, byte b) {
+        for (int i = len - 1; i >= 0; i--) {
+            if (data[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 可扩容的文件读缓冲区，在多次读取之间复用；非线程安全，每个读取线程使用独立的实例
+     */
+    private static final class FileBuffer {
+        private ByteBuffer buffer = ByteBuffer.allocate(4096);
+        // 最近一次readStat的解析结果，与缓冲区一起复用
+        final ProcStat stat = new ProcStat();
+
+        /**
+         * 将文件完整读入缓冲区
+         * @param path 文件路径
+         * @return 读取的字节数
+         * @throws IOException 如果读取失败
+         */
+        int read(Path path) throws IOException {
+            buffer.clear();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                while (channel.read(buffer) > 0) {
+                    if (!buffer.hasRemaining()) {
+                        // /proc文件大小未知，缓冲区写满时扩容继续读
+                        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                        buffer.flip();
+                        larger.put(buffer);
+                        buffer = larger;
+                    }
+                }
+            }
+            return buffer.position();
+        }
+
+        /**
+         * 缓冲区内容，有效长度为上一次read的返回值
+         */
+        byte[] data() {
+            return buffer.array();
+        }
+    }
+
+    /**
+     * 一个进程的comm、stat、statm解析结果
+     */
+    private static final class ProcStat {
+        Path dir;
+        String name;
+        byte state;
+        long parentPid;
+        long cpuTicks;      // utime + stime
+        long threads;
+        long startTicks;
+        double cpu;
+        long elapsedMillis;
+        long memoryBytes;
+        long virtualBytes;
+        long sharedBytes;
+    }
+
+    /**
+     * /proc进程分片
+     * PID来自尚未遍历完的目录或一段PID数组；拆分时从目录中按批取出PID（批大小逐次增加）或将数组对半分，
+     * 进程文件在tryAdvance中读取，因此读取工作分布在处理各分片的线程上
+     */
+    private final class ProcessSpliterator implements Spliterator<ProcessInfo> {
+        private final ProcessQuery query;
+        private final double uptimeSeconds;
+        private FileBuffer buffer;
+        private Iterator<Path> directory;   // 为null表示目录已遍历完或只处理PID数组
+        private final long[] pids;
+        private int index;
+        private final int fence;
+        private int batch;
+
+        ProcessSpliterator(ProcessQuery query, double uptimeSeconds, FileBuffer buffer, Iterator<Path> directory,
+                           long[] pids, int index, int fence) {
+            this.query = query;
+            this.uptimeSeconds = uptimeSeconds;
+            this.buffer = buffer;
+            this.directory = directory;
+            this.pids = pids;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ProcessInfo> action) {
+            if (buffer == null) {
+                buffer = new FileBuffer();
+            }
+            long pid;
+            while ((pid = nextPid()) >= 0) {
+                ProcessInfo process = readProcess(buffer, pid, uptimeSeconds, query);
+                if (process != null) {
+                    action.accept(process);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<ProcessInfo> trySplit() {
+            if (index < fence) {
+                int mid = (index + fence) >>> 1;
+                if (mid == index) {
+                    return null;
+                }
+                ProcessSpliterator prefix = new ProcessSpliterator(query, uptimeSeconds, null, null, pids, index, mid);
+                index = mid;
+                return prefix;
+            }
+            if (directory == null) {
+                return null;
+            }
+            batch = Math.min(batch + SPLIT_BATCH_UNIT, MAX_SPLIT_BATCH);
+            long[] taken = new long[batch];
+            int count = 0;
+            long pid;
+            while (count < taken.length && (pid = nextDirectoryPid()) >= 0) {
+                taken[count++] = pid;
+            }
+            return count == 0 ? null : new ProcessSpliterator(query, uptimeSeconds, null, null, taken, 0, count);
+        }
+
+        @Override
+        public long estimateSize() {
+            return directory != null ? Long.MAX_VALUE : fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+
+        private long nextPid() {
+            return index < fence ? pids[index++] : nextDirectoryPid();
+        }
+
+        /**
+         * 从目录中取出下一个PID
+         * @return PID，目录遍历完毕返回-1
+         */
+        private long nextDirectoryPid() {
+            if (directory == null) {
+                return -1;
+            }
+            try {
+                while (directory.hasNext()) {
+                    long pid = parsePid(directory.next().getFileName().toString());
+                    if (pid >= 0) {
+                        return pid;
+                    }
+                }
+            } catch (DirectoryIteratorException e) {
+                throw new UncheckedIOException(e.getCause());
+            }
+            directory = null;
+            return -1;
+        }
+    }
+
+    /**
+     * 并行读取若干段PID的任务，包含多段时对半拆分；每个叶子任务读取一段并使用独立的读缓冲区
+     * 读取进程信息时结果写入各自的PID下标，读取进程表时每段填充一个独立的构建器
+     * 任务只在线程池中使用，不会被序列化
+     */
+    @SuppressWarnings("serial")
+    private final class ScanTask extends RecursiveAction {
+        private final long[] pids;
+        private final ProcessInfo[] results;
+        private final ProcessTable.Builder[] tables;
+        private final int startChunk;
+        private final int endChunk;
+        private final int chunk;
+        private final double uptimeSeconds;
+        private final ProcessQuery query;
+
+        ScanTask(long[] pids, ProcessInfo[] results, ProcessTable.Builder[] tables, int startChunk, int endChunk,
+                 int chunk, double uptimeSeconds, ProcessQuery query) {
+            this.pids = pids;
+            this.results = results;
+            this.tables = tables;
+            this.startChunk = startChunk;
+            this.endChunk = endChunk;
+            this.chunk = chunk;
+            this.uptimeSeconds = uptimeSeconds;
+            this.query = query;
+        }
+
+        @Override
+        protected void compute() {
+            if (endChunk - startChunk == 1) {
+                int start = startChunk * chunk;
+                int end = Math.min(pids.length, start + chunk);
+                FileBuffer local = new FileBuffer();
+                if (tables != null) {
+                    // 启动时间已在分发任务之前读取
+                    long boot = bootTimeMillis;
+                    ProcessTable.Builder builder = ProcessTable.builder(end - start);
+                    for (int i = start; i < end; i++) {
+                        appendProcess(local, pids[i], uptimeSeconds, boot, builder);
+                    }
+                    tables[startChunk] = builder;
+                } else {
+                    for (int i = start; i < end; i++) {
+                        results[i] = readProcess(local, pids[i], uptimeSeconds, query);
+                    }
+                }
+                return;
+            }
+            int mid = (startChunk + endChunk) >>> 1;
+            invokeAll(new ScanTask(pids, results, tables, startChunk, mid, chunk, uptimeSeconds, query),
+                    new ScanTask(pids, results, tables, mid, endChunk, chunk, uptimeSeconds, query));
+        }
+    }
+}
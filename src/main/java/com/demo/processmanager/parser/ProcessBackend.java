@@ -0,0 +1,77 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.ProcessInfo;
+import com.demo.processmanager.ProcessQuery;
+import com.demo.processmanager.ProcessTable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 平台进程信息后端接口
+ * 由ProcessManager在构造时选定并在其生命周期内复用，实现类可以在多次调用之间保留缓存等状态
+ *
+ * 实现类需要保证线程安全
+ */
+public interface ProcessBackend {
+
+    /**
+     * 获取所有进程列表
+     * @return 进程信息列表
+     * @throws IOException 如果获取进程信息失败
+     */
+    List<ProcessInfo> listProcesses() throws IOException;
+    
+    /**
+     * 按条件获取进程列表
+     * 默认实现获取全部进程后再过滤，实现类应尽量在解析时过滤，并将条件下推到操作系统调用中
+     * @param query 查询条件
+     * @return 满足条件的进程信息列表
+     * @throws IOException 如果获取进程信息失败
+     */
+    default List<ProcessInfo> listProcesses(ProcessQuery query) throws IOException {
+        List<ProcessInfo> processes = listProcesses();
+        if (query.isUnfiltered()) {
+            return processes;
+        }
+        List<ProcessInfo> result = new ArrayList<>();
+        for (ProcessInfo process : processes) {
+            if (query.matches(process)) {
+                result.add(process);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 按条件获取进程流
+     * 默认实现返回listProcesses(query)结果的流；实现类可以在遍历进程的同时生成元素，
+     * 终止操作提前结束时不再读取剩余的进程。流使用完毕后需要关闭
+     * @param query 查询条件
+     * @return 满足条件的进程信息流
+     * @throws IOException 如果获取进程信息失败
+     */
+    default Stream<ProcessInfo> streamProcesses(ProcessQuery query) throws IOException {
+        return listProcesses(query).stream();
+    }
+    
+    /**
+     * 获取所有进程的列式快照
+     * 默认实现由listProcesses()的结果转换，实现类可以直接填充进程表以避免创建中间对象
+     * @return 进程表
+     * @throws IOException 如果获取进程信息失败
+     */
+    default ProcessTable listProcessTable() throws IOException {
+        return ProcessTable.of(listProcesses());
+    }
+
+    /**
+     * 根据PID获取特定进程信息
+     * @param pid 进程ID
+     * @return 进程信息，如果进程不存在返回null
+     * @throws IOException 如果获取进程信息失败
+     */
+    ProcessInfo getProcessInfo(long pid) throws IOException;
+}
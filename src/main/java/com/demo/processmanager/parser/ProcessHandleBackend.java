@@ -0,0 +1,237 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.ProcessField;
+import com.demo.processmanager.ProcessInfo;
+import com.demo.processmanager.ProcessQuery;
+import com.demo.processmanager.ProcessTable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 基于java.lang.ProcessHandle的进程信息后端
+ * 通过JDK的本地实现直接枚举进程，获取PID、父进程、命令、所有者、启动时间和累计CPU时间，不创建子进程；
+ * ProcessHandle无法提供CPU使用率、内存和扩展指标，需要这些字段的查询交给平台解析器处理。
+ *
+ * 部分平台上无法读取其他用户进程的命令（macOS、Windows的受保护进程），
+ * 这些进程的进程名由平台解析器按PID批量补充
+ */
+public class ProcessHandleBackend implements ProcessBackend {
+
+    // ProcessHandle能够提供的字段
+    private static final Set<ProcessField> SUPPORTED_FIELDS = EnumSet.of(
+            ProcessField.NAME, ProcessField.START_TIME, ProcessField.CPU_TIME, ProcessField.PARENT_PID);
+
+    private final ProcessBackend platform;
+    private final boolean fullCommandName;
+
+    /**
+     * @param platform 平台解析器，用于ProcessHandle无法提供的字段
+     * @param fullCommandName 进程名是否使用命令的完整路径，需要与平台解析器的进程名一致：
+     *                        macOS的ps comm列为完整路径，Windows的wmic Name列只有文件名
+     */
+    public ProcessHandleBackend(ProcessBackend platform, boolean fullCommandName) {
+        this.platform = platform;
+        this.fullCommandName = fullCommandName;
+    }
+
+    /**
+     * 判断查询需要的字段是否都能由ProcessHandle提供
+     * @param query 查询条件
+     * @return 不需要CPU使用率、内存和扩展字段时返回true
+     */
+    public static boolean supports(ProcessQuery query) {
+        for (ProcessField field : ProcessField.values()) {
+            if (!SUPPORTED_FIELDS.contains(field) && query.needs(field)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取所有进程列表，默认字段包含内存，由平台解析器获取
+     */
+    @Override
+    public List<ProcessInfo> listProcesses() throws IOException {
+        return platform.listProcesses();
+    }
+
+    /**
+     * 按条件获取进程列表
+     * ProcessHandle能够提供全部所需字段时直接枚举，否则交给平台解析器
+     * @param query 查询条件
+     * @return 满足条件的进程信息列表
+     * @throws IOException 如果获取进程信息失败
+     */
+    @Override
+    public List<ProcessInfo> listProcesses(ProcessQuery query) throws IOException {
+        if (!supports(query)) {
+            return platform.listProcesses(query);
+        }
+        List<ProcessInfo> processes;
+        try {
+            processes = listWithHandles(query);
+        } catch (UnsupportedOperationException | SecurityException e) {
+            // 平台不支持枚举进程或被安全策略禁止
+            return platform.listProcesses(query);
+        }
+        return processes;
+    }
+
+    /**
+     * 按条件获取进程流
+     * ProcessHandle枚举后需要批量补充进程名，因此返回完整结果的流；其他查询交给平台解析器按需读取
+     */
+    @Override
+    public Stream<ProcessInfo> streamProcesses(ProcessQuery query) throws IOException {
+        if (!supports(query)) {
+            return platform.streamProcesses(query);
+        }
+        return listProcesses(query).stream();
+    }
+
+    @Override
+    public ProcessTable listProcessTable() throws IOException {
+        return platform.listProcessTable();
+    }
+
+    @Override
+    public ProcessInfo getProcessInfo(long pid) throws IOException {
+        return platform.getProcessInfo(pid);
+    }
+
+    /**
+     * 通过ProcessHandle枚举进程，命令不可读的进程由平台解析器补充进程名
+     * @param query 查询条件
+     * @return 满足条件的进程信息列表
+     * @throws IOException 如果补充进程名失败
+     */
+    private List<ProcessInfo> listWithHandles(ProcessQuery query) throws IOException {
+        List<ProcessInfo> processes = new ArrayList<>();
+        // 需要进程名但命令不可读的进程，稍后按PID批量查询
+        List<ProcessInfo> unnamed = new ArrayList<>();
+        boolean needsName = query.needs(ProcessField.NAME);
+        long now = System.currentTimeMillis();
+
+        try (Stream<ProcessHandle> handles = handles(query)) {
+            handles.forEach(handle -> {
+                long pid = handle.pid();
+                if (!query.matchesPid(pid)) {
+                    return;
+                }
+                ProcessHandle.Info info = handle.info();
+                if (query.hasUserFilter() && !query.matchesUser(info.user().orElse(null))) {
+                    return;
+                }
+                String name = null;
+                if (needsName) {
+                    name = info.command().map(command -> fullCommandName ? command : baseName(command)).orElse(null);
+                    if (name != null && !query.matchesName(name)) {
+                        return;
+                    }
+                }
+
+                ProcessInfo process = new ProcessInfo(pid, query.includes(ProcessField.NAME) ? name : null, 0, 0, null);
+                if (query.includes(ProcessField.START_TIME)) {
+                    Optional<Instant> start = info.startInstant();
+                    if (start.isPresent()) {
+                        long startTimeMillis = start.get().toEpochMilli();
+                        process.setStartTimeMillis(startTimeMillis);
+                        process.setElapsedMillis(Math.max(now - startTimeMillis, 0));
+                    }
+                }
+                if (query.includes(ProcessField.CPU_TIME)) {
+                    process.setCpuTimeMillis(info.totalCpuDuration().map(Duration::toMillis).orElse(-1L));
+                }
+                if (query.includes(ProcessField.PARENT_PID)) {
+                    process.setParentPid(handle.parent().map(ProcessHandle::pid).orElse(-1L));
+                }
+                processes.add(process);
+                if (needsName && name == null) {
+                    unnamed.add(process);
+                }
+            });
+        }
+
+        if (!unnamed.isEmpty()) {
+            Map<Long, String> names = queryNames(unnamed, query);
+            // 平台解析器没有返回的进程已退出或进程名不满足条件
+            Set<Long> dropped = new HashSet<>();
+            for (ProcessInfo process : unnamed) {
+                String name = names.get(process.getPid());
+                if (name == null) {
+                    dropped.add(process.getPid());
+                } else if (query.includes(ProcessField.NAME)) {
+                    process.setName(name);
+                }
+            }
+            if (!dropped.isEmpty()) {
+                processes.removeIf(process -> dropped.contains(process.getPid()));
+            }
+        }
+        return processes;
+    }
+
+    /**
+     * 获取需要遍历的进程句柄，指定了PID时只查找这些进程
+     */
+    private static Stream<ProcessHandle> handles(ProcessQuery query) {
+        long[] pids = query.getPids();
+        if (pids == null) {
+            return ProcessHandle.allProcesses();
+        }
+        List<ProcessHandle> handles = new ArrayList<>(pids.length);
+        for (long pid : pids) {
+            ProcessHandle.of(pid).ifPresent(handles::add);
+        }
+        return handles.stream();
+    }
+
+    /**
+     * 通过平台解析器按PID批量查询进程名，进程名条件同样交给平台解析器检查
+     * @param unnamed 需要补充进程名的进程
+     * @param query 原始查询条件
+     * @return 满足进程名条件的进程的PID到进程名的映射
+     * @throws IOException 如果平台解析器执行失败
+     */
+    private Map<Long, String> queryNames(List<ProcessInfo> unnamed, ProcessQuery query) throws IOException {
+        long[] pids = new long[unnamed.size()];
+        for (int i = 0; i < pids.length; i++) {
+            pids[i] = unnamed.get(i).getPid();
+        }
+        ProcessQuery.Builder builder = ProcessQuery.builder()
+                .pids(pids)
+                .name(query.getName())
+                .fields(ProcessField.NAME);
+        if (query.getNamePattern() != null) {
+            builder.nameMatches(query.getNamePattern());
+        }
+
+        Map<Long, String> names = new HashMap<>(pids.length * 2);
+        for (ProcessInfo process : platform.listProcesses(builder.build())) {
+            names.put(process.getPid(), process.getName());
+        }
+        return names;
+    }
+
+    /**
+     * 从命令路径中取出可执行文件名
+     * @param command 可执行文件的完整路径
+     * @return 文件名
+     */
+    static String baseName(String command) {
+        int separator = Math.max(command.lastIndexOf('/'), command.lastIndexOf('\\'));
+        return command.substring(separator + 1);
+    }
+}
@@ -0,0 +1,463 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.ProcessDetails;
+import com.demo.processmanager.ProcessField;
+import com.demo.processmanager.ProcessInfo;
+import com.demo.processmanager.ProcessQuery;
+import com.demo.processmanager.ProcessTable;
+import com.demo.processmanager.utils.CommandExecutor;
+import com.demo.processmanager.utils.CommandOutput;
+import com.demo.processmanager.utils.LineConsumer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * ps输出行解析器，Linux和macOS共用
+ * 列顺序为pid,ppid,pcpu,pmem,rss,etime,time,comm，请求扩展字段时在comm之前增加vsz,state[,nlwp]；
+ * 数值列在原始行上直接解析，只有进程名（及请求的进程状态）会创建String，进程名按PID缓存复用。
+ * 每次解析使用独立的分词器，可以在多个线程中同时执行
+ */
+final class PsLineParser {
+
+    private final NameCache nameCache = new NameCache();
+    private final TotalMemoryCache totalMemory;
+    private final boolean threadColumn;
+
+    /**
+     * @param totalMemory 系统总内存缓存，rss不可用时用于按百分比估算内存
+     * @param threadColumn ps是否支持nlwp（线程数）列，macOS不支持
+     */
+    PsLineParser(TotalMemoryCache totalMemory, boolean threadColumn) {
+        this.totalMemory = totalMemory;
+        this.threadColumn = threadColumn;
+    }
+
+    /**
+     * 获取查询对应的ps -o列参数
+     * @param query 查询条件
+     * @return 列参数
+     */
+    String columns(ProcessQuery query) {
+        if (!hasExtendedColumns(query)) {
+            return "pid,ppid,pcpu,pmem,rss,etime,time,comm";
+        }
+        return threadColumn ? "pid,ppid,pcpu,pmem,rss,etime,time,vsz,state,nlwp,comm" : "pid,ppid,pcpu,pmem,rss,etime,time,vsz,state,comm";
+    }
+
+    /**
+     * ps只能提供状态、线程数和虚拟内存这几项扩展指标
+     */
+    private static boolean hasExtendedColumns(ProcessQuery query) {
+        return query.includes(ProcessField.STATE) || query.includes(ProcessField.THREADS)
+                || query.includes(ProcessField.MEMORY_DETAIL);
+    }
+
+    /**
+     * 将PID列表拼接为ps -p参数格式：a,b,c
+     * @param pids PID数组
+     * @return 逗号分隔的PID
+     */
+    static String joinPids(long[] pids) {
+        StringBuilder builder = new StringBuilder(pids.length * 8);
+        for (int i = 0; i < pids.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(pids[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 判断文本能否不加引号直接作为shell参数
+     * @param value 文本
+     * @return 只包含字母、数字和._@+-时返回true
+     */
+    static boolean isShellSafe(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9')
+                    && c != '.' && c != '_' && c != '@' && c != '+' && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 执行ps命令，在读取输出的同时逐行解析并按条件过滤，不保存完整的命令输出
+     * 指定了PID条件时，所有PID都已找到后停止读取
+     * @param command ps命令，输出不含标题行
+     * @param query 查询条件
+     * @param checkUser 是否需要逐个检查进程所有者（用户条件未下推到ps命令时）
+     * @return 满足条件的进程信息列表，无法解析的行被忽略
+     * @throws IOException 如果命令执行失败
+     */
+    List<ProcessInfo> execute(String command, ProcessQuery query, boolean checkUser) throws IOException {
+        Batch batch = new Batch(query, checkUser, 256);
+        boolean completed = false;
+        try {
+            CommandExecutor.executeCommand(command, batch);
+            completed = true;
+        } finally {
+            batch.finish(completed);
+        }
+        return batch.processes;
+    }
+
+    /**
+     * 执行列出所有进程的ps命令，将输出逐行解析后直接追加到列式进程表，不为每个进程创建ProcessInfo
+     * @param command ps命令，列为columns(ProcessQuery.all())，输出不含标题行
+     * @return 包含默认字段的进程表，无法解析的行被忽略
+     * @throws IOException 如果命令执行失败
+     */
+    ProcessTable executeTable(String command) throws IOException {
+        Batch batch = new Batch(ProcessQuery.all(), false, 256, ProcessTable.builder(256));
+        boolean completed = false;
+        try {
+            CommandExecutor.executeCommand(command, batch);
+            completed = true;
+        } finally {
+            batch.finish(completed);
+        }
+        return batch.table.build();
+    }
+
+    /**
+     * 启动ps命令并返回按需解析输出的流
+     * 每次从流中取元素时才读取并解析下一行，终止操作提前结束或关闭流时终止ps命令；流的结果不更新进程名缓存
+     * @param command ps命令，输出不含标题行
+     * @param query 查询条件
+     * @param checkUser 是否需要逐个检查进程所有者（用户条件未下推到ps命令时）
+     * @return 满足条件的进程信息流，读取失败时抛出UncheckedIOException
+     * @throws IOException 如果命令无法启动
+     */
+    Stream<ProcessInfo> stream(String command, ProcessQuery query, boolean checkUser) throws IOException {
+        CommandOutput output = CommandExecutor.openCommand(command);
+        return StreamSupport.stream(new OutputSpliterator(output, query, checkUser), false).onClose(output::close);
+    }
+
+    /**
+     * 解析完整的ps输出，并用本次结果更新进程名缓存
+     * @param lines ps命令输出（不含标题行）
+     * @return 进程信息列表，无法解析的行被忽略
+     */
+    List<ProcessInfo> parseLines(List<? extends CharSequence> lines) {
+        return parseLines(lines, ProcessQuery.all(), false);
+    }
+
+    /**
+     * 解析ps输出，在创建ProcessInfo之前按条件过滤
+     * 只有不带过滤条件的解析结果会更新进程名缓存
+     * @param lines ps命令输出（不含标题行）
+     * @param query 查询条件
+     * @param checkUser 是否需要逐个检查进程所有者（用户条件未下推到ps命令时）
+     * @return 满足条件的进程信息列表，无法解析的行被忽略
+     */
+    List<ProcessInfo> parseLines(List<? extends CharSequence> lines, ProcessQuery query, boolean checkUser) {
+        Batch batch = new Batch(query, checkUser, lines.size());
+        try {
+            for (CharSequence line : lines) {
+                if (!batch.accept(line)) {
+                    break;
+                }
+            }
+        } finally {
+            batch.finish(true);
+        }
+        return batch.processes;
+    }
+
+    /**
+     * 解析单行进程信息
+     * @param line ps命令输出的一行
+     * @return 解析后的ProcessInfo对象，解析失败返回null
+     */
+    ProcessInfo parseLine(CharSequence line) {
+        return parse(new LineTokenizer(), new Row(), line, System.currentTimeMillis(), ProcessQuery.all(), false, false);
+    }
+
+    private ProcessInfo parse(LineTokenizer tokenizer, Row row, CharSequence line, long now, ProcessQuery query,
+                              boolean checkUser, boolean recordName) {
+        if (!parseRow(tokenizer, row, line, query, checkUser, recordName)) {
+            return null;
+        }
+
+        // 启动时间文本在调用方需要时由已运行时长生成
+        ProcessInfo process = new ProcessInfo(row.pid, row.name, query.includes(ProcessField.CPU) ? row.cpu : 0, 0, null);
+        // etime为已运行时长，time为累计CPU时间
+        if (row.elapsedMillis >= 0) {
+            process.setElapsedMillis(row.elapsedMillis);
+            process.setStartTimeMillis(now - row.elapsedMillis);
+        }
+        process.setCpuTimeMillis(row.cpuTimeMillis);
+        if (query.includes(ProcessField.PARENT_PID)) {
+            process.setParentPid(row.parentPid);
+        }
+        if (query.includes(ProcessField.MEMORY)) {
+            process.setMemory(row.memoryBytes / (1024 * 1024));
+            process.setMemoryBytes(row.memoryBytes);
+            process.setMemoryExact(row.memoryExact);
+        }
+        process.setDetails(row.details);
+        return process;
+    }
+
+    /**
+     * 解析一行ps输出并检查查询条件
+     * @param tokenizer 分词器
+     * @param row 解析结果，返回false时内容不完整
+     * @param line ps命令输出的一行
+     * @param query 查询条件
+     * @param checkUser 是否需要检查进程所有者
+     * @param recordName 是否将进程名记录到本次快照
+     * @return 解析成功且满足条件返回true
+     */
+    private boolean parseRow(LineTokenizer tokenizer, Row row, CharSequence line, ProcessQuery query,
+                             boolean checkUser, boolean recordName) {
+        LineTokenizer t = tokenizer.reset(line);
+        try {
+            if (!t.next()) {
+                return false;
+            }
+            long pid = t.parseLong();
+            if (!query.matchesPid(pid) || !t.next()) {
+                return false;
+            }
+            long parentPid = t.parseLong();
+            if (!t.next()) {
+                return false;
+            }
+            double cpu = t.parseDouble();
+            if (!query.matchesCpu(cpu) || !t.next()) {
+                return false;
+            }
+            double memoryPercent = t.parseDouble();
+            if (!t.next()) {
+                return false;
+            }
+            // rss列为操作系统报告的常驻内存（KB），不可用时为"-"
+            long rssKB = t.isLong() ? t.parseLong() : -1;
+            long memoryBytes = 0;
+            if (query.needs(ProcessField.MEMORY)) {
+                // rss不可用时将内存百分比转换为MB（估算值），只在需要内存时执行
+                memoryBytes = rssKB >= 0 ? rssKB * 1024 : totalMemory.estimateMemoryMB(memoryPercent) * 1024 * 1024;
+                if (!query.matchesMemory(memoryBytes)) {
+                    return false;
+                }
+            }
+            if (!t.next()) {
+                return false;
+            }
+            long elapsedMillis = query.needs(ProcessField.START_TIME) ? t.parseMillis() : -1;
+            if (!t.next()) {
+                return false;
+            }
+            long cpuTimeMillis = query.needs(ProcessField.CPU_TIME) ? t.parseMillis() : -1;
+            ProcessDetails details = null;
+            if (query.hasExtendedFields()) {
+                details = new ProcessDetails();
+                if (hasExtendedColumns(query) && !parseExtendedColumns(t, query, details)) {
+                    return false;
+                }
+                if (query.includes(ProcessField.MEMORY_DETAIL) && rssKB >= 0) {
+                    details.setResidentBytes(rssKB * 1024);
+                }
+            }
+            // 进程名可能包含空格，取剩余的全部内容
+            if (!t.rest() || !query.matchesName(line, t.tokenStart(), t.tokenEnd())) {
+                return false;
+            }
+            if (checkUser && !query.matchesUser(pid)) {
+                return false;
+            }
+
+            row.pid = pid;
+            row.parentPid = parentPid;
+            row.cpu = cpu;
+            row.memoryBytes = memoryBytes;
+            row.memoryExact = rssKB >= 0;
+            row.elapsedMillis = elapsedMillis;
+            row.cpuTimeMillis = cpuTimeMillis;
+            row.details = details;
+            row.name = query.includes(ProcessField.NAME)
+                    ? nameCache.get(pid, line, t.tokenStart(), t.tokenEnd(), recordName)
+                    : null;
+            return true;
+        } catch (NumberFormatException e) {
+            // 忽略解析错误
+            return false;
+        }
+    }
+
+    /**
+     * 解析comm之前的扩展列：vsz(KB)、state，以及支持时的nlwp
+     * @return 列完整返回true
+     */
+    private boolean parseExtendedColumns(LineTokenizer t, ProcessQuery query, ProcessDetails details) {
+        if (!t.next()) {
+            return false;
+        }
+        if (query.includes(ProcessField.MEMORY_DETAIL) && t.isLong()) {
+            details.setVirtualBytes(t.parseLong() * 1024);
+        }
+        if (!t.next()) {
+            return false;
+        }
+        if (query.includes(ProcessField.STATE)) {
+            details.setState(t.tokenString());
+        }
+        if (threadColumn) {
+            if (!t.next()) {
+                return false;
+            }
+            if (query.includes(ProcessField.THREADS) && t.isLong()) {
+                details.setThreadCount((int) t.parseLong());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 一次解析过程：逐行解析并收集到列表或进程表中，不带过滤条件时记录进程名快照
+     */
+    private final class Batch implements LineConsumer {
+        private final LineTokenizer tokenizer = new LineTokenizer();
+        private final Row row = new Row();
+        private final ProcessQuery query;
+        private final boolean checkUser;
+        private final boolean snapshot;
+        // 指定PID条件时需要找到的进程数，找到后停止读取；-1表示读取全部输出
+        private final int expected;
+        private final long now = System.currentTimeMillis();
+        final List<ProcessInfo> processes;
+        // 不为null时结果直接追加到进程表，不创建ProcessInfo
+        final ProcessTable.Builder table;
+
+        Batch(ProcessQuery query, boolean checkUser, int expectedLines) {
+            this(query, checkUser, expectedLines, null);
+        }
+
+        Batch(ProcessQuery query, boolean checkUser, int expectedLines, ProcessTable.Builder table) {
+            this.query = query;
+            this.checkUser = checkUser;
+            this.snapshot = query.isUnfiltered() && nameCache.beginSnapshot();
+            this.expected = query.hasPidFilter() ? countDistinct(query.getPids()) : -1;
+            this.table = table;
+            this.processes = table != null ? null : new ArrayList<>(query.isUnfiltered() ? expectedLines : 16);
+        }
+
+        @Override
+        public boolean accept(CharSequence line) {
+            if (table != null) {
+                if (parseRow(tokenizer, row, line, query, checkUser, snapshot)) {
+                    long startTimeMillis = row.elapsedMillis >= 0 ? now - row.elapsedMillis : 0;
+                    table.add(row.pid, row.name, row.cpu, row.memoryBytes, row.memoryExact, row.cpuTimeMillis,
+                            startTimeMillis, row.elapsedMillis).parentPid(row.parentPid);
+                }
+                return true;
+            }
+            ProcessInfo process = parse(tokenizer, row, line, now, query, checkUser, snapshot);
+            if (process == null) {
+                return true;
+            }
+            processes.add(process);
+            return processes.size() != expected;
+        }
+
+        /**
+         * 结束解析，完整读取时用本次结果更新进程名缓存
+         * @param completed 命令是否成功执行
+         */
+        void finish(boolean completed) {
+            if (!snapshot) {
+                return;
+            }
+            if (completed) {
+                nameCache.endSnapshot();
+            } else {
+                nameCache.cancelSnapshot();
+            }
+        }
+    }
+
+    /**
+     * 按需读取ps输出的分片，输出只能顺序读取，并行时由AbstractSpliterator按批拆分
+     */
+    private final class OutputSpliterator extends Spliterators.AbstractSpliterator<ProcessInfo> {
+        private final LineTokenizer tokenizer = new LineTokenizer();
+        private final Row row = new Row();
+        private final CommandOutput output;
+        private final ProcessQuery query;
+        private final boolean checkUser;
+        // 指定PID条件时需要找到的进程数，找到后终止命令；-1表示读取全部输出
+        private final int expected;
+        private final long now = System.currentTimeMillis();
+        private int found;
+
+        OutputSpliterator(CommandOutput output, ProcessQuery query, boolean checkUser) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.output = output;
+            this.query = query;
+            this.checkUser = checkUser;
+            this.expected = query.hasPidFilter() ? countDistinct(query.getPids()) : -1;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ProcessInfo> action) {
+            try {
+                while (found != expected && output.next()) {
+                    ProcessInfo process = parse(tokenizer, row, output.line(), now, query, checkUser, false);
+                    if (process != null) {
+                        found++;
+                        action.accept(process);
+                        return true;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            output.close();
+            return false;
+        }
+    }
+
+    /**
+     * 一行ps输出的解析结果，由调用方复用
+     */
+    private static final class Row {
+        long pid;
+        long parentPid;
+        double cpu;
+        long memoryBytes;
+        boolean memoryExact;
+        long elapsedMillis;
+        long cpuTimeMillis;
+        String name;
+        ProcessDetails details;
+    }
+
+    /**
+     * 统计已排序数组中不同值的个数
+     */
+    private static int countDistinct(long[] sorted) {
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,73 @@
+package com.demo.processmanager.parser;
+
+/**
+ * ps时间列解析工具
+ * 支持etime格式[[dd-]hh:]mm:ss，以及time/cputime格式[dd-]hh:mm:ss与macOS的mm:ss.cc
+ */
+final class PsTime {
+
+    private PsTime() {
+    }
+
+    /**
+     * 将ps输出的时间文本解析为毫秒
+     * @param value 时间文本
+     * @return 毫秒数
+     * @throws NumberFormatException 如果格式不正确
+     */
+    static long parseMillis(CharSequence value) {
+        return parseMillis(value, 0, value.length());
+    }
+
+    /**
+     * 将文本中[start, end)范围内的时间解析为毫秒，不创建子串
+     * @param value 包含时间的文本
+     * @param start 起始位置（含）
+     * @param end 结束位置（不含）
+     * @return 毫秒数
+     * @throws NumberFormatException 如果格式不正确
+     */
+    static long parseMillis(CharSequence value, int start, int end) {
+        long days = 0;
+        long total = 0;     // 已解析的整数部分（秒为单位前的累加值）
+        long current = 0;   // 当前段的数值
+        long fraction = 0;  // 秒的小数部分（毫秒）
+        int fractionDigits = -1;
+        boolean hasDigit = false;
+
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigit = true;
+                if (fractionDigits >= 0) {
+                    if (fractionDigits < 3) {
+                        fraction = fraction * 10 + (c - '0');
+                        fractionDigits++;
+                    }
+                } else {
+                    current = current * 10 + (c - '0');
+                }
+            } else if (c == '-' && total == 0 && days == 0) {
+                days = current;
+                current = 0;
+            } else if (c == ':') {
+                total = (total + current) * 60;
+                current = 0;
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                throw new NumberFormatException("无法解析的时间: " + value.subSequence(start, end));
+            }
+        }
+        if (!hasDigit) {
+            throw new NumberFormatException("无法解析的时间: " + value.subSequence(start, end));
+        }
+        while (fractionDigits > 0 && fractionDigits < 3) {
+            fraction *= 10;
+            fractionDigits++;
+        }
+
+        long seconds = days * 86400 + total + current;
+        return seconds * 1000 + fraction;
+    }
+}
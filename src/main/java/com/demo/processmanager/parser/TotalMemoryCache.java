@@ -0,0 +1,73 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.utils.CommandExecutor;
+
+/**
+ * 系统总内存缓存
+ * 总内存在运行期间几乎不变，按刷新周期缓存命令结果，避免每行进程都执行一次命令
+ */
+class TotalMemoryCache {
+
+    // 默认刷新周期：60秒
+    private static final long DEFAULT_TTL_MILLIS = 60_000L;
+
+    private final String command;
+    private final long unitBytes;
+    private final long ttlMillis;
+
+    private volatile long totalBytes = -1;
+    private volatile long loadedAt;
+
+    /**
+     * @param command 输出总内存数值的命令
+     * @param unitBytes 命令输出数值的单位（字节）
+     */
+    TotalMemoryCache(String command, long unitBytes) {
+        this(command, unitBytes, DEFAULT_TTL_MILLIS);
+    }
+
+    TotalMemoryCache(String command, long unitBytes, long ttlMillis) {
+        this.command = command;
+        this.unitBytes = unitBytes;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * 获取系统总内存，缓存过期时重新执行命令
+     * @return 系统总内存（字节），获取失败返回-1
+     */
+    long getTotalBytes() {
+        long now = System.currentTimeMillis();
+        if (totalBytes < 0 || now - loadedAt > ttlMillis) {
+            synchronized (this) {
+                if (totalBytes < 0 || now - loadedAt > ttlMillis) {
+                    try {
+                        String output = CommandExecutor.executeCommandSingleLine(command);
+                        totalBytes = Long.parseLong(output.trim()) * unitBytes;
+                    } catch (Exception e) {
+                        // 获取失败时保留上一次的值，避免每行重试
+                        if (totalBytes < 0) {
+                            totalBytes = 0;
+                        }
+                    }
+                    loadedAt = now;
+                }
+            }
+        }
+        return totalBytes > 0 ? totalBytes : -1;
+    }
+
+    /**
+     * 根据内存百分比估算内存使用量（MB）
+     * @param memoryPercent 内存使用百分比
+     * @return 估算的内存使用量（MB）
+     */
+    long estimateMemoryMB(double memoryPercent) {
+        long total = getTotalBytes();
+        if (total < 0) {
+            // 如果获取总内存失败，返回估算值
+            return (long) (memoryPercent * 100); // 简单估算
+        }
+        return (long) (total / (1024 * 1024) * memoryPercent / 100);
+    }
+}
@@ -1,48 +1,291 @@
 package com.demo.processmanager.parser;
 
+import com.demo.processmanager.ProcessDetails;
+import com.demo.processmanager.ProcessField;
 import com.demo.processmanager.ProcessInfo;
+import com.demo.processmanager.ProcessQuery;
 import com.demo.processmanager.utils.CommandExecutor;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Windows平台进程解析器
- * 使用tasklist和wmic命令获取进程信息
+ * 使用批量wmic查询获取进程信息，wmic不可用时回退到tasklist
  */
-public class WindowsProcessParser {
+public class WindowsProcessParser implements ProcessBackend {
+    
+    // 一次查询所有进程的名称、父进程、工作集、创建时间和累计CPU时间
+    private static final String PROCESS_QUERY =
+            "wmic process %sget CreationDate,KernelModeTime,Name,ParentProcessId,ProcessId,UserModeTime,WorkingSetSize%s /format:csv";
+    
+    // 请求扩展字段时追加的列：句柄数、I/O字节数、线程数、虚拟内存
+    private static final String EXTENDED_COLUMNS =
+            ",HandleCount,ReadTransferCount,ThreadCount,VirtualSize,WriteTransferCount";
+    
+    // 一次查询所有进程的CPU使用率
+    private static final String CPU_QUERY =
+            "wmic path Win32_PerfFormattedData_PerfProc_Process %sget IDProcess,Name,PercentProcessorTime /format:csv";
+    
+    // where子句中最多下推的PID数量
+    private static final int MAX_PUSHDOWN_PIDS = 200;
     
     /**
      * 获取所有进程列表
+     * 共执行两次命令：一次进程查询，一次CPU查询，结果在内存中按PID合并
      * @return 进程信息列表
      * @throws IOException 如果命令执行失败
      */
+    @Override
     public List<ProcessInfo> listProcesses() throws IOException {
+        List<Map<String, String>> records;
+        try {
+            records = WmicOutput.execute(String.format(PROCESS_QUERY, "", ""));
+        } catch (IOException e) {
+            // wmic不可用（新版Windows已移除），回退到tasklist
+            return listProcessesWithTasklist();
+        }
+        
+        Map<Long, ProcessInfo> processes = parseProcessRecords(records);
+        applyCpuUsage(processes, queryCpuUsage(""));
+        
+        return new ArrayList<>(processes.values());
+    }
+    
+    /**
+     * 按条件获取进程列表
+     * PID、进程名和内存条件转换为WQL where子句下推到wmic查询；不需要CPU使用率时不执行CPU查询。
+     * 用户条件无法下推，通过ProcessHandle逐个检查
+     * @param query 查询条件
+     * @return 满足条件的进程信息列表
+     * @throws IOException 如果命令执行失败
+     */
+    @Override
+    public List<ProcessInfo> listProcesses(ProcessQuery query) throws IOException {
+        List<Map<String, String>> records;
+        try {
+            records = WmicOutput.execute(String.format(PROCESS_QUERY, buildWhereClause(query),
+                    query.hasExtendedFields() ? EXTENDED_COLUMNS : ""));
+        } catch (IOException e) {
+            // wmic不可用时回退到tasklist，获取全部进程后过滤
+            List<ProcessInfo> result = new ArrayList<>();
+            for (ProcessInfo process : listProcessesWithTasklist()) {
+                if (query.matches(process)) {
+                    result.add(process);
+                }
+            }
+            return result;
+        }
+        
+        Map<Long, ProcessInfo> processes = parseProcessRecords(records, query);
+        if (query.needs(ProcessField.CPU) && !processes.isEmpty()) {
+            String cpuWhere = query.hasPidFilter() && query.getPids().length <= MAX_PUSHDOWN_PIDS ? "where \"" + joinCondition("IDProcess", query.getPids()) + "\" " : "";
+            applyCpuUsage(processes, queryCpuUsage(cpuWhere));
+        }
+        
+        List<ProcessInfo> result = new ArrayList<>(processes.size());
+        for (ProcessInfo process : processes.values()) {
+            if (!query.matchesCpu(process.getCpu()) || !query.matchesUser(process.getPid())) {
+                continue;
+            }
+            if (!query.includes(ProcessField.CPU)) {
+                process.setCpu(0);
+            }
+            result.add(process);
+        }
+        return result;
+    }
+    
+    /**
+     * 将查询条件转换为wmic process的where子句
+     * @param query 查询条件
+     * @return where子句（含末尾空格），没有可下推的条件时返回空字符串
+     */
+    static String buildWhereClause(ProcessQuery query) {
+        List<String> conditions = new ArrayList<>();
+        // PID过多时命令行会超过cmd.exe的长度限制，改为查询全部进程后在解析时过滤
+        if (query.hasPidFilter() && query.getPids().length <= MAX_PUSHDOWN_PIDS) {
+            conditions.add("(" + joinCondition("ProcessId", query.getPids()) + ")");
+        }
+        String name = query.getName();
+        if (name != null && PsLineParser.isShellSafe(name)) {
+            conditions.add("Name='" + name + "'");
+        }
+        if (query.getMinMemoryBytes() >= 0) {
+            conditions.add("WorkingSetSize>=" + query.getMinMemoryBytes());
+        }
+        return conditions.isEmpty() ? "" : "where \"" + String.join(" and ", conditions) + "\" ";
+    }
+    
+    /**
+     * 拼接多个PID的"或"条件：key=a or key=b
+     */
+    private static String joinCondition(String key, long[] pids) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < pids.length; i++) {
+            if (i > 0) {
+                builder.append(" or ");
+            }
+            builder.append(key).append('=').append(pids[i]);
+        }
+        return builder.toString();
+    }
+    
+    /**
+     * 使用tasklist获取进程列表（不含CPU使用率和启动时间）
+     * @return 进程信息列表
+     * @throws IOException 如果命令执行失败
+     */
+    private List<ProcessInfo> listProcessesWithTasklist() throws IOException {
         List<ProcessInfo> processes = new ArrayList<>();
         
-        // 使用tasklist获取基本进程信息
         String command = "tasklist /FO CSV /NH";
-        List<String> output = CommandExecutor.executeCommand(command);
-        
-        for (String line : output) {
-            ProcessInfo process = parseTasklistLine(line);
+        CommandExecutor.executeCommand(command, line -> {
+            ProcessInfo process = parseTasklistLine(line.toString());
             if (process != null) {
-                // 使用wmic获取更详细的CPU和内存信息
-                enrichProcessInfo(process);
                 processes.add(process);
             }
+            return true;
+        });
+        
+        return processes;
+    }
+    
+    /**
+     * 执行CPU使用率查询
+     * @param whereClause where子句（含末尾空格），为空表示查询所有进程
+     * @return 查询结果记录，查询失败返回空列表
+     */
+    private List<Map<String, String>> queryCpuUsage(String whereClause) {
+        try {
+            return WmicOutput.execute(String.format(CPU_QUERY, whereClause));
+        } catch (IOException e) {
+            // 性能计数器不可用时CPU使用率保持为0
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * 将Win32_Process查询结果转换为进程信息
+     * @param records wmic process查询结果
+     * @return 以PID为键的进程信息，保持查询结果顺序
+     */
+    static Map<Long, ProcessInfo> parseProcessRecords(List<Map<String, String>> records) {
+        return parseProcessRecords(records, ProcessQuery.all());
+    }
+    
+    /**
+     * 将Win32_Process查询结果转换为进程信息，在创建ProcessInfo之前按PID、进程名和内存条件过滤
+     * @param records wmic process查询结果
+     * @param query 查询条件，只填充投影的字段
+     * @return 以PID为键的进程信息，保持查询结果顺序
+     */
+    static Map<Long, ProcessInfo> parseProcessRecords(List<Map<String, String>> records, ProcessQuery query) {
+        Map<Long, ProcessInfo> processes = new LinkedHashMap<>(records.size() * 2);
+        long now = System.currentTimeMillis();
+        
+        for (Map<String, String> record : records) {
+            long pid = WmicOutput.getLong(record, "ProcessId", -1);
+            if (pid < 0 || !query.matchesPid(pid)) {
+                continue;
+            }
+            
+            // WorkingSetSize单位为字节
+            long memoryBytes = WmicOutput.getLong(record, "WorkingSetSize", 0);
+            String name = record.get("Name");
+            if (!query.matchesMemory(memoryBytes) || !query.matchesName(name)) {
+                continue;
+            }
+            
+            ProcessInfo process = new ProcessInfo(pid, query.includes(ProcessField.NAME) ? name : null, 0.0, 0, null);
+            if (query.includes(ProcessField.MEMORY)) {
+                process.setMemory(memoryBytes / (1024 * 1024));
+                process.setMemoryBytes(memoryBytes);
+                process.setMemoryExact(true);
+            }
+            // KernelModeTime/UserModeTime单位为100纳秒
+            long cpuTime100ns = WmicOutput.getLong(record, "KernelModeTime", -1);
+            long userTime100ns = WmicOutput.getLong(record, "UserModeTime", -1);
+            if (query.includes(ProcessField.CPU_TIME) && cpuTime100ns >= 0 && userTime100ns >= 0) {
+                process.setCpuTimeMillis((cpuTime100ns + userTime100ns) / 10_000);
+            }
+            if (query.includes(ProcessField.PARENT_PID)) {
+                process.setParentPid(WmicOutput.getLong(record, "ParentProcessId", -1));
+            }
+            String creationDate = record.get("CreationDate");
+            if (query.includes(ProcessField.START_TIME)) {
+                boolean hasDate = creationDate != null && !creationDate.isEmpty();
+                process.setStartTime(hasDate ? formatWindowsTime(creationDate) : "");
+                long startTimeMillis = hasDate ? parseWindowsTimeMillis(creationDate) : 0;
+                if (startTimeMillis > 0) {
+                    process.setStartTimeMillis(startTimeMillis);
+                    process.setElapsedMillis(Math.max(now - startTimeMillis, 0));
+                }
+            }
+            if (query.hasExtendedFields()) {
+                process.setDetails(parseDetails(record, query));
+            }
+            processes.put(pid, process);
         }
         
         return processes;
     }
     
+    /**
+     * 从Win32_Process记录中读取扩展指标
+     * Windows没有进程状态和上下文切换次数，这两项保持为未知；I/O字节数包含所有设备的读写
+     * @param record wmic process查询结果中的一条记录
+     * @param query 查询条件
+     * @return 扩展指标
+     */
+    private static ProcessDetails parseDetails(Map<String, String> record, ProcessQuery query) {
+        ProcessDetails details = new ProcessDetails();
+        if (query.includes(ProcessField.THREADS)) {
+            details.setThreadCount((int) WmicOutput.getLong(record, "ThreadCount", -1));
+        }
+        if (query.includes(ProcessField.FILE_DESCRIPTORS)) {
+            details.setFileDescriptorCount((int) WmicOutput.getLong(record, "HandleCount", -1));
+        }
+        if (query.includes(ProcessField.IO)) {
+            details.setReadBytes(WmicOutput.getLong(record, "ReadTransferCount", -1));
+            details.setWriteBytes(WmicOutput.getLong(record, "WriteTransferCount", -1));
+        }
+        if (query.includes(ProcessField.MEMORY_DETAIL)) {
+            details.setResidentBytes(WmicOutput.getLong(record, "WorkingSetSize", -1));
+            details.setVirtualBytes(WmicOutput.getLong(record, "VirtualSize", -1));
+        }
+        return details;
+    }
+    
+    /**
+     * 将性能计数器查询结果按PID合并到进程信息中
+     * @param processes 以PID为键的进程信息
+     * @param records Win32_PerfFormattedData_PerfProc_Process查询结果
+     */
+    static void applyCpuUsage(Map<Long, ProcessInfo> processes, List<Map<String, String>> records) {
+        for (Map<String, String> record : records) {
+            // _Total实例的IDProcess同样为0，需要排除
+            if ("_Total".equals(record.get("Name"))) {
+                continue;
+            }
+            ProcessInfo process = processes.get(WmicOutput.getLong(record, "IDProcess", -1));
+            if (process != null) {
+                process.setCpu(WmicOutput.getLong(record, "PercentProcessorTime", 0));
+            }
+        }
+    }
+    
     /**
      * 解析tasklist命令输出的一行
      * @param line tasklist CSV格式输出
      * @return 解析后的ProcessInfo对象，解析失败返回null
      */
-    private ProcessInfo parseTasklistLine(String line) {
+    static ProcessInfo parseTasklistLine(String line) {
         try {
             // 解析CSV格式："映像名称","PID","会话名","会话#","内存使用"
             String[] parts = line.split(",");
@@ -60,7 +303,11 @@ public class WindowsProcessParser {
             long memoryMB = memoryKB / 1024;
             
             // 创建基础进程信息（CPU和启动时间稍后补充）
-            return new ProcessInfo(pid, name, 0.0, memoryMB, "");
+            ProcessInfo process = new ProcessInfo(pid, name, 0.0, memoryMB, "");
+            // tasklist报告的是工作集大小，为精确值
+            process.setMemoryBytes(memoryKB * 1024);
+            process.setMemoryExact(true);
+            return process;
             
         } catch (NumberFormatException e) {
             // 忽略解析错误
@@ -69,32 +316,27 @@ public class WindowsProcessParser {
     }
     
     /**
-     * 使用wmic命令丰富进程信息（CPU使用率和启动时间）
-     * @param process 需要补充信息的进程对象
+     * 将Windows时间戳解析为epoch毫秒
+     * @param windowsTime Windows时间格式：yyyyMMddHHmmss.ffffff+zzz（zzz为相对UTC的分钟偏移）
+     * @return epoch毫秒，解析失败返回0
      */
-    private void enrichProcessInfo(ProcessInfo process) {
+    static long parseWindowsTimeMillis(String windowsTime) {
         try {
-            // 获取CPU使用率
-            String cpuCommand = String.format("wmic path Win32_PerfFormattedData_PerfProc_Process where \"IDProcess=%d\" get PercentProcessorTime /value", 
-                                             process.getPid());
-            String cpuOutput = CommandExecutor.executeCommandSingleLine(cpuCommand);
-            if (cpuOutput.contains("PercentProcessorTime")) {
-                String cpuStr = cpuOutput.split("=")[1].trim();
-                double cpu = Double.parseDouble(cpuStr);
-                process.setCpu(cpu);
+            if (windowsTime.length() < 25) {
+                return 0;
             }
-            
-            // 获取启动时间
-            String timeCommand = String.format("wmic process where ProcessId=%d get CreationDate /value", 
-                                              process.getPid());
-            String timeOutput = CommandExecutor.executeCommandSingleLine(timeCommand);
-            if (timeOutput.contains("CreationDate")) {
-                String timeStr = timeOutput.split("=")[1].trim();
-                process.setStartTime(formatWindowsTime(timeStr));
-            }
-            
-        } catch (Exception e) {
-            // 忽略wmic命令执行失败
+            LocalDateTime dateTime = LocalDateTime.of(
+                    Integer.parseInt(windowsTime.substring(0, 4)),
+                    Integer.parseInt(windowsTime.substring(4, 6)),
+                    Integer.parseInt(windowsTime.substring(6, 8)),
+                    Integer.parseInt(windowsTime.substring(8, 10)),
+                    Integer.parseInt(windowsTime.substring(10, 12)),
+                    Integer.parseInt(windowsTime.substring(12, 14)),
+                    Integer.parseInt(windowsTime.substring(15, 21)) * 1000);
+            int offsetMinutes = Integer.parseInt(windowsTime.substring(21));
+            return dateTime.toInstant(ZoneOffset.ofTotalSeconds(offsetMinutes * 60)).toEpochMilli();
+        } catch (RuntimeException e) {
+            return 0;
         }
     }
     
@@ -103,7 +345,7 @@ public class WindowsProcessParser {
      * @param windowsTime Windows时间格式：yyyyMMddHHmmss.ffffff+zzz
      * @return 格式化后的时间字符串
      */
-    private String formatWindowsTime(String windowsTime) {
+    static String formatWindowsTime(String windowsTime) {
         try {
             // 简单格式化：提取年月日时分秒
             if (windowsTime.length() >= 14) {
@@ -129,7 +371,31 @@ public class WindowsProcessParser {
      * @return 进程信息，如果进程不存在返回null
      * @throws IOException 如果命令执行失败
      */
+    @Override
     public ProcessInfo getProcessInfo(long pid) throws IOException {
+        List<Map<String, String>> records;
+        try {
+            records = WmicOutput.execute(String.format(PROCESS_QUERY, "where ProcessId=" + pid + " ", ""));
+        } catch (IOException e) {
+            return getProcessInfoWithTasklist(pid);
+        }
+        
+        Map<Long, ProcessInfo> processes = parseProcessRecords(records);
+        if (processes.isEmpty()) {
+            return null; // 进程不存在
+        }
+        applyCpuUsage(processes, queryCpuUsage("where IDProcess=" + pid + " "));
+        
+        return processes.get(pid);
+    }
+    
+    /**
+     * 使用tasklist根据PID获取进程信息（不含CPU使用率和启动时间）
+     * @param pid 进程ID
+     * @return 进程信息，如果进程不存在返回null
+     * @throws IOException 如果命令执行失败
+     */
+    private ProcessInfo getProcessInfoWithTasklist(long pid) throws IOException {
         String command = String.format("tasklist /FI \"PID eq %d\" /FO CSV /NH", pid);
         List<String> output = CommandExecutor.executeCommand(command);
         
@@ -137,11 +403,6 @@ public class WindowsProcessParser {
             return null; // 进程不存在
         }
         
-        ProcessInfo process = parseTasklistLine(output.get(0));
-        if (process != null) {
-            enrichProcessInfo(process);
-        }
-        
-        return process;
+        return parseTasklistLine(output.get(0));
     }
-}
\ No newline at end of file
+}
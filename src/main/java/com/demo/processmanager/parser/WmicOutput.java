@@ -0,0 +1,118 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.utils.CommandExecutor;
+import com.demo.processmanager.utils.LineConsumer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * wmic命令输出解析工具
+ * 解析/format:csv格式输出，解析逻辑与命令执行分离，便于使用录制的输出离线验证
+ */
+final class WmicOutput {
+
+    private WmicOutput() {
+    }
+
+    /**
+     * 执行wmic命令，在读取输出的同时逐行解析/format:csv格式的记录
+     * @param command wmic命令
+     * @return 每条记录的属性名到值的映射
+     * @throws IOException 如果命令执行失败
+     */
+    static List<Map<String, String>> execute(String command) throws IOException {
+        CsvCollector collector = new CsvCollector();
+        CommandExecutor.executeCommand(command, collector);
+        return collector.records;
+    }
+
+    /**
+     * 解析/format:csv格式输出
+     * 第一行非空行为表头（首列固定为Node），其余每行为一条记录
+     * @param lines wmic命令输出
+     * @return 每条记录的属性名到值的映射
+     */
+    static List<Map<String, String>> parseCsv(List<String> lines) {
+        CsvCollector collector = new CsvCollector();
+        for (String line : lines) {
+            collector.accept(line);
+        }
+        return collector.records;
+    }
+
+    /**
+     * 逐行解析/format:csv格式输出
+     */
+    private static final class CsvCollector implements LineConsumer {
+        final List<Map<String, String>> records = new ArrayList<>();
+        private String[] header;
+        private int nameIndex;
+
+        @Override
+        public boolean accept(CharSequence line) {
+            // wmic的行尾为\r\r\n，去除多余的\r
+            String trimmed = line.toString().trim();
+            if (trimmed.isEmpty()) {
+                return true;
+            }
+            String[] parts = trimmed.split(",", -1);
+            if (header == null) {
+                header = parts;
+                nameIndex = Arrays.asList(header).indexOf("Name");
+                return true;
+            }
+            if (parts.length > header.length && nameIndex >= 0) {
+                // Name是唯一的自由文本列，进程名中的逗号会多拆出字段，将多出的字段合并回Name
+                parts = joinName(parts);
+            }
+            if (parts.length != header.length) {
+                // 字段数不足的截断行，无法对应表头，跳过
+                return true;
+            }
+            Map<String, String> record = new HashMap<>(header.length * 2);
+            for (int i = 0; i < header.length; i++) {
+                record.put(header[i], parts[i]);
+            }
+            records.add(record);
+            return true;
+        }
+
+        /**
+         * 将Name位置上多拆出的字段以逗号重新连接
+         * @param parts 按逗号拆分的字段，数量多于表头
+         * @return 与表头字段数相同的字段
+         */
+        private String[] joinName(String[] parts) {
+            int nameFields = parts.length - header.length + 1;
+            String[] joined = new String[header.length];
+            System.arraycopy(parts, 0, joined, 0, nameIndex);
+            joined[nameIndex] = String.join(",", Arrays.asList(parts).subList(nameIndex, nameIndex + nameFields));
+            System.arraycopy(parts, nameIndex + nameFields, joined, nameIndex + 1, header.length - nameIndex - 1);
+            return joined;
+        }
+    }
+
+    /**
+     * 读取数值属性
+     * @param record 记录
+     * @param key 属性名
+     * @param defaultValue 属性缺失或无法解析时的默认值
+     * @return 属性值
+     */
+    static long getLong(Map<String, String> record, String key, long defaultValue) {
+        String value = record.get(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -1,73 +1,337 @@
 package com.demo.processmanager.utils;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 命令执行工具类
  * 封装系统命令的执行和结果解析
+ *
+ * 每条命令都有超时时间，超时后强制终止子进程及其后代进程；stderr在后台线程中持续读取，避免管道写满导致子进程阻塞；
+ * 同时运行的子进程数量受上限约束，超出上限的调用在等待一段时间后被拒绝
+ *
+ * 输出可以通过LineConsumer逐行处理：每行在读取后立即交给回调，不保存完整输出，回调可以提前结束命令；
+ * 也可以通过openCommand启动命令后由调用方按需拉取
+ *
+ * 开启会话模式后（仅macOS/Linux），命令通过常驻shell会话池执行，不再为每条命令创建sh进程
  */
 public class CommandExecutor {
 
+    // 默认命令超时时间（毫秒）
+    private static volatile long defaultTimeoutMillis =
+            Long.getLong("processmanager.command.timeoutMillis", 30_000L);
+
+    // 等待执行名额的最长时间（毫秒）
+    private static volatile long acquireTimeoutMillis =
+            Long.getLong("processmanager.command.acquireTimeoutMillis", 5_000L);
+
+    // 同时运行的子进程数量上限
+    private static volatile int maxConcurrentCommands = Integer.getInteger("processmanager.command.maxConcurrent",
+            Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    private static volatile Semaphore permits = new Semaphore(maxConcurrentCommands, true);
+
+    // 会话模式下的常驻shell会话数量
+    private static final int DEFAULT_SESSIONS = Integer.getInteger("processmanager.command.sessions", 2);
+
+    // 常驻shell会话池，为null表示未开启会话模式
+    private static volatile ShellSessionPool sessionPool =
+            Boolean.getBoolean("processmanager.command.sessionMode") && !isWindows()
+                    ? new ShellSessionPool(DEFAULT_SESSIONS) : null;
+
+    // stderr最多保留的字符数，用于错误信息
+    private static final int STDERR_LIMIT = 4096;
+
+    // 读取stderr的线程池，线程数受并发上限约束
+    private static final ExecutorService STDERR_DRAINER = Executors.newCachedThreadPool(
+            daemonThreadFactory("command-stderr-drainer"));
+
+    // 超时后终止子进程的看门狗线程
+    private static final ScheduledThreadPoolExecutor WATCHDOG = createWatchdog();
+
     /**
-     * 执行系统命令并返回结果
+     * 执行系统命令并返回结果，使用默认超时时间
      * @param command 要执行的命令
      * @return 命令执行结果的每一行
+     * @throws CommandTimeoutException 如果命令执行超时
+     * @throws CommandRejectedException 如果同时执行的命令数已达上限
      * @throws IOException 如果命令执行失败
      */
     public static List<String> executeCommand(String command) throws IOException {
+        return executeCommand(command, defaultTimeoutMillis);
+    }
+
+    /**
+     * 执行系统命令并返回结果
+     * @param command 要执行的命令
+     * @param timeoutMillis 超时时间（毫秒）
+     * @return 命令执行结果的每一行
+     * @throws CommandTimeoutException 如果命令执行超时
+     * @throws CommandRejectedException 如果同时执行的命令数已达上限
+     * @throws IOException 如果命令执行失败
+     */
+    public static List<String> executeCommand(String command, long timeoutMillis) throws IOException {
         List<String> output = new ArrayList<>();
+        executeCommand(command, timeoutMillis, line -> output.add(line.toString()));
+        return output;
+    }
+
+    /**
+     * 执行系统命令并逐行处理输出，使用默认超时时间
+     * @param command 要执行的命令
+     * @param consumer 输出行的回调，空白行不会传入
+     * @return 输出被完整读取返回true，回调提前结束命令时返回false
+     * @throws CommandTimeoutException 如果命令执行超时
+     * @throws CommandRejectedException 如果同时执行的命令数已达上限
+     * @throws IOException 如果命令执行失败
+     */
+    public static boolean executeCommand(String command, LineConsumer consumer) throws IOException {
+        return executeCommand(command, defaultTimeoutMillis, consumer);
+    }
+
+    /**
+     * 执行系统命令并逐行处理输出
+     * 回调在当前线程上执行，处理较慢时子进程在管道写满后等待；回调返回false时立即终止命令，不再检查退出码。
+     * 超时时间包含回调的处理时间
+     * @param command 要执行的命令
+     * @param timeoutMillis 超时时间（毫秒）
+     * @param consumer 输出行的回调，空白行不会传入
+     * @return 输出被完整读取返回true，回调提前结束命令时返回false
+     * @throws CommandTimeoutException 如果命令执行超时
+     * @throws CommandRejectedException 如果同时执行的命令数已达上限
+     * @throws IOException 如果命令执行失败
+     */
+    public static boolean executeCommand(String command, long timeoutMillis, LineConsumer consumer)
+            throws IOException {
+        ShellSessionPool pool = sessionPool;
+        if (pool != null) {
+            // 会话数量本身限制了并发，不再占用子进程名额
+            return pool.execute(command, timeoutMillis, acquireTimeoutMillis, consumer);
+        }
         
-        Process process = null;
-        BufferedReader reader = null;
-        
-        try {
-            // 执行命令
-            ProcessBuilder processBuilder = new ProcessBuilder();
-            if (System.getProperty("os.name").toLowerCase().contains("win")) {
-                processBuilder.command("cmd.exe", "/c", command);
-            } else {
-                processBuilder.command("sh", "-c", command);
-            }
-            
-            process = processBuilder.start();
-            
-            // 读取命令输出
-            reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (!line.trim().isEmpty()) {
-                    output.add(line);
+        try (CommandOutput output = openCommand(command, timeoutMillis)) {
+            while (output.next()) {
+                if (!consumer.accept(output.line())) {
+                    // 调用方不再需要后续输出，关闭时终止命令及其管道中的子进程
+                    return false;
                 }
             }
-            
-            // 等待命令执行完成
-            int exitCode = process.waitFor();
-            if (exitCode != 0) {
-                throw new IOException("命令执行失败，退出码: " + exitCode);
+            return true;
+        }
+    }
+
+    /**
+     * 启动系统命令，由调用方逐行拉取输出，使用默认超时时间
+     * @param command 要执行的命令
+     * @return 命令输出，使用完毕后需要关闭
+     * @throws CommandRejectedException 如果同时执行的命令数已达上限
+     * @throws IOException 如果命令无法启动
+     */
+    public static CommandOutput openCommand(String command) throws IOException {
+        return openCommand(command, defaultTimeoutMillis);
+    }
+
+    /**
+     * 启动系统命令，由调用方逐行拉取输出
+     * 输出可能在较长时间内逐步读取，因此不使用会话模式，始终创建子进程并占用一个执行名额，
+     * 名额在输出读取完毕、关闭或超时后归还
+     * @param command 要执行的命令
+     * @param timeoutMillis 超时时间（毫秒），包含调用方处理输出的时间
+     * @return 命令输出，使用完毕后需要关闭
+     * @throws CommandRejectedException 如果同时执行的命令数已达上限
+     * @throws IOException 如果命令无法启动
+     */
+    public static CommandOutput openCommand(String command, long timeoutMillis) throws IOException {
+        Semaphore semaphore = permits;
+        try {
+            if (!semaphore.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new CommandRejectedException(command, maxConcurrentCommands);
             }
-            
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            throw new IOException("命令执行被中断", e);
-        } finally {
-            // 清理资源
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (IOException e) {
-                    // 忽略关闭异常
+            throw new IOException("等待执行名额时被中断", e);
+        }
+        
+        try {
+            return new CommandOutput(command, timeoutMillis, semaphore::release);
+        } catch (IOException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 设置默认命令超时时间
+     * @param timeoutMillis 超时时间（毫秒）
+     */
+    public static void setDefaultTimeoutMillis(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("超时时间必须大于0: " + timeoutMillis);
+        }
+        defaultTimeoutMillis = timeoutMillis;
+    }
+
+    public static long getDefaultTimeoutMillis() {
+        return defaultTimeoutMillis;
+    }
+
+    /**
+     * 设置同时运行的子进程数量上限
+     * 已在执行中的命令不受影响
+     * @param maxConcurrent 数量上限
+     */
+    public static synchronized void setMaxConcurrentCommands(int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("并发上限必须大于0: " + maxConcurrent);
+        }
+        maxConcurrentCommands = maxConcurrent;
+        permits = new Semaphore(maxConcurrent, true);
+    }
+
+    public static int getMaxConcurrentCommands() {
+        return maxConcurrentCommands;
+    }
+
+    /**
+     * 设置达到并发上限时等待执行名额的最长时间
+     * @param timeoutMillis 等待时间（毫秒），0表示不等待直接拒绝
+     */
+    public static void setAcquireTimeoutMillis(long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("等待时间不能小于0: " + timeoutMillis);
+        }
+        acquireTimeoutMillis = timeoutMillis;
+    }
+
+    public static long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    /**
+     * 开启或关闭会话模式，使用默认会话数量
+     * @param enabled 是否开启
+     */
+    public static void setSessionMode(boolean enabled) {
+        setSessionMode(enabled, DEFAULT_SESSIONS);
+    }
+
+    /**
+     * 开启或关闭会话模式
+     * 开启后命令在常驻shell会话中执行：会话中命令的stderr被丢弃，命令退出码仍然生效；
+     * 关闭时终止空闲会话，执行中的会话在命令结束后终止
+     * @param enabled 是否开启
+     * @param sessions 会话数量
+     * @throws UnsupportedOperationException 如果在Windows上开启
+     */
+    public static synchronized void setSessionMode(boolean enabled, int sessions) {
+        if (enabled && isWindows()) {
+            throw new UnsupportedOperationException("Windows不支持会话模式");
+        }
+        if (enabled && sessions <= 0) {
+            throw new IllegalArgumentException("会话数量必须大于0: " + sessions);
+        }
+        ShellSessionPool previous = sessionPool;
+        sessionPool = enabled ? new ShellSessionPool(sessions) : null;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    public static boolean isSessionMode() {
+        return sessionPool != null;
+    }
+
+    /**
+     * 在看门狗线程上安排超时任务
+     * @param task 超时后执行的任务
+     * @param timeoutMillis 超时时间（毫秒）
+     * @return 可取消的任务句柄
+     */
+    static ScheduledFuture<?> scheduleTimeout(Runnable task, long timeoutMillis) {
+        return WATCHDOG.schedule(task, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 强制终止进程及其后代进程（sh -c启动的管道命令会产生子进程）
+     * @param process 要终止的进程
+     */
+    static void destroyTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    /**
+     * 在后台读取进程的stderr
+     * @param process 进程
+     * @return 读取结果，只保留前STDERR_LIMIT个字符
+     */
+    static Future<String> drainErrorStream(Process process) {
+        return STDERR_DRAINER.submit(drainStream(process.getErrorStream()));
+    }
+
+    /**
+     * 创建读取整个输入流的任务，只保留前STDERR_LIMIT个字符
+     * @param stream 输入流
+     * @return 读取任务
+     */
+    private static Callable<String> drainStream(InputStream stream) {
+        return () -> {
+            StringBuilder content = new StringBuilder();
+            char[] chunk = new char[1024];
+            try (Reader reader = new InputStreamReader(stream)) {
+                int n;
+                while ((n = reader.read(chunk)) > 0) {
+                    int keep = Math.min(n, STDERR_LIMIT - content.length());
+                    if (keep > 0) {
+                        content.append(chunk, 0, keep);
+                    }
                 }
+            } catch (IOException e) {
+                // 进程被终止时流会被关闭，忽略
             }
-            if (process != null) {
-                process.destroy();
-            }
+            return content.toString().trim();
+        };
+    }
+
+    static String getQuietly(Future<String> future) {
+        try {
+            return future.get(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "";
+        } catch (Exception e) {
+            return "";
         }
-        
-        return output;
+    }
+
+    private static ScheduledThreadPoolExecutor createWatchdog() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                daemonThreadFactory("command-watchdog"));
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     /**
@@ -81,6 +345,10 @@ public class CommandExecutor {
         return output.isEmpty() ? "" : output.get(0);
     }
 
+    static boolean isWindows() {
+        return System.getProperty("os.name").toLowerCase().contains("win");
+    }
+
     /**
      * 获取当前操作系统类型
      * @return 操作系统类型（"windows", "mac", "linux"）
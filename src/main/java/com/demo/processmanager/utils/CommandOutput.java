@@ -0,0 +1,159 @@
+package com.demo.processmanager.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 正在执行的命令的输出，由调用方逐行拉取
+ * 与LineConsumer回调不同，何时读取下一行由调用方决定，适合包装为Iterator或Stream。
+ * 读取完毕、超时或关闭之前占用一个子进程名额；关闭时仍在运行的命令及其后代进程被终止。非线程安全
+ */
+public final class CommandOutput implements Closeable {
+
+    private final String command;
+    private final long timeoutMillis;
+    private final long deadline;
+    private final Process process;
+    private final Reader input;
+    private final LineReader reader;
+    private final Future<String> stderr;
+    private final ScheduledFuture<?> watchdog;
+    private final AtomicBoolean timedOut = new AtomicBoolean(false);
+    private final AtomicBoolean released = new AtomicBoolean(false);
+    private final Runnable onRelease;
+    private boolean finished;
+
+    /**
+     * 启动命令
+     * @param command 要执行的命令
+     * @param timeoutMillis 超时时间（毫秒）
+     * @param onRelease 命令结束后归还执行名额，只调用一次
+     * @throws IOException 如果命令无法启动
+     */
+    CommandOutput(String command, long timeoutMillis, Runnable onRelease) throws IOException {
+        this.command = command;
+        this.timeoutMillis = timeoutMillis;
+        this.onRelease = onRelease;
+
+        ProcessBuilder processBuilder = new ProcessBuilder();
+        if (CommandExecutor.isWindows()) {
+            processBuilder.command("cmd.exe", "/c", command);
+        } else {
+            processBuilder.command("sh", "-c", command);
+        }
+
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.process = processBuilder.start();
+
+        // 在后台持续读取stderr
+        this.stderr = CommandExecutor.drainErrorStream(process);
+
+        // 超时后强制终止，使阻塞中的读取返回；调用方可能长时间不关闭，名额在超时时即归还
+        this.watchdog = CommandExecutor.scheduleTimeout(() -> {
+            timedOut.set(true);
+            CommandExecutor.destroyTree(process);
+            release();
+        }, timeoutMillis);
+
+        this.input = new InputStreamReader(process.getInputStream());
+        this.reader = new LineReader(input);
+    }
+
+    /**
+     * 读取下一个非空行
+     * 输出结束时等待命令退出并检查退出码，之后自动关闭
+     * @return 读到新的一行返回true，输出结束返回false
+     * @throws CommandTimeoutException 如果命令执行超时
+     * @throws IOException 如果读取失败或命令的退出码不为0
+     */
+    public boolean next() throws IOException {
+        if (finished) {
+            return false;
+        }
+        boolean hasLine = false;
+        try {
+            while (reader.next()) {
+                if (!reader.isBlank()) {
+                    hasLine = true;
+                    return true;
+                }
+            }
+            awaitExit();
+            return false;
+        } catch (IOException e) {
+            // 被看门狗终止时读取可能抛出流已关闭异常
+            if (timedOut.get() && !(e instanceof CommandTimeoutException)) {
+                throw new CommandTimeoutException(command, timeoutMillis);
+            }
+            throw e;
+        } finally {
+            if (!hasLine) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * 获取当前行
+     * @return 复用缓冲区上的视图，只在下一次调用next()之前有效
+     */
+    public CharSequence line() {
+        return reader;
+    }
+
+    /**
+     * 等待命令退出并检查退出码
+     */
+    private void awaitExit() throws IOException {
+        try {
+            long remaining = deadline - System.nanoTime();
+            if (!process.waitFor(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+                timedOut.set(true);
+                CommandExecutor.destroyTree(process);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("命令执行被中断", e);
+        }
+        if (timedOut.get()) {
+            throw new CommandTimeoutException(command, timeoutMillis);
+        }
+
+        int exitCode = process.exitValue();
+        if (exitCode != 0) {
+            String error = CommandExecutor.getQuietly(stderr);
+            throw new IOException("命令执行失败，退出码: " + exitCode
+                    + (error.isEmpty() ? "" : "，错误输出: " + error));
+        }
+    }
+
+    /**
+     * 停止读取，终止仍在运行的命令并归还执行名额；可以重复调用
+     */
+    @Override
+    public void close() {
+        finished = true;
+        watchdog.cancel(false);
+        if (process.isAlive()) {
+            CommandExecutor.destroyTree(process);
+        }
+        try {
+            input.close();
+        } catch (IOException e) {
+            // 忽略关闭异常
+        }
+        release();
+    }
+
+    private void release() {
+        if (released.compareAndSet(false, true)) {
+            onRelease.run();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.demo.processmanager.utils;
+
+import java.io.IOException;
+
+/**
+ * 命令被拒绝执行异常
+ * 同时运行的子进程数量已达上限，且在等待时间内没有空闲名额
+ */
+public class CommandRejectedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CommandRejectedException(String command, int maxConcurrent) {
+        super("同时执行的命令数已达上限（" + maxConcurrent + "），拒绝执行: " + command);
+    }
+}
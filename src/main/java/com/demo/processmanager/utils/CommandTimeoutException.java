@@ -0,0 +1,27 @@
+package com.demo.processmanager.utils;
+
+import java.io.IOException;
+
+/**
+ * 命令执行超时异常
+ * 命令在超时时间内没有结束，已被强制终止
+ */
+public class CommandTimeoutException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long timeoutMillis;
+
+    public CommandTimeoutException(String command, long timeoutMillis) {
+        super("命令执行超时（" + timeoutMillis + "ms），已强制终止: " + command);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 获取超时时间
+     * @return 超时时间（毫秒）
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
@@ -0,0 +1,18 @@
+package com.demo.processmanager.utils;
+
+/**
+ * 命令输出行的回调
+ * 在读取命令输出的线程上按顺序逐行调用，回调返回之前不会读取下一行，子进程写满管道后会等待，
+ * 因此处理较慢时自然形成背压
+ */
+@FunctionalInterface
+public interface LineConsumer {
+
+    /**
+     * 处理一行输出
+     * 行内容是复用缓冲区上的视图，只在本次调用期间有效，需要保留时调用toString()复制
+     * @param line 不含换行符的非空行
+     * @return 继续读取返回true；返回false时停止读取并终止命令
+     */
+    boolean accept(CharSequence line);
+}
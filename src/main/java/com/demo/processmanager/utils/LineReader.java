@@ -0,0 +1,138 @@
+package com.demo.processmanager.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * 按行读取字符流，当前行以复用缓冲区上的CharSequence视图提供，读取过程中不为每行创建String
+ * 行末的\r\n或\n不包含在行内容中；非线程安全
+ */
+final class LineReader implements CharSequence {
+
+    private final Reader reader;
+    private char[] buffer = new char[8192];
+    private int position;   // 未处理数据的起始位置
+    private int limit;      // 已读入数据的结束位置
+    private int lineStart;
+    private int lineEnd;
+    private boolean eof;
+
+    LineReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * 移动到下一行
+     * @return 读到新的一行返回true，输入结束返回false
+     * @throws IOException 如果读取失败
+     */
+    boolean next() throws IOException {
+        int scan = position;
+        while (true) {
+            for (int i = scan; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    setLine(position, i);
+                    position = i + 1;
+                    return true;
+                }
+            }
+            if (eof) {
+                if (position < limit) {
+                    // 最后一行没有换行符
+                    setLine(position, limit);
+                    position = limit;
+                    return true;
+                }
+                return false;
+            }
+            scan = limit - position;
+            fill();
+        }
+    }
+
+    /**
+     * 当前行是否只包含空白字符
+     */
+    boolean isBlank() {
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (!Character.isWhitespace(buffer[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 丢弃已处理的数据并继续读入，缓冲区已满时扩容
+     */
+    private void fill() throws IOException {
+        int remaining = limit - position;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+            position = 0;
+            limit = remaining;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int n = reader.read(buffer, limit, buffer.length - limit);
+        if (n < 0) {
+            eof = true;
+        } else {
+            limit += n;
+        }
+    }
+
+    private void setLine(int start, int end) {
+        if (end > start && buffer[end - 1] == '\r') {
+            end--;
+        }
+        lineStart = start;
+        lineEnd = end;
+    }
+
+    /**
+     * 判断当前行是否以指定前缀开头
+     */
+    boolean startsWith(String prefix) {
+        if (prefix.length() > length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer[lineStart + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int length() {
+        return lineEnd - lineStart;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= lineEnd - lineStart) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + (lineEnd - lineStart));
+        }
+        return buffer[lineStart + index];
+    }
+
+    /**
+     * 返回子串的副本，读取下一行后仍然有效
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > lineEnd - lineStart || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", Length: " + (lineEnd - lineStart));
+        }
+        return new String(buffer, lineStart + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, lineStart, lineEnd - lineStart);
+    }
+}
@@ -0,0 +1,114 @@
+package com.demo.processmanager.utils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 常驻shell会话
+ * 通过stdin向同一个sh进程依次发送命令，并在每条命令输出末尾打印哨兵行标记结束，从而省去每条命令的进程创建开销
+ *
+ * 会话中命令的stdin被重定向到/dev/null，stderr被丢弃；非线程安全，由ShellSessionPool保证同一时刻只有一个调用方使用
+ */
+class ShellSession {
+
+    private final String sentinel;
+    private Process process;
+    private LineReader reader;
+    private Writer writer;
+
+    ShellSession() {
+        this.sentinel = "__PM_END_" + Long.toHexString(ThreadLocalRandom.current().nextLong()) + "__";
+    }
+
+    /**
+     * 在会话中执行命令并逐行处理输出
+     * 回调返回false后，剩余输出被读取并丢弃直到哨兵行，会话保持可用，不检查命令的退出码
+     * @param command 要执行的命令
+     * @param timeoutMillis 超时时间（毫秒）
+     * @param consumer 输出行的回调，空白行不会传入
+     * @return 输出被完整处理返回true，回调提前结束时返回false
+     * @throws CommandTimeoutException 如果命令执行超时
+     * @throws IOException 如果命令执行失败或会话异常
+     */
+    boolean execute(String command, long timeoutMillis, LineConsumer consumer) throws IOException {
+        ensureStarted();
+
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        Process current = process;
+        ScheduledFuture<?> watchdog = CommandExecutor.scheduleTimeout(() -> {
+            timedOut.set(true);
+            CommandExecutor.destroyTree(current);
+        }, timeoutMillis);
+
+        int exitCode = -1;
+        boolean finished = false;
+        boolean consuming = true;
+        try {
+            // 先输出换行保证哨兵位于行首，$?在命令结束后立即保存
+            writer.write("{\n" + command + "\n} < /dev/null\n"
+                    + "__pm_rc=$?; printf '\\n%s %d\\n' '" + sentinel + "' \"$__pm_rc\"\n");
+            writer.flush();
+
+            while (reader.next()) {
+                if (reader.startsWith(sentinel)) {
+                    exitCode = Integer.parseInt(reader.subSequence(sentinel.length(), reader.length()).toString().trim());
+                    finished = true;
+                    break;
+                }
+                if (consuming && !reader.isBlank()) {
+                    consuming = consumer.accept(reader);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // 被看门狗终止时读写会抛出流已关闭异常，按会话退出处理
+        } catch (RuntimeException e) {
+            // 回调抛出异常时剩余输出没有读取，会话不能继续使用
+            close();
+            throw e;
+        } finally {
+            watchdog.cancel(false);
+        }
+
+        if (!finished || timedOut.get()) {
+            // 未读到哨兵说明shell已退出（超时被终止或命令中调用了exit），下次使用时自动重启；
+            // 超时时看门狗先终止命令的子进程，shell被终止之前仍可能输出哨兵，同样按超时处理
+            close();
+            if (timedOut.get()) {
+                throw new CommandTimeoutException(command, timeoutMillis);
+            }
+            throw new IOException("shell会话意外退出: " + command);
+        }
+        if (consuming && exitCode != 0) {
+            throw new IOException("命令执行失败，退出码: " + exitCode);
+        }
+        return consuming;
+    }
+
+    /**
+     * 关闭会话并终止shell进程
+     */
+    void close() {
+        if (process != null) {
+            CommandExecutor.destroyTree(process);
+            process = null;
+        }
+    }
+
+    private void ensureStarted() throws IOException {
+        if (process != null && process.isAlive()) {
+            return;
+        }
+        ProcessBuilder processBuilder = new ProcessBuilder("sh");
+        processBuilder.redirectError(ProcessBuilder.Redirect.DISCARD);
+        process = processBuilder.start();
+        Charset charset = Charset.defaultCharset();
+        reader = new LineReader(new InputStreamReader(process.getInputStream(), charset));
+        writer = new OutputStreamWriter(process.getOutputStream(), charset);
+    }
+}
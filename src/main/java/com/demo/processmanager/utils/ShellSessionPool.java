@@ -0,0 +1,87 @@
+package com.demo.processmanager.utils;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 常驻shell会话池
+ * 固定数量的会话按需启动，调用方独占一个会话执行命令，会话退出后在下次使用时自动重启
+ */
+class ShellSessionPool {
+
+    private final BlockingQueue<ShellSession> idle;
+    private final int size;
+    private volatile boolean closed;
+
+    /**
+     * @param size 会话数量
+     */
+    ShellSessionPool(int size) {
+        this.size = size;
+        this.idle = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            idle.add(new ShellSession());
+        }
+    }
+
+    /**
+     * 从池中取出一个会话执行命令，逐行处理输出
+     * @param command 要执行的命令
+     * @param timeoutMillis 命令超时时间（毫秒）
+     * @param acquireTimeoutMillis 等待空闲会话的最长时间（毫秒）
+     * @param consumer 输出行的回调
+     * @return 输出被完整处理返回true，回调提前结束时返回false
+     * @throws CommandRejectedException 如果等待时间内没有空闲会话
+     * @throws IOException 如果命令执行失败或会话池已关闭
+     */
+    boolean execute(String command, long timeoutMillis, long acquireTimeoutMillis, LineConsumer consumer)
+            throws IOException {
+        if (closed) {
+            throw new IOException("shell会话池已关闭");
+        }
+        ShellSession session;
+        try {
+            session = idle.poll(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待shell会话时被中断", e);
+        }
+        if (session == null) {
+            throw new CommandRejectedException(command, size);
+        }
+
+        try {
+            return session.execute(command, timeoutMillis, consumer);
+        } finally {
+            release(session);
+        }
+    }
+
+    /**
+     * 归还会话，会话池已关闭时终止会话而不是放回池中
+     */
+    private void release(ShellSession session) {
+        if (closed) {
+            session.close();
+            return;
+        }
+        idle.add(session);
+        // close()可能在检查之后、放回之前清空了空闲队列
+        if (closed && idle.remove(session)) {
+            session.close();
+        }
+    }
+
+    /**
+     * 关闭会话池并终止所有空闲会话，执行中的会话在命令结束后终止
+     */
+    void close() {
+        closed = true;
+        ShellSession session;
+        while ((session = idle.poll()) != null) {
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.demo.processmanager.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Top-K选择工具
+ * 使用大小为k的最小堆选出最大的k个元素，时间复杂度O(n log k)，不对完整数据排序或复制；
+ * 基于下标的版本只在堆中保存int下标，选择过程中不为单个元素分配对象
+ */
+public final class TopK {
+
+    /**
+     * 按下标比较两个元素
+     */
+    @FunctionalInterface
+    public interface IndexComparator {
+        /**
+         * @param a 第一个元素的下标
+         * @param b 第二个元素的下标
+         * @return 负数、0、正数分别表示a小于、等于、大于b
+         */
+        int compare(int a, int b);
+    }
+
+    private TopK() {
+    }
+
+    /**
+     * 从下标[0, size)中选出最大的k个元素
+     * 值相同时下标较小的元素优先
+     * @param size 元素数量
+     * @param k 需要选出的数量
+     * @param comparator 下标比较器
+     * @return 按从大到小排列的下标，长度为min(k, size)
+     */
+    public static int[] select(int size, int k, IndexComparator comparator) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k不能小于0: " + k);
+        }
+        int capacity = Math.min(k, size);
+        int[] heap = new int[capacity];
+        if (capacity == 0) {
+            return heap;
+        }
+
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (count < capacity) {
+                heap[count] = i;
+                siftUp(heap, count, comparator);
+                count++;
+            } else if (worse(heap[0], i, comparator)) {
+                // 当前元素优于堆中最差的元素，替换堆顶
+                heap[0] = i;
+                siftDown(heap, 0, count, comparator);
+            }
+        }
+
+        // 依次取出堆顶（最差的元素）放到末尾，得到从大到小的顺序
+        for (int end = count - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, 0, end, comparator);
+        }
+        return heap;
+    }
+
+    /**
+     * 从列表中选出最大的k个元素
+     * 值相同时在列表中靠前的元素优先
+     * @param items 元素列表，建议为RandomAccess列表
+     * @param k 需要选出的数量
+     * @param comparator 元素比较器
+     * @return 按从大到小排列的新列表
+     */
+    public static <T> List<T> select(List<T> items, int k, Comparator<? super T> comparator) {
+        int[] indices = select(items.size(), k, (a, b) -> comparator.compare(items.get(a), items.get(b)));
+        List<T> result = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            result.add(items.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * 判断下标a对应的元素是否比b差：值更小，或值相同但下标更大
+     */
+    private static boolean worse(int a, int b, IndexComparator comparator) {
+        int result = comparator.compare(a, b);
+        return result < 0 || (result == 0 && a > b);
+    }
+
+    private static void siftUp(int[] heap, int position, IndexComparator comparator) {
+        int item = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!worse(item, heap[parent], comparator)) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = item;
+    }
+
+    private static void siftDown(int[] heap, int position, int count, IndexComparator comparator) {
+        int item = heap[position];
+        int half = count >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < count && worse(heap[right], heap[child], comparator)) {
+                child = right;
+            }
+            if (!worse(heap[child], item, comparator)) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = item;
+    }
+}
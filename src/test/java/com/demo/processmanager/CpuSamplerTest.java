@@ -0,0 +1,142 @@
+package com.demo.processmanager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CpuSamplerTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long SECOND = 1_000_000_000L;
+
+    private final CpuSampler sampler = new CpuSampler();
+
+    @Test
+    public void cpuIsDeltaOverInterval() {
+        sampler.apply(Arrays.asList(process(1, START, 0)), 0);
+
+        ProcessInfo process = process(1, START, 500);
+        sampler.apply(Arrays.asList(process), SECOND);
+        assertEquals(50.0, process.getCpu(), 0);
+
+        // 多核进程可以超过100%
+        process = process(1, START, 2500);
+        sampler.apply(Arrays.asList(process), 2 * SECOND);
+        assertEquals(200.0, process.getCpu(), 0);
+    }
+
+    @Test
+    public void firstSampleKeepsBackendValue() {
+        ProcessInfo process = process(1, START, 500);
+        process.setCpu(3.5);
+        sampler.apply(Arrays.asList(process), 0);
+        assertEquals(3.5, process.getCpu(), 0);
+    }
+
+    @Test
+    public void intervalIsPerPid() {
+        sampler.apply(Arrays.asList(process(1, START, 0), process(2, START, 0)), 0);
+
+        // 部分查询只更新PID 1的基准
+        ProcessInfo partial = process(1, START, 1000);
+        sampler.merge(Arrays.asList(partial), SECOND);
+        assertEquals(100.0, partial.getCpu(), 0);
+
+        ProcessInfo first = process(1, START, 1500);
+        ProcessInfo second = process(2, START, 1000);
+        sampler.apply(Arrays.asList(first, second), 2 * SECOND);
+        // PID 1与部分查询比较，间隔1秒；PID 2与完整快照比较，间隔2秒
+        assertEquals(50.0, first.getCpu(), 0);
+        assertEquals(50.0, second.getCpu(), 0);
+    }
+
+    @Test
+    public void reusedPidStartsNewBaseline() {
+        sampler.apply(Arrays.asList(process(1, START, 10_000)), 0);
+
+        // 启动时间不同，累计CPU时间不能与原进程比较
+        ProcessInfo reused = process(1, START + 60_000, 300);
+        reused.setCpu(7.0);
+        sampler.apply(Arrays.asList(reused), SECOND);
+        assertEquals(7.0, reused.getCpu(), 0);
+
+        ProcessInfo next = process(1, START + 60_000, 800);
+        sampler.apply(Arrays.asList(next), 2 * SECOND);
+        assertEquals(50.0, next.getCpu(), 0);
+    }
+
+    @Test
+    public void reusedPidInPartialQuery() {
+        sampler.merge(Arrays.asList(process(1, START, 10_000)), 0);
+
+        ProcessInfo reused = process(1, START + 60_000, 300);
+        sampler.merge(Arrays.asList(reused), SECOND);
+        assertEquals(0.0, reused.getCpu(), 0);
+
+        ProcessInfo next = process(1, START + 60_000, 550);
+        sampler.merge(Arrays.asList(next), 2 * SECOND);
+        assertEquals(25.0, next.getCpu(), 0);
+    }
+
+    @Test
+    public void shortIntervalKeepsBaseline() {
+        sampler.apply(Arrays.asList(process(1, START, 0)), 0);
+
+        ProcessInfo tooSoon = process(1, START, 100);
+        tooSoon.setCpu(1.0);
+        sampler.apply(Arrays.asList(tooSoon), 5_000_000L);
+        assertEquals(1.0, tooSoon.getCpu(), 0);
+
+        ProcessInfo later = process(1, START, 500);
+        sampler.apply(Arrays.asList(later), SECOND);
+        assertEquals(50.0, later.getCpu(), 0);
+    }
+
+    @Test
+    public void partialQueriesPruneMissingPids() {
+        sampler.merge(Arrays.asList(process(1, START, 0), process(2, START, 0)), 0);
+        assertEquals(2, sampler.size());
+
+        long now = 0;
+        for (int i = 0; i < 2 * CpuSampler.MAX_MISSED_MERGES; i++) {
+            now += SECOND;
+            sampler.merge(Arrays.asList(process(2, START, 0)), now);
+        }
+        // PID 1长期没有出现，基准被移除；PID 2仍然保留
+        assertEquals(1, sampler.size());
+        ProcessInfo kept = process(2, START, 1000);
+        sampler.merge(Arrays.asList(kept), now + SECOND);
+        assertEquals(100.0, kept.getCpu(), 0);
+
+        ProcessInfo returned = process(1, START, 1000);
+        sampler.merge(Arrays.asList(returned), now + SECOND);
+        assertEquals(0.0, returned.getCpu(), 0);
+    }
+
+    @Test
+    public void fullSnapshotDropsExitedPids() {
+        List<ProcessInfo> processes = new ArrayList<>();
+        for (int pid = 1; pid <= 300; pid++) {
+            processes.add(process(pid, START, 0));
+        }
+        sampler.merge(processes, 0);
+        assertEquals(300, sampler.size());
+
+        sampler.apply(Arrays.asList(process(7, START, 0)), SECOND);
+        assertEquals(1, sampler.size());
+        // 完整快照之后的部分查询仍可追加新的PID
+        sampler.merge(Arrays.asList(process(7, START, 500), process(8, START, 0)), 2 * SECOND);
+        assertEquals(2, sampler.size());
+    }
+
+    private static ProcessInfo process(long pid, long startTimeMillis, long cpuTimeMillis) {
+        ProcessInfo process = new ProcessInfo(pid, "p" + pid, 0, 0, null);
+        process.setStartTimeMillis(startTimeMillis);
+        process.setCpuTimeMillis(cpuTimeMillis);
+        return process;
+    }
+}
@@ -0,0 +1,103 @@
+package com.demo.processmanager;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 使用短时间运行的sleep进程验证ExitWatcher
+ */
+public class ExitWatcherTest {
+
+    private final ExitWatcher watcher = new ExitWatcher(20);
+    private final List<Process> started = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (Process process : started) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+        }
+    }
+
+    @Test
+    public void completesForShortLivedChild() throws Exception {
+        Process child = start("sleep", "0.3");
+        CompletableFuture<Long> exit = watcher.watch(child.pid());
+
+        assertFalse(exit.isDone());
+        assertEquals(child.pid(), exit.get(5, TimeUnit.SECONDS).longValue());
+        // 直接子进程由onExit()通知，不进入轮询
+        assertEquals(0, watcher.size());
+    }
+
+    @Test
+    public void completesForNonChildByPolling() throws Exception {
+        // 后台的sleep是sh的子进程，不是当前JVM的子进程
+        long pid = startGrandchild("0.3");
+        CompletableFuture<Long> exit = watcher.watch(pid);
+        CompletableFuture<Long> second = watcher.watch(pid);
+
+        assertEquals(1, watcher.size());
+        assertEquals(pid, exit.get(5, TimeUnit.SECONDS).longValue());
+        assertEquals(pid, second.get(5, TimeUnit.SECONDS).longValue());
+        awaitSize(0);
+    }
+
+    @Test
+    public void missingProcessCompletesImmediately() {
+        CompletableFuture<Long> exit = watcher.watch(Integer.MAX_VALUE);
+        assertTrue(exit.isDone());
+        assertEquals(0, watcher.size());
+    }
+
+    @Test
+    public void cancelledWatchIsDropped() throws Exception {
+        long pid = startGrandchild("30");
+        CompletableFuture<Long> kept = watcher.watch(pid);
+        CompletableFuture<Long> cancelled = watcher.watch(pid);
+        cancelled.cancel(false);
+
+        // 还有调用方在等待，进程继续被检查
+        Thread.sleep(100);
+        assertEquals(1, watcher.size());
+        assertFalse(kept.isDone());
+
+        kept.cancel(false);
+        awaitSize(0);
+    }
+
+    private Process start(String... command) throws IOException {
+        Process process = new ProcessBuilder(command).start();
+        started.add(process);
+        return process;
+    }
+
+    private long startGrandchild(String seconds) throws IOException {
+        Process shell = start("sh", "-c", "sleep " + seconds + " & echo $!; wait");
+        BufferedReader reader = new BufferedReader(new InputStreamReader(shell.getInputStream()));
+        return Long.parseLong(reader.readLine().trim());
+    }
+
+    private void awaitSize(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (watcher.size() != expected) {
+            if (System.nanoTime() > deadline) {
+                fail("被监视的进程数没有变为" + expected + ": " + watcher.size());
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.demo.processmanager;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class IoRateSamplerTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long SECOND = 1_000_000_000L;
+
+    private final IoRateSampler sampler = new IoRateSampler();
+
+    @Test
+    public void rateIsDeltaOverInterval() {
+        ProcessInfo first = process(1, START, 0, 0);
+        sampler.apply(Arrays.asList(first), 0);
+        assertEquals(-1, first.getDetails().getReadBytesPerSecond(), 0);
+
+        ProcessInfo second = process(1, START, 4096, 1024);
+        sampler.apply(Arrays.asList(second), 2 * SECOND);
+        assertEquals(2048, second.getDetails().getReadBytesPerSecond(), 0);
+        assertEquals(512, second.getDetails().getWriteBytesPerSecond(), 0);
+    }
+
+    @Test
+    public void intervalIsPerPid() {
+        sampler.apply(Arrays.asList(process(1, START, 0, 0), process(2, START, 0, 0)), 0);
+        sampler.merge(Arrays.asList(process(1, START, 1000, 0)), SECOND);
+
+        ProcessInfo first = process(1, START, 1500, 0);
+        ProcessInfo second = process(2, START, 1000, 0);
+        sampler.apply(Arrays.asList(first, second), 2 * SECOND);
+        assertEquals(500, first.getDetails().getReadBytesPerSecond(), 0);
+        assertEquals(500, second.getDetails().getReadBytesPerSecond(), 0);
+    }
+
+    @Test
+    public void reusedPidStartsNewBaseline() {
+        sampler.merge(Arrays.asList(process(1, START, 1_000_000, 0)), 0);
+
+        ProcessInfo reused = process(1, START + 60_000, 100, 0);
+        sampler.merge(Arrays.asList(reused), SECOND);
+        assertEquals(-1, reused.getDetails().getReadBytesPerSecond(), 0);
+
+        ProcessInfo next = process(1, START + 60_000, 600, 0);
+        sampler.merge(Arrays.asList(next), 2 * SECOND);
+        assertEquals(500, next.getDetails().getReadBytesPerSecond(), 0);
+    }
+
+    @Test
+    public void partialQueriesPruneMissingPids() {
+        sampler.merge(Arrays.asList(process(1, START, 0, 0), process(2, START, 0, 0)), 0);
+        assertEquals(2, sampler.size());
+
+        long now = 0;
+        for (int i = 0; i < 2 * CpuSampler.MAX_MISSED_MERGES; i++) {
+            now += SECOND;
+            sampler.merge(Arrays.asList(process(2, START, 0, 0)), now);
+        }
+        assertEquals(1, sampler.size());
+        ProcessInfo kept = process(2, START, 100, 0);
+        sampler.merge(Arrays.asList(kept), now + SECOND);
+        assertEquals(100, kept.getDetails().getReadBytesPerSecond(), 0);
+    }
+
+    private static ProcessInfo process(long pid, long startTimeMillis, long readBytes, long writeBytes) {
+        ProcessInfo process = new ProcessInfo(pid, "p" + pid, 0, 0, null);
+        process.setStartTimeMillis(startTimeMillis);
+        ProcessDetails details = new ProcessDetails();
+        details.setReadBytes(readBytes);
+        details.setWriteBytes(writeBytes);
+        process.setDetails(details);
+        return process;
+    }
+}
@@ -0,0 +1,102 @@
+package com.demo.processmanager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProcessTreeTest {
+
+    @Test
+    public void buildsTreeAndAggregatesSubtrees() {
+        ProcessTree tree = ProcessTree.of(Arrays.asList(
+                process(1, 0, 1.0, 100),
+                process(2, 1, 2.0, 200),
+                process(3, 2, 4.0, 400),
+                process(4, 1, 8.0, 800),
+                // 父进程不在快照中
+                process(5, 99, 16.0, 1600)));
+
+        assertEquals(5, tree.size());
+        assertEquals(Arrays.asList(1L, 5L), pids(tree.getRoots()));
+        assertEquals(Arrays.asList(2L, 4L), pids(tree.getChildren(1)));
+        assertEquals(Arrays.asList(2L, 3L, 4L), pids(tree.getDescendants(1)));
+        assertEquals(Arrays.asList(2L, 1L), pids(tree.getAncestors(3)));
+        assertEquals(2, tree.getParent(3).getPid());
+        assertNull(tree.getParent(5));
+
+        assertEquals(4, tree.getSubtreeSize(1));
+        assertEquals(15.0, tree.getSubtreeCpu(1), 1e-9);
+        assertEquals(1500, tree.getSubtreeMemoryBytes(1));
+        assertEquals(2, tree.getSubtreeSize(2));
+        assertEquals(0, tree.getSubtreeSize(42));
+    }
+
+    @Test
+    public void breaksParentCycles() {
+        // PID复用且启动时间未知时，父子关系可能形成环
+        ProcessTree tree = ProcessTree.of(Arrays.asList(
+                process(1, 0, 0, 0),
+                process(10, 12, 0, 0),
+                process(11, 10, 0, 0),
+                process(12, 11, 0, 0),
+                process(13, 12, 0, 0)));
+
+        assertEquals(Arrays.asList(1L, 10L), pids(tree.getRoots()));
+        assertEquals(Arrays.asList(11L, 12L, 13L), pids(tree.getDescendants(10)));
+        assertEquals(Arrays.asList(12L, 11L, 10L), pids(tree.getAncestors(13)));
+        assertEquals(4, tree.getSubtreeSize(10));
+
+        List<Long> visited = new ArrayList<>();
+        tree.forEachInSubtree(10, process -> visited.add(process.getPid()));
+        assertEquals(Arrays.asList(10L, 11L, 12L, 13L), visited);
+    }
+
+    @Test
+    public void selfParentIsRoot() {
+        // Windows的System Idle Process的父进程是它自己
+        ProcessTree tree = ProcessTree.of(Arrays.asList(
+                process(0, 0, 0, 0),
+                process(4, 0, 0, 0)));
+
+        assertEquals(Arrays.asList(0L), pids(tree.getRoots()));
+        assertEquals(Arrays.asList(4L), pids(tree.getChildren(0)));
+    }
+
+    @Test
+    public void reusedParentPidIsIgnored() {
+        ProcessInfo parent = process(100, 1, 0, 0);
+        parent.setStartTimeMillis(1_700_000_100_000L);
+        // 子进程早于"父进程"启动，说明原父进程已退出且PID被复用
+        ProcessInfo orphan = process(200, 100, 0, 0);
+        orphan.setStartTimeMillis(1_700_000_000_000L);
+        ProcessInfo child = process(300, 100, 0, 0);
+        child.setStartTimeMillis(1_700_000_100_500L);
+
+        ProcessTree tree = ProcessTree.of(Arrays.asList(parent, orphan, child));
+
+        assertEquals(Arrays.asList(100L, 200L), pids(tree.getRoots()));
+        assertEquals(Arrays.asList(300L), pids(tree.getChildren(100)));
+        assertTrue(tree.getChildren(200).isEmpty());
+    }
+
+    private static ProcessInfo process(long pid, long parentPid, double cpu, long memoryBytes) {
+        ProcessInfo process = new ProcessInfo(pid, "p" + pid, cpu, 0, null);
+        process.setParentPid(parentPid);
+        process.setMemoryBytes(memoryBytes);
+        return process;
+    }
+
+    private static List<Long> pids(List<ProcessInfo> processes) {
+        List<Long> pids = new ArrayList<>();
+        for (ProcessInfo process : processes) {
+            pids.add(process.getPid());
+        }
+        return pids;
+    }
+}
@@ -0,0 +1,123 @@
+package com.demo.processmanager;
+
+import com.demo.processmanager.event.ProcessChanged;
+import com.demo.processmanager.event.ProcessEvent;
+import com.demo.processmanager.event.ProcessExited;
+import com.demo.processmanager.event.ProcessStarted;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotDifferTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private final SnapshotDiffer differ = new SnapshotDiffer();
+
+    @Test
+    public void firstSnapshotOnlyBuildsBaseline() {
+        assertTrue(differ.diff(Arrays.asList(process(1, START, 0, 10))).isEmpty());
+        assertTrue(differ.diff(Arrays.asList(process(1, START, 0, 10))).isEmpty());
+    }
+
+    @Test
+    public void detectsStartedAndExited() {
+        ProcessInfo exiting = process(2, START, 0, 10);
+        differ.diff(Arrays.asList(process(1, START, 0, 10), exiting));
+
+        ProcessInfo started = process(3, START + 5_000, 0, 10);
+        List<ProcessEvent> events = differ.diff(Arrays.asList(process(1, START, 0, 10), started));
+
+        assertEquals(2, events.size());
+        assertTrue(events.get(0) instanceof ProcessStarted);
+        assertSame(started, events.get(0).getProcess());
+        // 退出事件携带上一次快照中的进程信息
+        assertTrue(events.get(1) instanceof ProcessExited);
+        assertSame(exiting, events.get(1).getProcess());
+    }
+
+    @Test
+    public void reusedPidIsExitedPlusStarted() {
+        differ.diff(Arrays.asList(process(42, START, 0, 10)));
+
+        // 同一PID的启动时间不同，说明原进程已退出、PID被新进程复用
+        List<ProcessEvent> events = differ.diff(Arrays.asList(process(42, START + 60_000, 0, 10)));
+
+        assertEquals(2, events.size());
+        assertTrue(events.get(0) instanceof ProcessStarted);
+        assertEquals(START + 60_000, events.get(0).getProcess().getStartTimeMillis());
+        assertTrue(events.get(1) instanceof ProcessExited);
+        assertEquals(START, events.get(1).getProcess().getStartTimeMillis());
+    }
+
+    @Test
+    public void startTimeJitterIsSameProcess() {
+        // ps的etime精度为秒，换算出的启动时间可能有误差
+        differ.diff(Arrays.asList(process(42, START, 0, 10)));
+        assertTrue(differ.diff(Arrays.asList(process(42, START + 1_000, 0, 10))).isEmpty());
+    }
+
+    @Test
+    public void changedOnlyWhenThresholdIsCrossed() {
+        differ.setThresholds(50, 100);
+        differ.diff(Arrays.asList(process(1, START, 10, 10)));
+
+        // 低于阈值的波动不产生事件
+        assertTrue(differ.diff(Arrays.asList(process(1, START, 40, 90))).isEmpty());
+
+        List<ProcessEvent> events = differ.diff(Arrays.asList(process(1, START, 60, 90)));
+        assertEquals(1, events.size());
+        ProcessChanged changed = (ProcessChanged) events.get(0);
+        assertEquals(40, changed.getPreviousCpu(), 0);
+        assertEquals(60, changed.getProcess().getCpu(), 0);
+
+        // 向下越过阈值同样产生事件
+        events = differ.diff(Arrays.asList(process(1, START, 60, 120)));
+        assertEquals(1, events.size());
+        assertEquals(90, ((ProcessChanged) events.get(0)).getPreviousMemory());
+        events = differ.diff(Arrays.asList(process(1, START, 10, 120)));
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    public void noChangedEventsWithoutThresholds() {
+        differ.diff(Arrays.asList(process(1, START, 0, 10)));
+        assertTrue(differ.diff(Arrays.asList(process(1, START, 99, 4096))).isEmpty());
+    }
+
+    @Test
+    public void resetStartsNewBaseline() {
+        differ.diff(Arrays.asList(process(1, START, 0, 10)));
+        differ.reset();
+
+        assertTrue(differ.diff(Collections.<ProcessInfo>emptyList()).isEmpty());
+        List<ProcessEvent> events = differ.diff(Arrays.asList(process(2, START, 0, 10)));
+        assertEquals(1, events.size());
+        assertTrue(events.get(0) instanceof ProcessStarted);
+    }
+
+    @Test
+    public void shrinkingAndGrowingSnapshots() {
+        differ.diff(Arrays.asList(process(1, START, 0, 10), process(2, START, 0, 10), process(3, START, 0, 10)));
+        assertEquals(2, differ.diff(Arrays.asList(process(2, START, 0, 10))).size());
+        // 缓冲区交替复用，之前的快照内容不能残留
+        List<ProcessEvent> events = differ.diff(Arrays.asList(
+                process(2, START, 0, 10), process(4, START, 0, 10), process(5, START, 0, 10), process(6, START, 0, 10)));
+        assertEquals(3, events.size());
+        for (ProcessEvent event : events) {
+            assertTrue(event instanceof ProcessStarted);
+        }
+    }
+
+    private static ProcessInfo process(long pid, long startTimeMillis, double cpu, long memoryMB) {
+        ProcessInfo process = new ProcessInfo(pid, "p" + pid, cpu, memoryMB, null);
+        process.setStartTimeMillis(startTimeMillis);
+        return process;
+    }
+}
@@ -0,0 +1,30 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.SystemStats;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CpuStatsReaderTest {
+
+    @Test
+    public void parseLoadAverage() {
+        SystemStats stats = new SystemStats();
+        CpuStatsReader.parseLoadAverage("{ 1.52 1.68 1.73 }", stats);
+
+        assertEquals(1.52, stats.getLoadAverage1(), 0);
+        assertEquals(1.68, stats.getLoadAverage5(), 0);
+        assertEquals(1.73, stats.getLoadAverage15(), 0);
+    }
+
+    @Test
+    public void malformedLoadAverageKeepsJmxValue() {
+        SystemStats stats = new SystemStats();
+        stats.setLoadAverage1(0.5);
+
+        CpuStatsReader.parseLoadAverage(null, stats);
+        CpuStatsReader.parseLoadAverage("{ 1.52 }", stats);
+        CpuStatsReader.parseLoadAverage("{ 1.52 x 1.73 }", stats);
+        assertEquals(0.5, stats.getLoadAverage1(), 0);
+    }
+}
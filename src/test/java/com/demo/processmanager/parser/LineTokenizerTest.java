@@ -0,0 +1,109 @@
+package com.demo.processmanager.parser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LineTokenizerTest {
+
+    @Test
+    public void splitsOnWhitespace() {
+        LineTokenizer t = new LineTokenizer().reset("  123\t 45  \t");
+
+        assertTrue(t.next());
+        assertEquals("123", t.tokenString());
+        assertEquals(2, t.tokenStart());
+        assertEquals(5, t.tokenEnd());
+        assertTrue(t.next());
+        assertEquals(45, t.parseLong());
+        assertFalse(t.next());
+        assertFalse(t.rest());
+    }
+
+    @Test
+    public void restKeepsInnerSpaces() {
+        LineTokenizer t = new LineTokenizer().reset("1   Web Content  ");
+
+        assertTrue(t.next());
+        assertTrue(t.rest());
+        assertEquals("Web Content", t.tokenString());
+        assertFalse(t.next());
+    }
+
+    @Test
+    public void reusableAcrossLines() {
+        LineTokenizer t = new LineTokenizer();
+        t.reset("first line");
+        assertTrue(t.next());
+        t.reset("x");
+        assertTrue(t.next());
+        assertEquals("x", t.tokenString());
+        assertFalse(t.next());
+    }
+
+    @Test
+    public void parseLong() {
+        LineTokenizer t = new LineTokenizer().reset("0 4294967296 - 12a");
+
+        assertTrue(t.next());
+        assertEquals(0, t.parseLong());
+        assertTrue(t.next());
+        assertEquals(4294967296L, t.parseLong());
+        assertTrue(t.next());
+        assertFalse(t.isLong());
+        assertTrue(t.next());
+        assertFalse(t.isLong());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseLongRejectsDash() {
+        LineTokenizer t = new LineTokenizer().reset("-");
+        t.next();
+        t.parseLong();
+    }
+
+    @Test
+    public void parseDoubleMatchesJdk() {
+        String[] values = {"0.0", "12.5", "100", "0.1", "3.", "99.99", "1234567.891", "1e3", "12345678901234567890.5"};
+        LineTokenizer t = new LineTokenizer();
+        for (String value : values) {
+            t.reset(value).next();
+            assertEquals(value, Double.parseDouble(value), t.parseDouble(), 0);
+        }
+    }
+
+    @Test
+    public void parseDoubleLongMantissaMatchesJdk() {
+        // 17位尾数超过2^53，先转换为double再相除会舍入两次
+        String[] values = {"128658.76030345843", "80216379.375876869", "5593775950389580.4", "999999999999999.9"};
+        LineTokenizer t = new LineTokenizer();
+        for (String value : values) {
+            t.reset(value).next();
+            assertEquals(value, Double.parseDouble(value), t.parseDouble(), 0);
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseDoubleRejectsNonNumber() {
+        LineTokenizer t = new LineTokenizer().reset("abc");
+        t.next();
+        t.parseDouble();
+    }
+
+    @Test
+    public void parseMillis() {
+        LineTokenizer t = new LineTokenizer().reset("05:07 1:02:03 2-03:04:05 1:23.45");
+
+        assertTrue(t.next());
+        assertEquals(307_000, t.parseMillis());
+        assertTrue(t.next());
+        assertEquals(3_723_000, t.parseMillis());
+        assertTrue(t.next());
+        assertEquals((2 * 86400 + 3 * 3600 + 4 * 60 + 5) * 1000L, t.parseMillis());
+        // macOS的time列带有百分之一秒
+        assertTrue(t.next());
+        assertEquals(83_450, t.parseMillis());
+    }
+}
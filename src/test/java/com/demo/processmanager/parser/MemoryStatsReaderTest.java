@@ -0,0 +1,81 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.SystemStats;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 使用录制的macOS vm_stat和sysctl vm.swapusage输出验证内存解析
+ */
+public class MemoryStatsReaderTest {
+
+    private static final long GB = 1024L * 1024 * 1024;
+
+    @Test
+    public void parseVmStatWithTotalMemory() throws IOException {
+        SystemStats stats = new SystemStats();
+        MemoryStatsReader.parseVmStat(readFixture("vm_stat.txt"), 16 * GB, stats);
+
+        // 已用 = (活跃 + 联动 + 压缩器占用) * 16KB页
+        long used = (400_000L + 150_000 + 50_000) * 16384;
+        assertEquals(16 * GB, stats.getTotalMemory());
+        assertEquals(used, stats.getUsedMemory());
+        assertEquals(16 * GB - used, stats.getAvailableMemory());
+        assertEquals(300_000L * 16384, stats.getCachedMemory());
+        assertEquals(used * 100.0 / (16 * GB), stats.getMemUsage(), 1e-9);
+    }
+
+    @Test
+    public void parseVmStatWithoutTotalMemory() throws IOException {
+        SystemStats stats = new SystemStats();
+        MemoryStatsReader.parseVmStat(readFixture("vm_stat.txt"), -1, stats);
+
+        // 总量按各类页数之和估算
+        assertEquals((12_345L + 400_000 + 380_000 + 20_000 + 150_000 + 50_000) * 16384, stats.getTotalMemory());
+    }
+
+    @Test
+    public void parseVmStatWithoutFileBackedPages() {
+        // 较早的系统没有File-backed pages，缓存按非活跃页计算
+        SystemStats stats = new SystemStats();
+        MemoryStatsReader.parseVmStat(Arrays.asList(
+                "Mach Virtual Memory Statistics: (page size of 4096 bytes)",
+                "Pages free:                               1000.",
+                "Pages active:                             2000.",
+                "Pages inactive:                           3000.",
+                "Pages wired down:                         500.",
+                "\"Translation faults\":                 garbage."), -1, stats);
+
+        assertEquals(6500L * 4096, stats.getTotalMemory());
+        assertEquals(2500L * 4096, stats.getUsedMemory());
+        assertEquals(3000L * 4096, stats.getCachedMemory());
+    }
+
+    @Test
+    public void parseSwapUsage() {
+        SystemStats stats = new SystemStats();
+        MemoryStatsReader.parseSwapUsage("total = 2048.00M  used = 1024.50M  free = 1023.50M  (encrypted)", stats);
+        assertEquals(2 * GB, stats.getSwapTotal());
+        assertEquals((long) (1024.5 * 1024 * 1024), stats.getSwapUsed());
+
+        MemoryStatsReader.parseSwapUsage("total = 1.50G  used = 0.00M  free = 1.50G  (encrypted)", stats);
+        assertEquals(3 * GB / 2, stats.getSwapTotal());
+        assertEquals(0, stats.getSwapUsed());
+
+        MemoryStatsReader.parseSwapUsage("", stats);
+        assertEquals(0, stats.getSwapTotal());
+    }
+
+    private static List<String> readFixture(String name) throws IOException {
+        try (InputStream in = MemoryStatsReaderTest.class.getResourceAsStream("/macos/" + name)) {
+            return Arrays.asList(new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n"));
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.CpuUsage;
+import com.demo.processmanager.ProcessField;
+import com.demo.processmanager.ProcessInfo;
+import com.demo.processmanager.ProcessQuery;
+import com.demo.processmanager.ProcessTable;
+import com.demo.processmanager.SystemStats;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 在临时目录中构造/proc文件验证ProcFsReader
+ */
+public class ProcFsReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path root;
+    private ProcFsReader reader;
+
+    @Before
+    public void setUp() throws IOException {
+        root = folder.getRoot().toPath();
+        reader = new ProcFsReader(root);
+        write("loadavg", "0.52 0.58 0.59 1/345 12345\n");
+        write("uptime", "1000.00 1800.00\n");
+    }
+
+    @Test
+    public void firstCpuSampleUsesTotalsSinceBoot() throws IOException {
+        writeStat("cpu  100 0 50 800 50 0 0 0 0 0",
+                "cpu0 50 0 25 400 25 0 0 0 0 0",
+                "cpu1 50 0 25 400 25 0 0 0 0 0");
+        SystemStats stats = new SystemStats();
+        reader.readCpuStats(stats);
+
+        CpuUsage total = stats.getCpuBreakdown();
+        assertEquals(-1, total.getCore());
+        assertEquals(10.0, total.getUser(), 0);
+        assertEquals(5.0, total.getSystem(), 0);
+        assertEquals(80.0, total.getIdle(), 0);
+        assertEquals(5.0, total.getIowait(), 0);
+        assertEquals(15.0, stats.getCpuUsage(), 0);
+        assertEquals(2, stats.getCoreCpuUsage().size());
+        assertEquals(1, stats.getCoreCpuUsage().get(1).getCore());
+
+        assertEquals(0.52, stats.getLoadAverage1(), 0);
+        assertEquals(0.58, stats.getLoadAverage5(), 0);
+        assertEquals(0.59, stats.getLoadAverage15(), 0);
+    }
+
+    @Test
+    public void cpuStatsUseDeltaBetweenSamples() throws Exception {
+        writeStat("cpu  100 0 50 800 50 0 0 0 0 0",
+                "cpu0 50 0 25 400 25 0 0 0 0 0",
+                "cpu1 50 0 25 400 25 0 0 0 0 0");
+        reader.readCpuStats(new SystemStats());
+        Thread.sleep(150);
+
+        writeStat("cpu  200 0 100 1000 100 0 0 0 0 0",
+                "cpu0 150 0 75 400 75 0 0 0 0 0",
+                "cpu1 50 0 25 600 25 0 0 0 0 0");
+        SystemStats stats = new SystemStats();
+        reader.readCpuStats(stats);
+
+        // 增量：user 100，system 50，idle 200，iowait 50
+        CpuUsage total = stats.getCpuBreakdown();
+        assertEquals(25.0, total.getUser(), 0);
+        assertEquals(12.5, total.getSystem(), 0);
+        assertEquals(50.0, total.getIdle(), 0);
+        assertEquals(12.5, total.getIowait(), 0);
+        assertEquals(37.5, stats.getCpuUsage(), 0);
+        assertEquals(0.0, stats.getCoreCpuUsage().get(0).getIdle(), 0);
+        assertEquals(100.0, stats.getCoreCpuUsage().get(1).getIdle(), 0);
+    }
+
+    @Test
+    public void coresAreMatchedById() throws Exception {
+        writeStat("cpu  100 0 50 800 50 0 0 0 0 0",
+                "cpu0 50 0 25 400 25 0 0 0 0 0",
+                "cpu1 50 0 25 400 25 0 0 0 0 0");
+        reader.readCpuStats(new SystemStats());
+        Thread.sleep(150);
+
+        // cpu0下线，cpu2新上线
+        writeStat("cpu  200 0 100 1000 100 0 0 0 0 0",
+                "cpu1 50 0 25 600 25 0 0 0 0 0",
+                "cpu2 30 0 10 60 0 0 0 0 0 0");
+        SystemStats stats = new SystemStats();
+        reader.readCpuStats(stats);
+
+        List<CpuUsage> cores = stats.getCoreCpuUsage();
+        assertEquals(2, cores.size());
+        assertEquals(1, cores.get(0).getCore());
+        assertEquals(100.0, cores.get(0).getIdle(), 0);
+        // 新上线的核心使用开机以来的累计值
+        assertEquals(2, cores.get(1).getCore());
+        assertEquals(30.0, cores.get(1).getUser(), 0);
+        assertEquals(60.0, cores.get(1).getIdle(), 0);
+    }
+
+    @Test
+    public void shortIntervalKeepsBaseline() throws Exception {
+        writeStat("cpu  100 0 0 100 0 0 0 0 0 0");
+        reader.readCpuStats(new SystemStats());
+
+        // 间隔过短的采样与原基准比较，但不替换基准
+        writeStat("cpu  100 0 0 200 0 0 0 0 0 0");
+        SystemStats stats = new SystemStats();
+        reader.readCpuStats(stats);
+        assertEquals(100.0, stats.getCpuBreakdown().getIdle(), 0);
+        Thread.sleep(150);
+
+        writeStat("cpu  200 0 0 200 0 0 0 0 0 0");
+        stats = new SystemStats();
+        reader.readCpuStats(stats);
+        assertEquals(50.0, stats.getCpuBreakdown().getUser(), 0);
+        assertEquals(50.0, stats.getCpuBreakdown().getIdle(), 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void missingCpuRowFails() throws IOException {
+        write("stat", "intr 0\nbtime 1700000000\n");
+        reader.readCpuStats(new SystemStats());
+    }
+
+    @Test
+    public void listProcessesReadsStatFiles() throws IOException {
+        writeStat("cpu  1 0 0 1 0 0 0 0 0 0");
+        writeProcess(1, "systemd", 0, 300, 200, 100);
+        // 进程名可以包含空格和括号
+        writeProcess(42, "a) (b c", 1, 50, 50, 50_000);
+        // 非数字目录不是进程
+        Files.createDirectory(root.resolve("self"));
+
+        List<ProcessInfo> processes = reader.listProcesses(ProcessQuery.builder()
+                .fields(ProcessField.NAME, ProcessField.CPU_TIME, ProcessField.PARENT_PID, ProcessField.START_TIME)
+                .build());
+        processes.sort((a, b) -> Long.compare(a.getPid(), b.getPid()));
+
+        assertEquals(2, processes.size());
+        ProcessInfo init = processes.get(0);
+        assertEquals("systemd", init.getName());
+        assertEquals(0, init.getParentPid());
+        assertEquals(5000, init.getCpuTimeMillis());
+        assertEquals(999_000, init.getElapsedMillis());
+        assertEquals(1_700_000_000_000L + 1000, init.getStartTimeMillis());
+
+        ProcessInfo child = processes.get(1);
+        assertEquals("a) (b c", child.getName());
+        assertEquals(1, child.getParentPid());
+        assertEquals(1000, child.getCpuTimeMillis());
+        assertEquals(500_000, child.getElapsedMillis());
+    }
+
+    @Test
+    public void listProcessTableMatchesList() throws IOException {
+        writeStat("cpu  1 0 0 1 0 0 0 0 0 0");
+        writeProcess(1, "systemd", 0, 300, 200, 100);
+        writeProcess(42, "a) (b c", 1, 50, 50, 50_000);
+
+        ProcessTable table = reader.listProcessTable();
+        List<ProcessInfo> processes = reader.listProcesses();
+
+        assertEquals(processes.size(), table.size());
+        for (int i = 0; i < table.size(); i++) {
+            ProcessInfo expected = processes.get(i);
+            assertEquals(expected.getPid(), table.getPid(i));
+            assertEquals(expected.getName(), table.getName(i));
+            assertEquals(expected.getParentPid(), table.getParentPid(i));
+            assertEquals(expected.getCpu(), table.getCpu(i), 0);
+            assertEquals(expected.getMemoryBytes(), table.getMemoryBytes(i));
+            assertEquals(expected.getCpuTimeMillis(), table.getCpuTimeMillis(i));
+            assertEquals(expected.getStartTimeMillis(), table.getStartTimeMillis(i));
+            assertEquals(expected.getElapsedMillis(), table.getElapsedMillis(i));
+        }
+    }
+
+    @Test
+    public void parallelScanMatchesSequential() throws IOException {
+        writeStat("cpu  1 0 0 1 0 0 0 0 0 0");
+        for (int pid = 1; pid <= 300; pid++) {
+            writeProcess(pid, "p" + pid, pid - 1, pid, pid, pid * 10L);
+        }
+        ProcessQuery query = ProcessQuery.builder().nameMatches("p[0-9]*7").build();
+        List<ProcessInfo> sequential = reader.listProcesses(query);
+
+        int threshold = ProcFsReader.getParallelThreshold();
+        ForkJoinPool pool = ProcFsReader.getScanPool();
+        ForkJoinPool scanPool = new ForkJoinPool(4);
+        try {
+            ProcFsReader.setParallelThreshold(1);
+            ProcFsReader.setScanPool(scanPool);
+            List<ProcessInfo> parallel = reader.listProcesses(query);
+
+            assertEquals(30, parallel.size());
+            assertEquals(sequential.size(), parallel.size());
+            for (int i = 0; i < sequential.size(); i++) {
+                assertEquals(sequential.get(i).getPid(), parallel.get(i).getPid());
+                assertEquals(sequential.get(i).getName(), parallel.get(i).getName());
+                assertEquals(sequential.get(i).getCpuTimeMillis(), parallel.get(i).getCpuTimeMillis());
+            }
+        } finally {
+            ProcFsReader.setParallelThreshold(threshold);
+            ProcFsReader.setScanPool(pool);
+            scanPool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelTableMatchesSequential() throws IOException {
+        writeStat("cpu  1 0 0 1 0 0 0 0 0 0");
+        for (int pid = 1; pid <= 300; pid++) {
+            // 进程名重复，合并分段时需要重新映射字符串池
+            writeProcess(pid, "p" + pid % 7, pid - 1, pid, pid, pid * 10L);
+        }
+        ProcessTable sequential = reader.listProcessTable();
+
+        int threshold = ProcFsReader.getParallelThreshold();
+        ForkJoinPool pool = ProcFsReader.getScanPool();
+        ForkJoinPool scanPool = new ForkJoinPool(4);
+        try {
+            ProcFsReader.setParallelThreshold(1);
+            ProcFsReader.setScanPool(scanPool);
+            ProcessTable parallel = reader.listProcessTable();
+
+            assertEquals(300, parallel.size());
+            assertEquals(7, parallel.getDistinctNameCount());
+            for (int i = 0; i < sequential.size(); i++) {
+                assertEquals(sequential.getPid(i), parallel.getPid(i));
+                assertEquals(sequential.getName(i), parallel.getName(i));
+                assertEquals(sequential.getParentPid(i), parallel.getParentPid(i));
+                assertEquals(sequential.getMemoryBytes(i), parallel.getMemoryBytes(i));
+                assertEquals(sequential.getCpuTimeMillis(i), parallel.getCpuTimeMillis(i));
+                assertEquals(sequential.getStartTimeMillis(i), parallel.getStartTimeMillis(i));
+                assertEquals(sequential.getElapsedMillis(i), parallel.getElapsedMillis(i));
+            }
+        } finally {
+            ProcFsReader.setParallelThreshold(threshold);
+            ProcFsReader.setScanPool(pool);
+            scanPool.shutdown();
+        }
+    }
+
+    @Test
+    public void streamReadsProcessesOnDemand() throws IOException {
+        writeStat("cpu  1 0 0 1 0 0 0 0 0 0");
+        for (int pid = 1; pid <= 200; pid++) {
+            writeProcess(pid, "p" + pid, 0, pid, pid, pid * 10L);
+        }
+
+        AtomicInteger read = new AtomicInteger();
+        try (Stream<ProcessInfo> processes = reader.streamProcesses(ProcessQuery.all())) {
+            Iterator<ProcessInfo> iterator = processes.peek(process -> read.incrementAndGet()).iterator();
+            ProcessInfo first = iterator.next();
+            assertEquals(1, read.get());
+
+            // 其余进程在遍历到时才读取，此时已退出的进程不会出现在流中
+            for (int pid = 1; pid <= 200; pid++) {
+                if (pid != first.getPid()) {
+                    deleteProcess(pid);
+                }
+            }
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void streamFindFirstStopsEarlyAndCloseReleasesDirectory() throws IOException {
+        Path fds = Paths.get("/proc/self/fd");
+        assumeTrue(Files.isDirectory(fds));
+        writeStat("cpu  1 0 0 1 0 0 0 0 0 0");
+        for (int pid = 1; pid <= 200; pid++) {
+            writeProcess(pid, "p" + pid, 0, pid, pid, pid * 10L);
+        }
+
+        AtomicInteger read = new AtomicInteger();
+        Stream<ProcessInfo> processes = reader.streamProcesses(ProcessQuery.all());
+        try {
+            Optional<ProcessInfo> first = processes.peek(process -> read.incrementAndGet()).findFirst();
+            assertTrue(first.isPresent());
+            assertEquals(1, read.get());
+            // findFirst之后目录句柄仍由流持有
+            assertTrue(countOpen(fds, root) > 0);
+        } finally {
+            processes.close();
+        }
+        assertEquals(0, countOpen(fds, root));
+    }
+
+    @Test
+    public void detectPageSizeFromSmaps() throws IOException {
+        Path self = Files.createDirectory(root.resolve("self"));
+        Files.write(self.resolve("smaps"), ("aaaad0000000-aaaad0010000 r-xp 00000000 08:01 1234 /usr/bin/java\n"
+                + "Size:                 64 kB\n"
+                + "KernelPageSize:       64 kB\n"
+                + "MMUPageSize:          64 kB\n").getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(65536, ProcFsReader.detectPageSize(self));
+    }
+
+    @Test
+    public void detectPageSizeFromResidentPages() throws IOException {
+        // 没有smaps时用VmRSS除以statm中的常驻页数，16KB页
+        Path self = Files.createDirectory(root.resolve("self"));
+        Files.write(self.resolve("status"), "Name:\tjava\nVmRSS:\t    1616 kB\n".getBytes(StandardCharsets.US_ASCII));
+        Files.write(self.resolve("statm"), "250 100 80 1 0 50 0\n".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(16384, ProcFsReader.detectPageSize(self));
+        assertEquals(4096, ProcFsReader.detectPageSize(root.resolve("missing")));
+    }
+
+    @Test
+    public void exitedProcessIsIgnored() throws IOException {
+        writeStat("cpu  1 0 0 1 0 0 0 0 0 0");
+        assertNull(reader.getProcessInfo(4242));
+    }
+
+    private void writeStat(String... cpuRows) throws IOException {
+        write("stat", String.join("\n", cpuRows) + "\nintr 0\nbtime 1700000000\n");
+    }
+
+    private void writeProcess(long pid, String name, long ppid, long utime, long stime, long startTicks)
+            throws IOException {
+        Path dir = Files.createDirectory(root.resolve(Long.toString(pid)));
+        Files.write(dir.resolve("comm"), (name + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("stat"), String.format(
+                "%d (%s) S %d %d %d 0 -1 4194560 100 0 0 0 %d %d 0 0 20 0 1 0 %d 1000000 200%n",
+                pid, name, ppid, pid, pid, utime, stime, startTicks).getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("statm"), "250 200 100 1 0 50 0\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void deleteProcess(long pid) throws IOException {
+        Path dir = root.resolve(Long.toString(pid));
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    /**
+     * 统计指向目标路径的文件描述符个数
+     */
+    private static long countOpen(Path fds, Path target) throws IOException {
+        long count = 0;
+        try (Stream<Path> entries = Files.list(fds)) {
+            for (Path fd : (Iterable<Path>) entries::iterator) {
+                try {
+                    if (Files.readSymbolicLink(fd).equals(target)) {
+                        count++;
+                    }
+                } catch (IOException e) {
+                    // 列出目录时使用的描述符随后已关闭
+                }
+            }
+        }
+        return count;
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(root.resolve(name), content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
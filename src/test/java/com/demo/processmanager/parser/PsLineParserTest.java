@@ -0,0 +1,121 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.ProcessDetails;
+import com.demo.processmanager.ProcessField;
+import com.demo.processmanager.ProcessInfo;
+import com.demo.processmanager.ProcessQuery;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 使用录制的ps -o pid,ppid,pcpu,pmem,rss,etime,time[,vsz,state,nlwp],comm输出验证解析
+ */
+public class PsLineParserTest {
+
+    private static final List<String> PS_OUTPUT = Arrays.asList(
+            "    1     0  0.0  0.1 11480 3-04:05:06 00:00:12 systemd",
+            "  812     1  1.5  0.4 40960   01:02:03 00:01:30 Web Content",
+            "  PID  PPID %CPU %MEM   RSS     ELAPSED     TIME COMMAND",
+            "",
+            "   42     1  0.0",
+            " 1500   812 25.0  1.2 122880      05:00 00:00:45 java");
+
+    // 测试数据都带有rss列，不会执行命令获取总内存
+    private final PsLineParser parser = new PsLineParser(new TotalMemoryCache("exit 1", 1), true);
+
+    @Test
+    public void parseLinesSkipsMalformedRows() {
+        List<ProcessInfo> processes = parser.parseLines(PS_OUTPUT);
+
+        assertEquals(3, processes.size());
+        assertEquals(1, processes.get(0).getPid());
+        assertEquals(812, processes.get(1).getPid());
+        assertEquals(1500, processes.get(2).getPid());
+    }
+
+    @Test
+    public void parseLineReadsAllColumns() {
+        long before = System.currentTimeMillis();
+        ProcessInfo process = parser.parseLine("  812     1  1.5  0.4 40960   01:02:03 00:01:30 Web Content");
+
+        assertEquals(812, process.getPid());
+        assertEquals(1, process.getParentPid());
+        assertEquals(1.5, process.getCpu(), 0);
+        assertEquals("Web Content", process.getName());
+        assertEquals(40960L * 1024, process.getMemoryBytes());
+        assertEquals(40, process.getMemory());
+        assertTrue(process.isMemoryExact());
+        assertEquals(3_723_000, process.getElapsedMillis());
+        assertTrue(process.getStartTimeMillis() >= before - 3_723_000);
+        assertEquals(90_000, process.getCpuTimeMillis());
+        assertEquals("01:02:03", process.getStartTime());
+    }
+
+    @Test
+    public void parseLinesAppliesQuery() {
+        ProcessQuery query = ProcessQuery.builder()
+                .minCpu(1.0)
+                .minMemoryMB(100)
+                .fields(ProcessField.NAME)
+                .build();
+        List<ProcessInfo> processes = parser.parseLines(PS_OUTPUT, query, false);
+
+        assertEquals(1, processes.size());
+        ProcessInfo java = processes.get(0);
+        assertEquals(1500, java.getPid());
+        assertEquals("java", java.getName());
+        // 未投影的字段保持默认值
+        assertEquals(0, java.getCpu(), 0);
+        assertEquals(0, java.getMemoryBytes());
+        assertEquals(-1, java.getParentPid());
+        assertEquals(-1, java.getCpuTimeMillis());
+        assertEquals(-1, java.getElapsedMillis());
+    }
+
+    @Test
+    public void parseLinesFiltersByPidAndName() {
+        ProcessQuery byPid = ProcessQuery.builder().pids(812, 9999).build();
+        assertEquals(1, parser.parseLines(PS_OUTPUT, byPid, false).size());
+
+        ProcessQuery byName = ProcessQuery.builder().nameMatches("Web.*").build();
+        List<ProcessInfo> processes = parser.parseLines(PS_OUTPUT, byName, false);
+        assertEquals(1, processes.size());
+        assertEquals(812, processes.get(0).getPid());
+    }
+
+    @Test
+    public void parseExtendedColumns() {
+        ProcessQuery query = ProcessQuery.builder()
+                .fields(ProcessField.NAME, ProcessField.STATE, ProcessField.THREADS, ProcessField.MEMORY_DETAIL)
+                .build();
+        assertEquals("pid,ppid,pcpu,pmem,rss,etime,time,vsz,state,nlwp,comm", parser.columns(query));
+
+        List<ProcessInfo> processes = parser.parseLines(Arrays.asList(
+                " 1500   812 25.0  1.2 122880      05:00 00:00:45 3145728 Sl 27 java",
+                " 1501   812  0.0  0.0     -       05:00 00:00:00       0 Z   1 defunct worker"), query, false);
+
+        assertEquals(2, processes.size());
+        ProcessDetails details = processes.get(0).getDetails();
+        assertEquals("Sl", details.getState());
+        assertEquals(27, details.getThreadCount());
+        assertEquals(3145728L * 1024, details.getVirtualBytes());
+        assertEquals(122880L * 1024, details.getResidentBytes());
+        assertEquals("java", processes.get(0).getName());
+
+        ProcessInfo zombie = processes.get(1);
+        assertEquals("Z", zombie.getDetails().getState());
+        assertEquals("defunct worker", zombie.getName());
+    }
+
+    @Test
+    public void parseLineRejectsTruncatedLine() {
+        assertNull(parser.parseLine("   42     1  0.0"));
+        assertNull(parser.parseLine("abc 1 0.0 0.0 1 00:01 00:00:00 x"));
+    }
+}
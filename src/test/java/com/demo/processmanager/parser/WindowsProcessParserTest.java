@@ -0,0 +1,145 @@
+package com.demo.processmanager.parser;
+
+import com.demo.processmanager.ProcessField;
+import com.demo.processmanager.ProcessInfo;
+import com.demo.processmanager.ProcessQuery;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 使用录制的wmic /format:csv输出验证Windows进程解析
+ */
+public class WindowsProcessParserTest {
+
+    @Test
+    public void parseCsvHandlesWmicLineEndings() throws IOException {
+        List<Map<String, String>> records = WmicOutput.parseCsv(readFixture("process.csv"));
+
+        // 开头的空行、中间的空行以及\r\r\n中多余的\r都不应产生记录
+        assertEquals(5, records.size());
+        Map<String, String> first = records.get(0);
+        assertEquals("DESKTOP-PM", first.get("Node"));
+        assertEquals("System Idle Process", first.get("Name"));
+        assertEquals("8192", first.get("WorkingSetSize"));
+        assertEquals("", first.get("CreationDate"));
+    }
+
+    @Test
+    public void parseCsvKeepsCommaInName() throws IOException {
+        List<Map<String, String>> records = WmicOutput.parseCsv(readFixture("process.csv"));
+
+        Map<String, String> record = records.get(3);
+        assertEquals("4321", record.get("ProcessId"));
+        assertEquals("my,app.exe", record.get("Name"));
+        assertEquals("1200", record.get("ParentProcessId"));
+        assertEquals("10485760", record.get("WorkingSetSize"));
+        assertEquals("chrome.exe", records.get(records.size() - 1).get("Name"));
+    }
+
+    @Test
+    public void parseCsvSkipsTruncatedRows() {
+        List<Map<String, String>> records = WmicOutput.parseCsv(Arrays.asList(
+                "Node,Name,ProcessId",
+                "DESKTOP-PM,a,b,c,42",
+                "DESKTOP-PM,7"));
+
+        assertEquals(1, records.size());
+        assertEquals("a,b,c", records.get(0).get("Name"));
+        assertEquals("42", records.get(0).get("ProcessId"));
+    }
+
+    @Test
+    public void parseProcessRecords() throws IOException {
+        Map<Long, ProcessInfo> processes =
+                WindowsProcessParser.parseProcessRecords(WmicOutput.parseCsv(readFixture("process.csv")));
+
+        assertEquals(Arrays.asList(0L, 4L, 1200L, 4321L, 5000L), new ArrayList<>(processes.keySet()));
+        assertEquals("my,app.exe", processes.get(4321L).getName());
+
+        ProcessInfo svchost = processes.get(1200L);
+        assertEquals("svchost.exe", svchost.getName());
+        assertEquals(640, svchost.getParentPid());
+        assertEquals(25665536, svchost.getMemoryBytes());
+        assertEquals(24, svchost.getMemory());
+        // (1093750 + 781250) * 100ns
+        assertEquals(187, svchost.getCpuTimeMillis());
+        assertEquals("2024-01-01 08:00:05", svchost.getStartTime());
+        assertEquals(OffsetDateTime.parse("2024-01-01T08:00:05.125+08:00").toInstant().toEpochMilli(),
+                svchost.getStartTimeMillis());
+
+        // 没有创建时间的进程保持默认值
+        ProcessInfo idle = processes.get(0L);
+        assertEquals(0, idle.getStartTimeMillis());
+        assertEquals(-1, idle.getElapsedMillis());
+    }
+
+    @Test
+    public void parseProcessRecordsAppliesQuery() throws IOException {
+        ProcessQuery query = ProcessQuery.builder()
+                .minMemoryMB(20)
+                .fields(ProcessField.NAME)
+                .build();
+        Map<Long, ProcessInfo> processes =
+                WindowsProcessParser.parseProcessRecords(WmicOutput.parseCsv(readFixture("process.csv")), query);
+
+        assertEquals(Arrays.asList(1200L, 5000L), new ArrayList<>(processes.keySet()));
+        ProcessInfo chrome = processes.get(5000L);
+        assertEquals("chrome.exe", chrome.getName());
+        // 未投影的字段保持默认值
+        assertEquals(0, chrome.getMemoryBytes());
+        assertEquals(-1, chrome.getCpuTimeMillis());
+        assertEquals(-1, chrome.getParentPid());
+        assertNull(chrome.getStartTime());
+    }
+
+    @Test
+    public void applyCpuUsageMergesByPid() throws IOException {
+        Map<Long, ProcessInfo> processes =
+                WindowsProcessParser.parseProcessRecords(WmicOutput.parseCsv(readFixture("process.csv")));
+        WindowsProcessParser.applyCpuUsage(processes, WmicOutput.parseCsv(readFixture("perf-process.csv")));
+
+        // _Total实例的IDProcess同样为0，不能覆盖Idle进程
+        assertEquals(97.0, processes.get(0L).getCpu(), 0);
+        assertEquals(1.0, processes.get(4L).getCpu(), 0);
+        assertEquals(0.0, processes.get(1200L).getCpu(), 0);
+        assertEquals(3.0, processes.get(5000L).getCpu(), 0);
+        // 已退出进程的计数器记录被忽略
+        assertFalse(processes.containsKey(7777L));
+    }
+
+    @Test
+    public void parseWindowsTimeMillis() {
+        assertEquals(OffsetDateTime.parse("2024-01-01T09:30:00.500+08:00").toInstant().toEpochMilli(),
+                WindowsProcessParser.parseWindowsTimeMillis("20240101093000.500000+480"));
+        assertEquals(OffsetDateTime.parse("2024-06-30T23:59:59-05:00").toInstant().toEpochMilli(),
+                WindowsProcessParser.parseWindowsTimeMillis("20240630235959.000000-300"));
+        assertEquals(0, WindowsProcessParser.parseWindowsTimeMillis(""));
+        assertEquals(0, WindowsProcessParser.parseWindowsTimeMillis("2024010109300"));
+    }
+
+    /**
+     * 按LineReader的方式读取录制的输出：以\n分行并去除一个\r
+     */
+    private static List<String> readFixture(String name) throws IOException {
+        try (InputStream in = WindowsProcessParserTest.class.getResourceAsStream("/wmic/" + name)) {
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            List<String> lines = new ArrayList<>();
+            for (String line : content.split("\n")) {
+                lines.add(line.endsWith("\r") ? line.substring(0, line.length() - 1) : line);
+            }
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.demo.processmanager.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 使用短时间的sleep命令验证CommandExecutor的并发上限、超时和stderr读取
+ */
+public class CommandExecutorTest {
+
+    private int maxConcurrent;
+    private long acquireTimeout;
+
+    @Before
+    public void setUp() {
+        maxConcurrent = CommandExecutor.getMaxConcurrentCommands();
+        acquireTimeout = CommandExecutor.getAcquireTimeoutMillis();
+        CommandExecutor.setMaxConcurrentCommands(1);
+        CommandExecutor.setAcquireTimeoutMillis(100);
+    }
+
+    @After
+    public void tearDown() {
+        CommandExecutor.setMaxConcurrentCommands(maxConcurrent);
+        CommandExecutor.setAcquireTimeoutMillis(acquireTimeout);
+    }
+
+    @Test
+    public void rejectsWhenPermitsExhausted() throws IOException {
+        try (CommandOutput running = CommandExecutor.openCommand("sleep 5")) {
+            try {
+                CommandExecutor.executeCommand("echo rejected");
+                fail("名额用尽时应拒绝执行");
+            } catch (CommandRejectedException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("echo rejected"));
+            }
+        }
+        // 关闭后名额被归还
+        assertEquals(Arrays.asList("ok"), CommandExecutor.executeCommand("echo ok"));
+    }
+
+    @Test
+    public void waitsForPermitWithinAcquireTimeout() throws Exception {
+        CommandExecutor.setAcquireTimeoutMillis(5_000);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> {
+            try {
+                CommandExecutor.executeCommand("sleep 0.3");
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(100);
+
+        assertEquals(Arrays.asList("second"), CommandExecutor.executeCommand("echo second"));
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void timeoutDestroysProcessTree() throws Exception {
+        CompletableFuture<Long> childPid = new CompletableFuture<>();
+        long start = System.nanoTime();
+        try {
+            // 后台的sleep是sh的子进程，超时后应一起被终止
+            CommandExecutor.executeCommand("sleep 30 & echo $!; wait", 500, line -> {
+                childPid.complete(Long.parseLong(line.toString().trim()));
+                return true;
+            });
+            fail("应当超时");
+        } catch (CommandTimeoutException e) {
+            assertEquals(500, e.getTimeoutMillis());
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+        long pid = childPid.get(1, TimeUnit.SECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false)) {
+            if (System.nanoTime() > deadline) {
+                fail("超时后子进程没有被终止: " + pid);
+            }
+            Thread.sleep(20);
+        }
+        // 超时的命令归还了名额
+        assertEquals(Arrays.asList("ok"), CommandExecutor.executeCommand("echo ok"));
+    }
+
+    @Test
+    public void drainsLargeStderr() throws IOException {
+        // 超过管道缓冲区的stderr输出不读取会使命令阻塞
+        assertEquals(Arrays.asList("done"),
+                CommandExecutor.executeCommand("head -c 500000 /dev/zero | tr '\\0' x >&2; echo done", 5_000));
+    }
+
+    @Test
+    public void failureIncludesStderr() {
+        try {
+            CommandExecutor.executeCommand("echo boom >&2; exit 2");
+            fail("非0退出码应抛出异常");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("2"));
+            assertTrue(e.getMessage(), e.getMessage().contains("boom"));
+        }
+    }
+
+    @Test
+    public void earlyStopReleasesPermit() throws IOException {
+        assertFalse(CommandExecutor.executeCommand("echo 1; sleep 5; echo 2", line -> false));
+        assertEquals(Arrays.asList("ok"), CommandExecutor.executeCommand("echo ok"));
+    }
+}
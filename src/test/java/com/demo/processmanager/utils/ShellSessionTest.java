@@ -0,0 +1,149 @@
+package com.demo.processmanager.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 在真实的sh进程上验证常驻会话的哨兵协议、超时恢复和会话池关闭
+ */
+public class ShellSessionTest {
+
+    private final ShellSession session = new ShellSession();
+
+    @After
+    public void tearDown() {
+        session.close();
+    }
+
+    @Test
+    public void sentinelSeparatesConsecutiveCommands() throws IOException {
+        assertEquals(Arrays.asList("a", "b"), run("echo a; echo; echo b"));
+        // 输出末尾没有换行时哨兵仍然位于单独的一行
+        assertEquals(Arrays.asList("no newline"), run("printf 'no newline'"));
+        // 与哨兵前缀相似的输出不会结束命令
+        assertEquals(Arrays.asList("__PM_END_", "x"), run("echo __PM_END_; echo x"));
+        // 命令不能读取会话的stdin，否则会吞掉后续命令
+        assertEquals(Arrays.asList("0"), run("cat | wc -l | tr -d ' '"));
+        assertEquals(Arrays.asList("still here"), run("echo still here"));
+    }
+
+    @Test
+    public void sessionIsReused() throws IOException {
+        String first = run("echo $$").get(0);
+        String second = run("echo $$").get(0);
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void nonZeroExitIsReported() throws IOException {
+        try {
+            run("echo partial; sh -c 'exit 3'");
+            fail("非0退出码应抛出异常");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("3"));
+        }
+        // 退出码只影响当前命令，会话继续可用
+        assertEquals(Arrays.asList("ok"), run("echo ok"));
+    }
+
+    @Test
+    public void earlyStopSkipsRemainingOutput() throws IOException {
+        List<String> lines = new ArrayList<>();
+        // 回调提前结束时不检查退出码
+        boolean complete = session.execute("echo 1; echo 2; echo 3; false", 5_000,
+                line -> lines.add(line.toString()) && lines.size() < 2);
+
+        assertFalse(complete);
+        assertEquals(Arrays.asList("1", "2"), lines);
+        assertEquals(Arrays.asList("next"), run("echo next"));
+    }
+
+    @Test
+    public void timeoutRestartsShell() throws IOException {
+        String pid = run("echo $$").get(0);
+        long start = System.nanoTime();
+        try {
+            session.execute("sleep 5", 200, line -> true);
+            fail("应当超时");
+        } catch (CommandTimeoutException e) {
+            assertEquals(200, e.getTimeoutMillis());
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(4));
+
+        // 超时终止了原shell，下一条命令在新启动的shell中成功执行
+        assertEquals(Arrays.asList("ok"), run("echo ok"));
+        assertFalse(pid.equals(run("echo $$").get(0)));
+    }
+
+    @Test
+    public void exitInCommandRestartsShell() throws IOException {
+        try {
+            run("exit 0");
+            fail("shell退出时应抛出异常");
+        } catch (IOException e) {
+            assertFalse(e instanceof CommandTimeoutException);
+        }
+        assertEquals(Arrays.asList("ok"), run("echo ok"));
+    }
+
+    @Test
+    public void closedPoolRejectsCommands() throws IOException {
+        ShellSessionPool pool = new ShellSessionPool(1);
+        List<String> lines = new ArrayList<>();
+        pool.execute("echo ok", 5_000, 1_000, line -> lines.add(line.toString()));
+        assertEquals(Arrays.asList("ok"), lines);
+
+        pool.close();
+        try {
+            pool.execute("echo ok", 5_000, 1_000, line -> true);
+            fail("已关闭的会话池应拒绝执行");
+        } catch (IOException e) {
+            assertFalse(e instanceof CommandRejectedException);
+        }
+    }
+
+    @Test
+    public void sessionReturnedToClosedPoolIsTerminated() throws Exception {
+        ShellSessionPool pool = new ShellSessionPool(1);
+        CompletableFuture<String> shellPid = new CompletableFuture<>();
+        CompletableFuture<Boolean> result = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.execute("echo $$; sleep 1", 5_000, 1_000, line -> shellPid.complete(line.toString()));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        long pid = Long.parseLong(shellPid.get(5, TimeUnit.SECONDS));
+        // 命令执行期间关闭会话池，执行中的命令不受影响
+        pool.close();
+        assertTrue(result.get(5, TimeUnit.SECONDS));
+
+        // 归还时会话被终止，而不是放回已关闭的池中
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false)) {
+            if (System.nanoTime() > deadline) {
+                fail("归还到已关闭会话池的shell没有被终止: " + pid);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private List<String> run(String command) throws IOException {
+        List<String> lines = new ArrayList<>();
+        assertTrue(session.execute(command, 5_000, line -> lines.add(line.toString())));
+        return lines;
+    }
+}
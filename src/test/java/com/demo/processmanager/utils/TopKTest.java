@@ -0,0 +1,87 @@
+package com.demo.processmanager.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TopKTest {
+
+    @Test
+    public void selectsLargestInDescendingOrder() {
+        int[] values = {5, 1, 9, 3, 7, 2, 8};
+        int[] top = TopK.select(values.length, 3, (a, b) -> Integer.compare(values[a], values[b]));
+
+        assertArrayEquals(new int[]{2, 6, 4}, top);
+    }
+
+    @Test
+    public void tiesPreferLowerIndex() {
+        int[] values = {4, 7, 4, 7, 4, 1};
+        int[] top = TopK.select(values.length, 4, (a, b) -> Integer.compare(values[a], values[b]));
+
+        assertArrayEquals(new int[]{1, 3, 0, 2}, top);
+    }
+
+    @Test
+    public void kLargerThanSizeReturnsAllSorted() {
+        int[] values = {2, 5, 2, 9};
+        int[] top = TopK.select(values.length, 10, (a, b) -> Integer.compare(values[a], values[b]));
+
+        assertArrayEquals(new int[]{3, 1, 0, 2}, top);
+    }
+
+    @Test
+    public void kZeroOrEmptyInputReturnsEmpty() {
+        assertEquals(0, TopK.select(5, 0, (a, b) -> Integer.compare(a, b)).length);
+        assertEquals(0, TopK.select(0, 3, (a, b) -> Integer.compare(a, b)).length);
+        assertTrue(TopK.select(Collections.<Integer>emptyList(), 3, Comparator.naturalOrder()).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeKIsRejected() {
+        TopK.select(5, -1, (a, b) -> Integer.compare(a, b));
+    }
+
+    @Test
+    public void listVersionMatchesStableSort() {
+        Random random = new Random(42);
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            // 取值范围小，包含大量相同的值
+            items.add(random.nextInt(50));
+        }
+        // 稳定排序后取前k个与Top-K的顺序一致（值相同时靠前的元素优先）
+        List<Integer> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.reverseOrder());
+
+        for (int k : new int[]{1, 10, 100, 1000}) {
+            assertEquals(sorted.subList(0, k), TopK.select(items, k, Comparator.naturalOrder()));
+        }
+    }
+
+    @Test
+    public void indexVersionMatchesStableSortWithTies() {
+        Random random = new Random(7);
+        int[] values = new int[500];
+        Integer[] order = new Integer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(20);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(values[b], values[a]));
+
+        int[] top = TopK.select(values.length, 37, (a, b) -> Integer.compare(values[a], values[b]));
+        for (int i = 0; i < top.length; i++) {
+            assertEquals(order[i].intValue(), top[i]);
+        }
+    }
+}